@@ -5,31 +5,12 @@ from spacy.tokens import DocBin
 from spacy.training.example import Example
 import sys
 import re
+import struct
+import time
 
-try:
-    nlp = sp.load(sys.argv[2])
-except:
-    print("Failed to load model")
 
-try:
-    dataFileName = sys.argv[1]
-except:
-    dataFileName = ""
-
-try:
-    f = open(dataFileName, "r")
-    pageText = f.read()
-    f.close()
-except:
-    print("Failed to open file")
-    pageText = ""
-
-data = re.split("\\. |;|\u2022", pageText)
-
-outputVals = []
-
-for i in range(len(data)):
-    doc = nlp(data[i])
+def metrics_for_doc(doc):
+    outputVals = []
     ents = list(doc.ents)
     entsSize = len(ents)
     j = 0
@@ -49,5 +30,118 @@ for i in range(len(data)):
         else:
             j = j + 1
 
-for sentence in outputVals:
-    print(sentence)
\ No newline at end of file
+    return outputVals
+
+
+def find_metrics(nlp, data):
+    outputVals = []
+
+    for i in range(len(data)):
+        outputVals.extend(metrics_for_doc(nlp(data[i])))
+
+    return outputVals
+
+
+# Sentences sent by a NER request are separated by the record separator character and numbered from the first ID in
+# the command line. They are tagged together with nlp.pipe so that spaCy can batch them. Each result line starts with
+# the ID of the sentence it was found in, followed by a tab.
+def tag_sentences(nlp, firstId, sentences):
+    outputVals = []
+
+    for i, doc in enumerate(nlp.pipe(sentences, batch_size=max(1, len(sentences)))):
+        for metric in metrics_for_doc(doc):
+            outputVals.append(str(firstId + i) + "\t" + metric)
+
+    return outputVals
+
+
+def split_sentences(pageText):
+    return re.split("\\. |;|\u2022", pageText)
+
+
+# Frames are a 4 byte big-endian length followed by that many bytes of UTF-8 text. The first line of a frame is
+# the command or status and the rest of the frame is its body.
+def read_frame(stream):
+    header = stream.read(4)
+    if len(header) < 4:
+        return None
+    (length,) = struct.unpack(">I", header)
+    payload = b""
+    while len(payload) < length:
+        chunk = stream.read(length - len(payload))
+        if not chunk:
+            return None
+        payload = payload + chunk
+    return payload.decode("utf-8")
+
+
+def write_frame(stream, text):
+    data = text.encode("utf-8")
+    stream.write(struct.pack(">I", len(data)))
+    stream.write(data)
+    stream.flush()
+
+
+def serve(modelPath):
+    frameIn = sys.stdin.buffer
+    frameOut = sys.stdout.buffer
+    # Anything printed by libraries must not end up in the frame stream
+    sys.stdout = sys.stderr
+
+    try:
+        nlp = sp.load(modelPath)
+    except:
+        write_frame(frameOut, "ERROR\nFailed to load model")
+        return
+
+    write_frame(frameOut, "READY")
+
+    while True:
+        frame = read_frame(frameIn)
+        if frame is None:
+            break
+        command, _, body = frame.partition("\n")
+        if command == "PING":
+            write_frame(frameOut, "PONG")
+        elif command.startswith("NER "):
+            firstId = int(command.split(" ")[1])
+            sentences = body.split("\u001e") if len(body) > 0 else []
+            started = time.perf_counter()
+            results = tag_sentences(nlp, firstId, sentences)
+            elapsedMs = int((time.perf_counter() - started) * 1000)
+            write_frame(frameOut, "RESULT " + str(firstId) + " " + str(elapsedMs) + "\n" + "\n".join(results))
+        elif command == "SYNC":
+            write_frame(frameOut, "SYNCED")
+        elif command == "QUIT":
+            break
+        else:
+            write_frame(frameOut, "ERROR\nUnknown command " + command)
+
+
+def run_once():
+    try:
+        nlp = sp.load(sys.argv[2])
+    except:
+        print("Failed to load model")
+
+    try:
+        dataFileName = sys.argv[1]
+    except:
+        dataFileName = ""
+
+    try:
+        f = open(dataFileName, "r")
+        pageText = f.read()
+        f.close()
+    except:
+        print("Failed to open file")
+        pageText = ""
+
+    for sentence in find_metrics(nlp, split_sentences(pageText)):
+        print(sentence)
+
+
+if len(sys.argv) > 2 and sys.argv[1] == "--worker":
+    serve(sys.argv[2])
+else:
+    run_once()
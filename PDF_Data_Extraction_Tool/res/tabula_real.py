@@ -1,18 +1,43 @@
 import tabula as tb
 import sys
+import struct
 import pandas as pd
 
+# Tables are written to standard output in the binary format read by TableCodec.java: b'T', the number of rows
+# and columns as big-endian 32 bit integers, then each cell in row order as a big-endian 32 bit length followed by
+# that many bytes of UTF-8 text. The first row holds the column titles and b'E' follows the last table.
+
+def write_cell(out, value):
+    if value is None or (not isinstance(value, str) and pd.isna(value)):
+        data = b''
+    else:
+        data = str(value).encode('utf-8')
+    out.write(struct.pack('>i', len(data)))
+    out.write(data)
+
+def write_table(out, table):
+    out.write(b'T')
+    out.write(struct.pack('>ii', table.shape[0] + 1, table.shape[1]))
+    for column in table.columns:
+        write_cell(out, column)
+    for row in table.itertuples(index=False):
+        for value in row:
+            write_cell(out, value)
+
 try:
     dataFileName = sys.argv[1]
 except:
     dataFileName = ""
 
-df = tb.read_pdf(dataFileName, pages = 'all')
+out = sys.stdout.buffer
+# Anything printed by tabula itself goes to the error stream so it cannot corrupt the tables
+sys.stdout = sys.stderr
 
-pd.set_option("display.max_rows", None, "display.max_columns", None)
-pd.set_option("expand_frame_repr", False)
+df = tb.read_pdf(dataFileName, pages = 'all')
 
 for a in df:
     if a.shape[0] != 0:
-        print("DIMENSIONS*** OF** TABLE*", a.shape[0], a.shape[1])
-        print(a)
\ No newline at end of file
+        write_table(out, a)
+
+out.write(b'E')
+out.flush()
@@ -0,0 +1,245 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+/**
+ * A compiled multi-pattern string matcher that finds every occurrence of every pattern in a text in a single pass,
+ * no matter how many patterns there are. Transitions of each state are stored as sorted character arrays so that
+ * large dictionaries stay compact.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class AhoCorasickAutomaton {
+	/**
+	 * Receives every pattern occurrence found while scanning a text
+	 */
+	public interface MatchHandler {
+		/**
+		 * Called once for each occurrence of a pattern, in order of the position where the occurrence ends
+		 * @param patternId     The index of the pattern in the list given to the constructor
+		 * @param start         The index in the text where the occurrence starts
+		 * @param end           The index in the text after the last character of the occurrence
+		 */
+		void onMatch(int patternId, int start, int end);
+	}
+	/**
+	 * True if patterns and text are compared without regard to case
+	 */
+	private final boolean caseInsensitive;
+	/**
+	 * The characters that each state has a transition for, sorted in ascending order
+	 */
+	private final char[][] transitionChars;
+	/**
+	 * The target state of each transition, in the same order as transitionChars
+	 */
+	private final int[][] transitionTargets;
+	/**
+	 * The state to continue from when a state has no transition for the next character
+	 */
+	private final int[] failure;
+	/**
+	 * The pattern that ends at each state, or -1 if no pattern ends there
+	 */
+	private final int[] output;
+	/**
+	 * The nearest state on the failure chain of each state that has an output, or -1 if there is none
+	 */
+	private final int[] outputLink;
+	/**
+	 * The length of each pattern
+	 */
+	private final int[] patternLengths;
+	/**
+	 * Compiles a list of patterns into an automaton. Empty patterns are ignored and never reported, and a pattern
+	 * that appears more than once is only reported under its first index.
+	 * @param patterns            The patterns to find
+	 * @param caseInsensitive     True if patterns should match text regardless of case
+	 */
+	public AhoCorasickAutomaton(List<String> patterns, boolean caseInsensitive) {
+		this.caseInsensitive = caseInsensitive;
+		patternLengths = new int[patterns.size()];
+		/**
+		 * The transitions of each state while the trie is being built
+		 */
+		List<Map<Character, Integer>> trie = new ArrayList<Map<Character, Integer>>();
+		/**
+		 * The pattern that ends at each state while the trie is being built
+		 */
+		List<Integer> ends = new ArrayList<Integer>();
+		trie.add(new HashMap<Character, Integer>());
+		ends.add(-1);
+		for (int i = 0; i < patterns.size(); i++) {
+			/**
+			 * The pattern being added to the trie
+			 */
+			String pattern = patterns.get(i);
+			patternLengths[i] = pattern.length();
+			if (pattern.length() == 0) {
+				continue;
+			}
+			/**
+			 * The state reached so far by the characters of the pattern
+			 */
+			int state = 0;
+			for (int j = 0; j < pattern.length(); j++) {
+				/**
+				 * The next character of the pattern
+				 */
+				char c = fold(pattern.charAt(j));
+				/**
+				 * The state that the character leads to, if it already exists
+				 */
+				Integer next = trie.get(state).get(c);
+				if (next == null) {
+					next = trie.size();
+					trie.add(new HashMap<Character, Integer>());
+					ends.add(-1);
+					trie.get(state).put(c, next);
+				}
+				state = next;
+			}
+			if (ends.get(state) == -1) {
+				ends.set(state, i);
+			}
+		}
+		/**
+		 * The number of states in the trie
+		 */
+		int numStates = trie.size();
+		transitionChars = new char[numStates][];
+		transitionTargets = new int[numStates][];
+		output = new int[numStates];
+		for (int s = 0; s < numStates; s++) {
+			/**
+			 * The characters that the state has transitions for
+			 */
+			char[] chars = new char[trie.get(s).size()];
+			/**
+			 * The position in chars of the next character to be written
+			 */
+			int k = 0;
+			for (Character c : trie.get(s).keySet()) {
+				chars[k++] = c;
+			}
+			Arrays.sort(chars);
+			/**
+			 * The target states, ordered the same way as the sorted characters
+			 */
+			int[] targets = new int[chars.length];
+			for (k = 0; k < chars.length; k++) {
+				targets[k] = trie.get(s).get(chars[k]);
+			}
+			transitionChars[s] = chars;
+			transitionTargets[s] = targets;
+			output[s] = ends.get(s);
+		}
+		failure = new int[numStates];
+		outputLink = new int[numStates];
+		outputLink[0] = -1;
+		/**
+		 * States waiting for their failure link to be computed, in breadth first order
+		 */
+		ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+		for (int target : transitionTargets[0]) {
+			failure[target] = 0;
+			outputLink[target] = -1;
+			queue.add(target);
+		}
+		while (!queue.isEmpty()) {
+			/**
+			 * The state whose children are being linked
+			 */
+			int state = queue.poll();
+			for (int k = 0; k < transitionChars[state].length; k++) {
+				/**
+				 * The character of the transition to the child
+				 */
+				char c = transitionChars[state][k];
+				/**
+				 * The child state
+				 */
+				int child = transitionTargets[state][k];
+				/**
+				 * Candidate state for the child's failure link
+				 */
+				int fallback = failure[state];
+				while (fallback != 0 && transition(fallback, c) < 0) {
+					fallback = failure[fallback];
+				}
+				/**
+				 * The transition from the fallback state, if any
+				 */
+				int linked = transition(fallback, c);
+				failure[child] = linked < 0 ? 0 : linked;
+				outputLink[child] = output[failure[child]] >= 0 ? failure[child] : outputLink[failure[child]];
+				queue.add(child);
+			}
+		}
+	}
+	/**
+	 * Returns the number of patterns the automaton was compiled from
+	 * @return     The number of patterns
+	 */
+	public int getPatternCount() {
+		return patternLengths.length;
+	}
+	/**
+	 * Scans a text once and reports every occurrence of every pattern, including overlapping occurrences
+	 * @param text        The text to scan
+	 * @param handler     Receives each occurrence
+	 */
+	public void scan(CharSequence text, MatchHandler handler) {
+		/**
+		 * The current state of the automaton
+		 */
+		int state = 0;
+		for (int i = 0; i < text.length(); i++) {
+			/**
+			 * The next character of the text
+			 */
+			char c = fold(text.charAt(i));
+			/**
+			 * The state that the character leads to
+			 */
+			int next = transition(state, c);
+			while (next < 0 && state != 0) {
+				state = failure[state];
+				next = transition(state, c);
+			}
+			state = next < 0 ? 0 : next;
+			/**
+			 * A state on the output chain of the current state
+			 */
+			int hit = output[state] >= 0 ? state : outputLink[state];
+			while (hit >= 0) {
+				handler.onMatch(output[hit], i + 1 - patternLengths[output[hit]], i + 1);
+				hit = outputLink[hit];
+			}
+		}
+	}
+	/**
+	 * Finds the transition of a state for a character
+	 * @param state     The state
+	 * @param c         The character
+	 * @return          The target state, or -1 if the state has no transition for the character
+	 */
+	private int transition(int state, char c) {
+		/**
+		 * The position of the character in the state's transitions
+		 */
+		int k = Arrays.binarySearch(transitionChars[state], c);
+		return k < 0 ? -1 : transitionTargets[state][k];
+	}
+	/**
+	 * Normalises a character for comparison
+	 * @param c     A character of a pattern or text
+	 * @return      The lower case character if the automaton is case insensitive, otherwise param c
+	 */
+	private char fold(char c) {
+		return caseInsensitive ? Character.toLowerCase(c) : c;
+	}
+}
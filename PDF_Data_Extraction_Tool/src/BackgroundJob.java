@@ -0,0 +1,171 @@
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.swt.widgets.Display;
+/**
+ * Runs extraction jobs on worker threads so that the user interface stays responsive. Progress and results are
+ * passed back to the user interface thread with Display.asyncExec. Jobs share a pool of threads that grows as
+ * needed, so jobs started from different tabs run at the same time. The peak heap usage of the whole program while
+ * each job ran is recorded in its monitor. The peak is only reset when a job starts while no other job is running,
+ * so that starting a job never loses the peak of a job that is still running, and the peak of jobs that overlap
+ * includes the memory of both.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class BackgroundJob {
+	/**
+	 * The work done by a job
+	 * @param <T>     The type of the result of the job
+	 */
+	public interface Task<T> {
+		/**
+		 * Runs the job on a worker thread
+		 * @param monitor       Receives the progress of the job and tells it when it has been cancelled
+		 * @return              The result of the job
+		 * @throws Exception    Occurs if the job fails
+		 */
+		T run(JobMonitor monitor) throws Exception;
+	}
+	/**
+	 * Receives the outcome of a job on the user interface thread
+	 * @param <T>     The type of the result of the job
+	 */
+	public interface Callback<T> {
+		/**
+		 * Called when the job has finished
+		 * @param result     The result of the job
+		 */
+		void succeeded(T result);
+		/**
+		 * Called when the job has failed
+		 * @param e     The reason the job failed, where an Error thrown by the job, such as an OutOfMemoryError, is
+		 *              wrapped in an ExecutionException
+		 */
+		void failed(Exception e);
+		/**
+		 * Called when the job has stopped after being cancelled
+		 */
+		void cancelled();
+	}
+	/**
+	 * The threads that run the jobs. Daemon threads are used so that a running job never keeps the program open
+	 * once the window has been closed.
+	 */
+	private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+		/**
+		 * A thread that runs one job at a time
+		 */
+		Thread thread = new Thread(runnable, "background-job");
+		thread.setDaemon(true);
+		return thread;
+	});
+	/**
+	 * The number of jobs running, guarded by the class
+	 */
+	private static int runningJobs = 0;
+	/**
+	 * Private constructor as the class only has static methods
+	 */
+	private BackgroundJob() {
+
+	}
+	/**
+	 * Starts a job on a worker thread
+	 * @param <T>          The type of the result of the job
+	 * @param display      The display whose user interface thread receives the progress and outcome
+	 * @param task         The work done by the job
+	 * @param progress     Receives the progress of the job on the user interface thread, or null. Updates that
+	 *                     arrive faster than the user interface can show them are combined into one.
+	 * @param callback     Receives the outcome of the job on the user interface thread
+	 * @return             The monitor of the job, which can be used to cancel it
+	 */
+	public static <T> JobMonitor start(Display display, Task<T> task, JobMonitor.ProgressListener progress, Callback<T> callback) {
+		/**
+		 * True while a progress update is waiting to be shown
+		 */
+		AtomicBoolean updatePending = new AtomicBoolean(false);
+		/**
+		 * The monitor of the job, which forwards progress to the user interface thread
+		 */
+		JobMonitor[] monitor = new JobMonitor[1];
+		monitor[0] = new JobMonitor(progress == null ? null : (done, total) -> {
+			if (updatePending.compareAndSet(false, true)) {
+				runOnDisplay(display, () -> {
+					updatePending.set(false);
+					if (!monitor[0].isCancelled()) {
+						progress.progress(monitor[0].getDone(), monitor[0].getTotal());
+					}
+				});
+			}
+		});
+		EXECUTOR.execute(() -> {
+			monitor[0].setThread(Thread.currentThread());
+			synchronized (BackgroundJob.class) {
+				if (runningJobs++ == 0) {
+					DocumentLoader.resetPeakMemory();
+				}
+			}
+			/**
+			 * The result of the job, if it succeeded
+			 */
+			T result = null;
+			/**
+			 * The reason the job failed, if it did
+			 */
+			Exception failure = null;
+			try {
+				result = task.run(monitor[0]);
+			}
+			catch (Throwable e) {
+				// An Error must still reach the callback, or the tab would be left waiting for a job that has ended
+				failure = e instanceof Exception ? (Exception) e : new ExecutionException(e);
+			}
+			finally {
+				monitor[0].setPeakMemory(DocumentLoader.getPeakMemory());
+				synchronized (BackgroundJob.class) {
+					runningJobs--;
+				}
+				monitor[0].setThread(null);
+				// Clear an interrupt from a late cancel so that it cannot reach the next job on this thread
+				Thread.interrupted();
+			}
+			/**
+			 * The result of the job, for the user interface thread
+			 */
+			final T finalResult = result;
+			/**
+			 * The reason the job failed, for the user interface thread
+			 */
+			final Exception finalFailure = failure;
+			runOnDisplay(display, () -> {
+				if (monitor[0].isCancelled()) {
+					callback.cancelled();
+				}
+				else if (finalFailure != null) {
+					callback.failed(finalFailure);
+				}
+				else {
+					callback.succeeded(finalResult);
+				}
+			});
+		});
+		return monitor[0];
+	}
+	/**
+	 * Runs code on the user interface thread, unless the display has already been closed
+	 * @param display      The display whose user interface thread runs the code
+	 * @param runnable     The code to run
+	 */
+	private static void runOnDisplay(Display display, Runnable runnable) {
+		if (!display.isDisposed()) {
+			display.asyncExec(() -> {
+				if (!display.isDisposed()) {
+					runnable.run();
+				}
+			});
+		}
+	}
+}
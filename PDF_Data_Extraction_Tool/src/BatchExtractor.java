@@ -0,0 +1,614 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+/**
+ * Runs report, metrics and table extraction without a user interface for every PDF file in a set of files,
+ * directories and glob patterns. Files are shared between a fixed number of threads of a work-stealing pool, so a
+ * large file does not hold up the smaller files behind it. Each file gets its own ExtractionRequest, and the output
+ * files are written next to the PDF file or into an output directory, where the directories of the PDF files below
+ * the deepest directory they share are recreated so that files with the same name do not overwrite each other's
+ * outputs. A summary of the throughput is printed once every file has been processed.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class BatchExtractor {
+	/**
+	 * How to run the program, printed when the arguments are not valid
+	 */
+	private static final String USAGE = String.join(System.lineSeparator(),
+			"Usage: BatchExtractor [options] <file|directory|glob>...",
+			"  -k, --keyword WORD    Keyword to search for in the report, may be repeated up to six times",
+			"  -o, --output DIR      Directory to write the output files to, instead of next to each PDF file, keeping",
+			"                        the directories of the PDF files below the directory they all share",
+			"  -j, --threads N       Number of files processed at the same time, defaults to the number of cores",
+			"      --report          Generate the keyword report",
+			"      --metrics         Generate the metrics CSV file",
+			"      --tables          Generate the tables CSV file",
+			"      --table-mode MODE How tables are recognised by the detector: auto, lattice or stream",
+			"      --tabula WHEN     When the tabula Python file finds the tables: fallback, when the detector finds",
+			"                        none in the file, never or always",
+			"      --index           Add the sentences of each file to the corpus index searched by CorpusSearch",
+			"      --corpus DIR      Directory of the corpus index, instead of the default in the home directory",
+			"      --no-cache        Extract every file again instead of using results cached by earlier runs",
+			"      --backend NAME    Where PDF files are read from: auto, heap, memory_mapped or temp_file",
+			"      --document-memory MB  Heap used by the scratch buffers of one document before temporary files",
+			"      --session-cache MB    Heap kept for parsed documents that tables may read again, 0 to turn it off",
+			"      --batch-sentences N   Largest number of sentences sent to the NER model in one batch",
+			"      --batch-chars N       Largest number of characters sent to the NER model in one batch",
+			"If none of --report, --metrics, --tables and --index is given, the metrics and tables are generated, as",
+			"well as the report when a keyword is given. Directories are searched recursively for PDF files.");
+	/**
+	 * The largest number of keywords in a report, which matches the six keyword fields of the reports tab
+	 */
+	private static final int MAX_KEYWORDS = 6;
+	/**
+	 * The keywords to search for in the report
+	 */
+	private final ArrayList<String> keywords = new ArrayList<String>();
+	/**
+	 * The files, directories and glob patterns to process
+	 */
+	private final ArrayList<String> inputs = new ArrayList<String>();
+	/**
+	 * The directory to write the output files to, or null to write them next to each PDF file
+	 */
+	private File outputDirectory = null;
+	/**
+	 * The deepest directory shared by every PDF file, whose subdirectories are recreated under the output directory,
+	 * or null if the files have no directory in common or are written next to themselves
+	 */
+	private Path inputRoot = null;
+	/**
+	 * The number of files processed at the same time
+	 */
+	private int threads = Runtime.getRuntime().availableProcessors();
+	/**
+	 * True if the keyword report is generated
+	 */
+	private boolean report = false;
+	/**
+	 * True if the metrics CSV file is generated
+	 */
+	private boolean metrics = false;
+	/**
+	 * True if the tables CSV file is generated
+	 */
+	private boolean tables = false;
+	/**
+	 * How the TableDetector recognises tables
+	 */
+	private TableDetector.Mode tableMode = TableDetector.Mode.AUTO;
+	/**
+	 * When the tabula Python file is used to find tables
+	 */
+	private PdfTable.TabulaUse tabula = PdfTable.TabulaUse.FALLBACK;
+	/**
+	 * True if the sentences of each file are added to the corpus index
+	 */
+	private boolean index = false;
+	/**
+	 * The directory of the corpus index
+	 */
+	private File corpusDirectory = CorpusIndex.getDefaultDirectory();
+	/**
+	 * The corpus index that files are added to while the batch runs, or null if files are not indexed
+	 */
+	private CorpusIndex corpus = null;
+	/**
+	 * Counters describing how the keyword filters answered the searches of every report of the batch
+	 */
+	private final SearchStatistics searchStatistics = new SearchStatistics();
+	/**
+	 * Counters describing how the sentences and NER batches of the metrics of every file of the batch were handled
+	 */
+	private final MetricsStatistics metricsStatistics = new MetricsStatistics();
+	/**
+	 * True if results cached on disk by earlier runs are used
+	 */
+	private boolean useCache = true;
+	/**
+	 * Creates a batch from the command line arguments
+	 * @param args                          The command line arguments
+	 * @throws IllegalArgumentException     Occurs if the arguments are not valid
+	 */
+	public BatchExtractor(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+			case "-k":
+			case "--keyword":
+				keywords.add(value(args, ++i));
+				break;
+			case "-o":
+			case "--output":
+				outputDirectory = new File(value(args, ++i));
+				break;
+			case "-j":
+			case "--threads":
+				try {
+					threads = Integer.parseInt(value(args, ++i));
+				}
+				catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Thread count must be a number: " + args[i]);
+				}
+				if (threads < 1) {
+					throw new IllegalArgumentException("Thread count must be at least one");
+				}
+				break;
+			case "--report":
+				report = true;
+				break;
+			case "--metrics":
+				metrics = true;
+				break;
+			case "--tables":
+				tables = true;
+				break;
+			case "--table-mode":
+				try {
+					tableMode = TableDetector.Mode.valueOf(value(args, ++i).toUpperCase());
+				}
+				catch (IllegalArgumentException e) {
+					throw new IllegalArgumentException("Unknown table mode: " + args[i]);
+				}
+				break;
+			case "--tabula":
+				try {
+					tabula = PdfTable.TabulaUse.valueOf(value(args, ++i).toUpperCase());
+				}
+				catch (IllegalArgumentException e) {
+					throw new IllegalArgumentException("Unknown tabula setting: " + args[i]);
+				}
+				break;
+			case "--index":
+				index = true;
+				break;
+			case "--corpus":
+				corpusDirectory = new File(value(args, ++i));
+				break;
+			case "--no-cache":
+				useCache = false;
+				break;
+			case "--backend":
+				try {
+					DocumentLoader.setBackend(DocumentLoader.Backend.valueOf(value(args, ++i).toUpperCase()));
+				}
+				catch (IllegalArgumentException e) {
+					throw new IllegalArgumentException("Unknown backend: " + args[i]);
+				}
+				break;
+			case "--document-memory":
+				try {
+					DocumentLoader.setDocumentMemoryCap(Long.parseLong(value(args, ++i)) * 1024 * 1024);
+				}
+				catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Document memory must be a number of megabytes: " + args[i]);
+				}
+				break;
+			case "--session-cache":
+				try {
+					DocumentSession.setMaxCacheBytes(Long.parseLong(value(args, ++i)) * 1024 * 1024);
+				}
+				catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Session cache must be a number of megabytes: " + args[i]);
+				}
+				break;
+			case "--batch-sentences":
+				try {
+					MetricsGenerator.setBatchSentences(Integer.parseInt(value(args, ++i)));
+				}
+				catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Batch size must be a number of sentences: " + args[i]);
+				}
+				break;
+			case "--batch-chars":
+				try {
+					MetricsGenerator.setBatchCharacters(Integer.parseInt(value(args, ++i)));
+				}
+				catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Batch size must be a number of characters: " + args[i]);
+				}
+				break;
+			default:
+				if (args[i].startsWith("-")) {
+					throw new IllegalArgumentException("Unknown option: " + args[i]);
+				}
+				inputs.add(args[i]);
+			}
+		}
+		if (inputs.isEmpty()) {
+			throw new IllegalArgumentException("No files were given");
+		}
+		if (keywords.size() > MAX_KEYWORDS) {
+			throw new IllegalArgumentException("At most " + MAX_KEYWORDS + " keywords can be given");
+		}
+		if (report && keywords.isEmpty()) {
+			throw new IllegalArgumentException("The report needs at least one keyword");
+		}
+		if (!report && !metrics && !tables && !index) {
+			report = !keywords.isEmpty();
+			metrics = true;
+			tables = true;
+		}
+		if (outputDirectory != null && !outputDirectory.isDirectory()) {
+			throw new IllegalArgumentException("Output directory does not exist: " + outputDirectory);
+		}
+	}
+	/**
+	 * Returns the value that follows an option
+	 * @param args                          The command line arguments
+	 * @param index                         The index of the value
+	 * @return                              The value
+	 * @throws IllegalArgumentException     Occurs if the option is the last argument
+	 */
+	private static String value(String[] args, int index) {
+		if (index >= args.length) {
+			throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+		}
+		return args[index];
+	}
+	/**
+	 * Finds every PDF file named by the inputs. Directories are searched recursively. An input containing any of
+	 * the characters *?[{ is a glob pattern, which is matched against the files under the part of the pattern that
+	 * comes before the first such character.
+	 * @return                              The PDF files in the order they were found, without duplicates
+	 * @throws IOException                  Occurs if a directory cannot be read
+	 * @throws IllegalArgumentException     Occurs if an input that is not a pattern does not exist
+	 */
+	public List<File> findFiles() throws IOException {
+		/**
+		 * The PDF files found, keyed by their absolute path so that a file named twice is only processed once
+		 */
+		LinkedHashSet<Path> found = new LinkedHashSet<Path>();
+		for (String input : inputs) {
+			/**
+			 * The index of the first glob character, or -1 if the input is a plain path
+			 */
+			int globStart = indexOfGlob(input);
+			if (globStart >= 0) {
+				/**
+				 * The end of the directory that the pattern is matched under
+				 */
+				int baseEnd = Math.max(input.lastIndexOf('/', globStart), input.lastIndexOf(File.separatorChar, globStart));
+				/**
+				 * The directory that the pattern is matched under
+				 */
+				Path base = Paths.get(baseEnd < 0 ? "." : input.substring(0, baseEnd + 1));
+				/**
+				 * Matches the paths named by the pattern
+				 */
+				PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + input);
+				if (Files.isDirectory(base)) {
+					try (Stream<Path> paths = Files.walk(base)) {
+						paths.filter(path -> Files.isRegularFile(path) && matcher.matches(baseEnd < 0 ? base.relativize(path) : path))
+						.sorted().forEach(path -> found.add(path.toAbsolutePath().normalize()));
+					}
+				}
+			}
+			else if (Files.isDirectory(Paths.get(input))) {
+				try (Stream<Path> paths = Files.walk(Paths.get(input))) {
+					paths.filter(path -> Files.isRegularFile(path) && path.getFileName().toString().toLowerCase().endsWith(".pdf"))
+					.sorted().forEach(path -> found.add(path.toAbsolutePath().normalize()));
+				}
+			}
+			else if (Files.isRegularFile(Paths.get(input))) {
+				found.add(Paths.get(input).toAbsolutePath().normalize());
+			}
+			else {
+				throw new IllegalArgumentException("No such file or directory: " + input);
+			}
+		}
+		/**
+		 * The PDF files found
+		 */
+		ArrayList<File> files = new ArrayList<File>(found.size());
+		for (Path path : found) {
+			files.add(path.toFile());
+		}
+		return files;
+	}
+	/**
+	 * Returns the index of the first glob character in a path
+	 * @param input     A path or glob pattern
+	 * @return          The index of the first of the characters *?[{, or -1 if there is none
+	 */
+	private static int indexOfGlob(String input) {
+		for (int i = 0; i < input.length(); i++) {
+			if ("*?[{".indexOf(input.charAt(i)) >= 0) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	/**
+	 * Chooses where the outputs of each file are written and checks that no two files would write the same output
+	 * file. Called by run, and may be called before it to report the problem before any file is processed.
+	 * @param files                         The PDF files to process
+	 * @throws IllegalArgumentException     Occurs if two files would write an output file with the same name
+	 */
+	public void planOutputs(List<File> files) {
+		inputRoot = null;
+		if (outputDirectory != null && !files.isEmpty()) {
+			inputRoot = files.get(0).toPath().getParent();
+			for (File file : files) {
+				while (inputRoot != null && !file.toPath().getParent().startsWith(inputRoot)) {
+					inputRoot = inputRoot.getParent();
+				}
+			}
+		}
+		/**
+		 * The PDF file that writes each output file, keyed by the lower case path of the output file as file names
+		 * are not case sensitive on every system
+		 */
+		HashMap<String, File> writers = new HashMap<String, File>();
+		for (File file : files) {
+			/**
+			 * The outputs of the file
+			 */
+			ExtractionRequest request = createRequest(file);
+			/**
+			 * The output files that the selected outputs write
+			 */
+			ArrayList<File> outputs = new ArrayList<File>();
+			if (report) {
+				outputs.add(request.getReportFile());
+			}
+			if (metrics) {
+				outputs.add(request.getMetricsCsvFile());
+			}
+			if (tables) {
+				outputs.add(request.getTableCsvFile());
+			}
+			for (File output : outputs) {
+				/**
+				 * The file that already writes the output file, if there is one
+				 */
+				File other = writers.putIfAbsent(output.getAbsolutePath().toLowerCase(), file);
+				if (other != null) {
+					throw new IllegalArgumentException(other + " and " + file + " would both write " + output);
+				}
+			}
+		}
+	}
+	/**
+	 * Creates the request for the outputs of a file, saved next to the file or in the directory that mirrors its
+	 * directory under the output directory
+	 * @param file     The PDF file
+	 * @return         The PDF file, keywords and save location of the outputs
+	 */
+	private ExtractionRequest createRequest(File file) {
+		/**
+		 * The directory the outputs are saved in
+		 */
+		File saveDirectory = file.getParentFile();
+		if (outputDirectory != null) {
+			saveDirectory = inputRoot == null ? outputDirectory : new File(outputDirectory, inputRoot.relativize(file.toPath().getParent()).toString());
+		}
+		return new ExtractionRequest(file, keywords.toArray(new String[keywords.size()]), saveDirectory);
+	}
+	/**
+	 * Processes every file on the pool and prints a line for each file as it finishes, followed by a summary
+	 * @param files                     The PDF files to process
+	 * @return                          The number of files that failed
+	 * @throws InterruptedException     Occurs if the program is interrupted while waiting for the files
+	 * @throws IOException              Occurs if the corpus index cannot be opened or the added files cannot be
+	 *                                  committed to it
+	 * @throws IllegalArgumentException Occurs if two files would write an output file with the same name
+	 */
+	public int run(List<File> files) throws InterruptedException, IOException {
+		planOutputs(files);
+		// The files are already processed in parallel, so each file only gets its share of the cores for its pages
+		ParallelTextExtractor.setWorkerCount(Math.max(1, Runtime.getRuntime().availableProcessors() / threads));
+		ExtractionCache.setEnabled(useCache);
+		if (index) {
+			corpus = new CorpusIndex(corpusDirectory);
+		}
+		/**
+		 * The threads that process the files, each taking another file as soon as it finishes one
+		 */
+		ExecutorService pool = Executors.newWorkStealingPool(threads);
+		/**
+		 * The time at which processing started
+		 */
+		long start = System.nanoTime();
+		DocumentLoader.resetPeakMemory();
+		/**
+		 * The number of pages read from each file, in the order of the files
+		 */
+		ArrayList<Future<Integer>> results = new ArrayList<Future<Integer>>(files.size());
+		for (File file : files) {
+			results.add(pool.submit(() -> processFile(file)));
+		}
+		/**
+		 * The total number of pages read
+		 */
+		long pages = 0;
+		/**
+		 * The number of files that failed
+		 */
+		int failed = 0;
+		for (int i = 0; i < results.size(); i++) {
+			try {
+				pages += results.get(i).get();
+			}
+			catch (ExecutionException e) {
+				failed++;
+				/**
+				 * The reason the file failed
+				 */
+				Throwable cause = e.getCause();
+				print("FAILED " + files.get(i) + ": " + (cause.getMessage() != null ? cause.getMessage() : cause.toString()));
+			}
+		}
+		pool.shutdown();
+		if (corpus != null) {
+			corpus.close();
+		}
+		/**
+		 * The time taken to process every file, in seconds
+		 */
+		double seconds = Math.max((System.nanoTime() - start) / 1e9, 1e-9);
+		print(String.format("Processed %d files (%d failed) and %d pages in %.1f s: %.2f files/s, %.1f pages/s, %s",
+				files.size(), failed, pages, seconds, files.size() / seconds, pages / seconds, DocumentLoader.describePeakMemory(DocumentLoader.getPeakMemory())));
+		if (report) {
+			print("Report search: " + searchStatistics);
+		}
+		if (metrics) {
+			print("Metrics: " + metricsStatistics);
+		}
+		return failed;
+	}
+	/**
+	 * Generates the selected outputs for one PDF file
+	 * @param file             The PDF file
+	 * @return                 The number of pages in the PDF file
+	 * @throws Exception       Occurs if any of the outputs cannot be generated
+	 */
+	private int processFile(File file) throws Exception {
+		/**
+		 * The time at which processing of the file started
+		 */
+		long start = System.nanoTime();
+		/**
+		 * The PDF file, keywords and save location of the outputs
+		 */
+		ExtractionRequest request = createRequest(file);
+		if (!request.getSaveDirectory().isDirectory() && !request.getSaveDirectory().mkdirs()) {
+			throw new IOException("Output directory could not be created: " + request.getSaveDirectory());
+		}
+		/**
+		 * The number of pages in the PDF file, as counted by whichever output read it
+		 */
+		int pages = 0;
+		/**
+		 * The outputs whose results were read from the ExtractionCache
+		 */
+		StringBuilder cached = new StringBuilder();
+		if (report) {
+			/**
+			 * Receives the number of pages searched for the report
+			 */
+			JobMonitor monitor = new JobMonitor();
+			ReportGenerator.generateReport(request, searchStatistics, monitor);
+			pages = Math.max(pages, monitor.getTotal());
+		}
+		if (metrics) {
+			/**
+			 * Receives the number of pages searched for metrics
+			 */
+			JobMonitor monitor = new JobMonitor();
+			/**
+			 * Counters describing how the sentences of the file were handled
+			 */
+			MetricsStatistics statistics = new MetricsStatistics();
+			MetricsGenerator.generateMetricsCsv(request, MetricsGenerator.generateMetrics(file, statistics, monitor));
+			metricsStatistics.add(statistics);
+			pages = Math.max(pages, monitor.getTotal());
+			if (monitor.isFromCache()) {
+				cached.append(cached.length() == 0 ? ", from cache: " : ", ").append("metrics");
+			}
+		}
+		if (tables) {
+			/**
+			 * Receives the number of pages searched for tables
+			 */
+			JobMonitor monitor = new JobMonitor();
+			/**
+			 * The tables found in the same way as in the tables tab
+			 */
+			ArrayList<PdfTable> found = PdfTable.findTables(file, tableMode, tabula, monitor);
+			if (!found.isEmpty()) {
+				/**
+				 * The index of every table, so that all of them are exported
+				 */
+				int[] selections = new int[found.size()];
+				for (int i = 0; i < selections.length; i++) {
+					selections[i] = i;
+				}
+				PdfTable.generateTableCsv(request, found, selections);
+			}
+			pages = Math.max(pages, monitor.getTotal());
+			if (monitor.isFromCache()) {
+				cached.append(cached.length() == 0 ? ", from cache: " : ", ").append("tables");
+			}
+		}
+		if (index) {
+			/**
+			 * Receives the number of pages added to the corpus index
+			 */
+			JobMonitor monitor = new JobMonitor();
+			corpus.add(file, monitor);
+			pages = Math.max(pages, monitor.getTotal());
+		}
+		print(String.format("OK %s (%d pages, %d ms%s)", file, pages, (System.nanoTime() - start) / 1000000, cached));
+		return pages;
+	}
+	/**
+	 * Prints a line to the standard output without interleaving it with lines printed by other threads
+	 * @param line     The line to print
+	 */
+	private static synchronized void print(String line) {
+		System.out.println(line);
+	}
+	/**
+	 * Runs the batch described by the command line arguments. Exits with status 1 if any file failed and 2 if the
+	 * arguments are not valid.
+	 * @param args     The command line arguments
+	 */
+	public static void main(String[] args) {
+		/**
+		 * The batch described by the arguments
+		 */
+		BatchExtractor batch;
+		/**
+		 * The PDF files to process
+		 */
+		List<File> files;
+		try {
+			batch = new BatchExtractor(args);
+			files = batch.findFiles();
+			if (files.isEmpty()) {
+				throw new IllegalArgumentException("No PDF files were found");
+			}
+			batch.planOutputs(files);
+		}
+		catch (IllegalArgumentException | IOException e) {
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			System.exit(2);
+			return;
+		}
+		/**
+		 * The number of files that failed
+		 */
+		int failed;
+		try {
+			failed = batch.run(files);
+		}
+		catch (InterruptedException e) {
+			System.err.println("Batch was interrupted");
+			System.exit(1);
+			return;
+		}
+		catch (IOException e) {
+			System.err.println("Corpus index could not be updated: " + e.getMessage());
+			System.exit(1);
+			return;
+		}
+		// Exiting runs the shutdown hook that stops the NER workers
+		System.exit(failed > 0 ? 1 : 0);
+	}
+}
@@ -0,0 +1,254 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+/**
+ * A compact set of the sequences of three characters in a text, which can say for certain that a keyword does not
+ * occur in the text but may wrongly say that it does. Keywords are matched as the report matches them, so a keyword
+ * may occur in a text only if every sequence of three characters of each of its words is in the set. Words shorter
+ * than a sequence are assumed to occur. Each page of a PDF file and the file as a whole get a filter when they are
+ * parsed, so that keyword searches can skip the pages and files that cannot contain any of the keywords without
+ * reading their text.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class BloomFilter {
+	/**
+	 * Builds the filter of the texts of several pages joined together a page at a time, including the sequences that
+	 * cross from one page to the next, so that the pages need not be kept until the last one has been read
+	 */
+	public static class Builder {
+		/**
+		 * The filter being built
+		 */
+		private final BloomFilter filter;
+		/**
+		 * The last characters added, packed as in SentenceIndex.key
+		 */
+		private long window = 0;
+		/**
+		 * The number of characters added, up to three
+		 */
+		private int seen = 0;
+		/**
+		 * Creates a builder of an empty filter
+		 * @param expectedLength     The expected number of characters in the joined text, which sizes the filter
+		 */
+		public Builder(long expectedLength) {
+			filter = new BloomFilter(expectedLength);
+		}
+		/**
+		 * Adds the sequences of the text of the next page
+		 * @param text     The text of the page
+		 */
+		public void append(CharSequence text) {
+			for (int i = 0; i < text.length(); i++) {
+				window = ((window << 16) | text.charAt(i)) & 0xFFFFFFFFFFFFL;
+				if (seen < 3) {
+					seen++;
+				}
+				if (seen == 3) {
+					filter.add(window);
+				}
+			}
+		}
+		/**
+		 * Returns the filter of the text added so far
+		 * @return     The filter
+		 */
+		public BloomFilter build() {
+			return filter;
+		}
+	}
+	/**
+	 * The number of bits in a filter for each character of its text. Sequences repeat, so this gives several bits
+	 * for each distinct sequence.
+	 */
+	private static final int BITS_PER_CHARACTER = 4;
+	/**
+	 * The largest number of bits in a filter. The number of distinct sequences stops growing with the length of a
+	 * long text, so the filter of a whole file needs no more than this.
+	 */
+	private static final int MAX_BITS = 1 << 20;
+	/**
+	 * The number of bits set for each sequence
+	 */
+	private static final int HASHES = 4;
+	/**
+	 * The bits of the filter
+	 */
+	private final long[] bits;
+	/**
+	 * Creates an empty filter sized for a text
+	 * @param textLength     The number of characters in the text
+	 */
+	public BloomFilter(long textLength) {
+		this(new long[(int) Math.max(1, (Math.min(textLength * BITS_PER_CHARACTER, MAX_BITS) + 63) / 64)]);
+	}
+	/**
+	 * Creates a filter from its bits
+	 * @param bits     The bits of the filter
+	 */
+	private BloomFilter(long[] bits) {
+		this.bits = bits;
+	}
+	/**
+	 * Creates the filter of a text
+	 * @param text     The text
+	 * @return         A filter of every sequence in the text
+	 */
+	public static BloomFilter of(CharSequence text) {
+		/**
+		 * The filter of the text
+		 */
+		BloomFilter filter = new BloomFilter(text.length());
+		for (int i = 0; i + 3 <= text.length(); i++) {
+			filter.add(SentenceIndex.key(text, i));
+		}
+		return filter;
+	}
+	/**
+	 * Adds a sequence to the filter
+	 * @param key     The sequence, packed as in SentenceIndex.key
+	 */
+	private void add(long key) {
+		/**
+		 * The two hashes from which the position of each bit is derived
+		 */
+		long hash = mix(key);
+		long step = mix(hash) | 1;
+		/**
+		 * The number of bits in the filter
+		 */
+		long size = 64L * bits.length;
+		for (int i = 0; i < HASHES; i++) {
+			/**
+			 * The position of the bit
+			 */
+			int bit = (int) Long.remainderUnsigned(hash + i * step, size);
+			bits[bit >>> 6] |= 1L << bit;
+		}
+	}
+	/**
+	 * Returns true if a sequence may be in the filter
+	 * @param key     The sequence, packed as in SentenceIndex.key
+	 * @return        False if the sequence is certainly not in the filter
+	 */
+	private boolean mightContain(long key) {
+		/**
+		 * The two hashes from which the position of each bit is derived
+		 */
+		long hash = mix(key);
+		long step = mix(hash) | 1;
+		/**
+		 * The number of bits in the filter
+		 */
+		long size = 64L * bits.length;
+		for (int i = 0; i < HASHES; i++) {
+			/**
+			 * The position of the bit
+			 */
+			int bit = (int) Long.remainderUnsigned(hash + i * step, size);
+			if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+	/**
+	 * Spreads the bits of a value over a whole long, using the finaliser of MurmurHash3
+	 * @param value     The value
+	 * @return          The mixed value
+	 */
+	private static long mix(long value) {
+		value ^= value >>> 33;
+		value *= 0xff51afd7ed558ccdL;
+		value ^= value >>> 33;
+		value *= 0xc4ceb9fe1a85ec53L;
+		return value ^ (value >>> 33);
+	}
+	/**
+	 * Returns true if a keyword may occur in the text of the filter
+	 * @param keyword     The keyword, which may contain several words separated by spaces
+	 * @return            False if some word of the keyword certainly does not occur in the text
+	 */
+	public boolean mightContain(String keyword) {
+		for (String word : keyword.split(" ")) {
+			for (int i = 0; i + 3 <= word.length(); i++) {
+				if (!mightContain(SentenceIndex.key(word, i))) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+	/**
+	 * Returns true if any of several keywords may occur in the text of the filter
+	 * @param keywords     The keywords
+	 * @return             False if every keyword certainly does not occur in the text
+	 */
+	public boolean mightContainAny(Iterable<String> keywords) {
+		for (String keyword : keywords) {
+			if (mightContain(keyword)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	/**
+	 * Returns the chance that a sequence that is not in the filter is wrongly reported as being in it, which
+	 * depends on how many of the bits of the filter are set
+	 * @return     The false-positive rate of a single sequence
+	 */
+	public double getFalsePositiveRate() {
+		/**
+		 * The number of bits that are set
+		 */
+		long set = 0;
+		for (long word : bits) {
+			set += Long.bitCount(word);
+		}
+		return Math.pow((double) set / (64L * bits.length), HASHES);
+	}
+	/**
+	 * Returns the number of bytes used by the bits of the filter
+	 * @return     The size of the filter in bytes
+	 */
+	public long getSizeInBytes() {
+		return 8L * bits.length;
+	}
+	/**
+	 * Writes the filter to a cache entry
+	 * @param out              The stream the entry is written to
+	 * @throws IOException     Occurs if the entry cannot be written
+	 */
+	public void write(DataOutputStream out) throws IOException {
+		out.writeInt(bits.length);
+		for (long word : bits) {
+			out.writeLong(word);
+		}
+	}
+	/**
+	 * Reads a filter written by write
+	 * @param in               The stream the entry is read from
+	 * @return                 The filter
+	 * @throws IOException     Occurs if the entry cannot be read
+	 */
+	public static BloomFilter read(DataInputStream in) throws IOException {
+		/**
+		 * The number of longs holding the bits
+		 */
+		int length = in.readInt();
+		if (length < 1) {
+			throw new IOException("Invalid cache entry: filter length " + length);
+		}
+		/**
+		 * The bits of the filter
+		 */
+		long[] bits = new long[length];
+		for (int i = 0; i < length; i++) {
+			bits[i] = in.readLong();
+		}
+		return new BloomFilter(bits);
+	}
+}
@@ -0,0 +1,921 @@
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+/**
+ * A full-text index of the sentences of many PDF files, so that every processed file can be searched at once without
+ * extracting any of them again. Sentences are split and matched the same way as for the keyword report. The index
+ * is made up of segments, each of which is a SentenceIndex of the sentences of a group of files together with the
+ * file and page of each sentence. Added files are collected in memory and written as a new segment once enough text
+ * has been collected or the index is committed, and a segment is never changed once written. When there are many
+ * small segments, a background thread merges neighbouring segments into one, so searches open few files. A file
+ * that is added again after it has changed is found in a newer segment than its old text, which is ignored by
+ * searches and left out of merges. Searches read an unchanging snapshot of the segments, so any number of threads
+ * can search while files are added and segments are merged. Merged segment files that cannot be deleted yet, as on
+ * Windows while a reader still maps them, are listed in a file and deleted when the index is next opened or merged.
+ * Only one program at a time should add files to an index.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class CorpusIndex implements Closeable {
+	/**
+	 * A sentence found by a search
+	 */
+	public static class Hit {
+		/**
+		 * The PDF file containing the sentence
+		 */
+		private final File file;
+		/**
+		 * The page on which the sentence starts, counted from one
+		 */
+		private final int page;
+		/**
+		 * The sentence, with its line breaks removed
+		 */
+		private final String sentence;
+		/**
+		 * Creates a hit
+		 * @param file         The PDF file containing the sentence
+		 * @param page         The page on which the sentence starts, counted from one
+		 * @param sentence     The sentence, with its line breaks removed
+		 */
+		private Hit(File file, int page, String sentence) {
+			this.file = file;
+			this.page = page;
+			this.sentence = sentence;
+		}
+		/**
+		 * Returns the PDF file containing the sentence
+		 * @return     The PDF file
+		 */
+		public File getFile() {
+			return file;
+		}
+		/**
+		 * Returns the page on which the sentence starts
+		 * @return     The page number, counted from one
+		 */
+		public int getPage() {
+			return page;
+		}
+		/**
+		 * Returns the sentence
+		 * @return     The sentence, with its line breaks removed
+		 */
+		public String getSentence() {
+			return sentence;
+		}
+	}
+	/**
+	 * The files and sentences of one segment, read in place from a memory mapping of the segment file
+	 */
+	private static class Segment {
+		/**
+		 * The name of the segment file
+		 */
+		private final String name;
+		/**
+		 * The absolute path of each file in the segment, in the order they were added
+		 */
+		private final String[] paths;
+		/**
+		 * The content hash of each file in the segment
+		 */
+		private final String[] hashes;
+		/**
+		 * The ID of the first sentence of each file in the segment, followed by the number of sentences
+		 */
+		private final int[] firstSentences;
+		/**
+		 * The page of each sentence, counted from zero
+		 */
+		private final IntBuffer pages;
+		/**
+		 * The index of the sentences of every file in the segment
+		 */
+		private final SentenceIndex index;
+		/**
+		 * Reads a segment file
+		 * @param file             The segment file
+		 * @throws IOException     Occurs if the file cannot be read or is not a valid segment
+		 */
+		private Segment(File file) throws IOException {
+			name = file.getName();
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+				/**
+				 * The mapping of the whole segment file, which stays valid after the channel is closed
+				 */
+				ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+				if (data.getInt() != MAGIC || data.getInt() != VERSION) {
+					throw new IOException("Corpus segment " + name + " is from another version");
+				}
+				/**
+				 * The number of files in the segment
+				 */
+				int numFiles = data.getInt();
+				paths = new String[numFiles];
+				hashes = new String[numFiles];
+				firstSentences = new int[numFiles + 1];
+				for (int i = 0; i < numFiles; i++) {
+					paths[i] = readString(data);
+					hashes[i] = readString(data);
+					firstSentences[i] = data.getInt();
+				}
+				firstSentences[numFiles] = data.getInt();
+				/**
+				 * The page of each sentence, which is followed by the sentence index
+				 */
+				ByteBuffer pageData = data.slice();
+				pageData.limit(4 * firstSentences[numFiles]);
+				pages = pageData.asIntBuffer();
+				data.position(data.position() + pageData.limit());
+				index = SentenceIndex.read(data.slice());
+				if (index.getNumberOfSentences() != firstSentences[numFiles]) {
+					throw new IOException("Corpus segment " + name + " is incomplete");
+				}
+			}
+			catch (RuntimeException e) {
+				throw new IOException("Corpus segment " + name + " is not valid", e);
+			}
+		}
+		/**
+		 * Returns the file that a sentence belongs to
+		 * @param sentence     The ID of the sentence
+		 * @return             The index of the file in the segment
+		 */
+		private int fileOf(int sentence) {
+			/**
+			 * The lowest file that may hold the sentence
+			 */
+			int low = 0;
+			/**
+			 * The highest file that may hold the sentence
+			 */
+			int high = paths.length - 1;
+			while (low < high) {
+				/**
+				 * The file in the middle of the range, rounded up so that the range always shrinks
+				 */
+				int middle = (low + high + 1) >>> 1;
+				if (firstSentences[middle] <= sentence) {
+					low = middle;
+				}
+				else {
+					high = middle - 1;
+				}
+			}
+			return low;
+		}
+	}
+	/**
+	 * The segments at one moment, with the files in them that are not replaced by a newer segment
+	 */
+	private static class Snapshot {
+		/**
+		 * The segments, from the oldest to the newest
+		 */
+		private final List<Segment> segments;
+		/**
+		 * For each segment, true for each of its files that is the newest copy of that file
+		 */
+		private final List<boolean[]> live;
+		/**
+		 * The content hash of the newest copy of each file, keyed by its absolute path
+		 */
+		private final HashMap<String, String> hashes = new HashMap<String, String>();
+		/**
+		 * Creates a snapshot of a list of segments
+		 * @param segments     The segments, from the oldest to the newest
+		 */
+		private Snapshot(List<Segment> segments) {
+			this.segments = Collections.unmodifiableList(new ArrayList<Segment>(segments));
+			/**
+			 * The live files of each segment, found from the newest segment backwards
+			 */
+			boolean[][] liveFiles = new boolean[segments.size()][];
+			for (int s = segments.size() - 1; s >= 0; s--) {
+				/**
+				 * The segment whose live files are being found
+				 */
+				Segment segment = segments.get(s);
+				liveFiles[s] = new boolean[segment.paths.length];
+				for (int f = segment.paths.length - 1; f >= 0; f--) {
+					if (!hashes.containsKey(segment.paths[f])) {
+						hashes.put(segment.paths[f], segment.hashes[f]);
+						liveFiles[s][f] = true;
+					}
+				}
+			}
+			/**
+			 * The live files of each segment as a list
+			 */
+			ArrayList<boolean[]> liveList = new ArrayList<boolean[]>();
+			Collections.addAll(liveList, liveFiles);
+			live = Collections.unmodifiableList(liveList);
+		}
+	}
+	/**
+	 * Files that have been added but not yet written to a segment
+	 */
+	private static class Pending {
+		/**
+		 * The absolute path of each file
+		 */
+		private final ArrayList<String> paths = new ArrayList<String>();
+		/**
+		 * The content hash of each file
+		 */
+		private final ArrayList<String> hashes = new ArrayList<String>();
+		/**
+		 * The ID of the first sentence of each file
+		 */
+		private final IntList firstSentences = new IntList();
+		/**
+		 * The sentences of every file
+		 */
+		private final ArrayList<String> sentences = new ArrayList<String>();
+		/**
+		 * The page of each sentence, counted from zero
+		 */
+		private final IntList pages = new IntList();
+		/**
+		 * The number of characters in every sentence
+		 */
+		private long numChars = 0;
+	}
+	/**
+	 * The first four bytes of the manifest and of every segment file
+	 */
+	private static final int MAGIC = 0x50444643;
+	/**
+	 * The version of the format of the manifest and segment files
+	 */
+	private static final int VERSION = 1;
+	/**
+	 * The name of the file listing the segments of the index
+	 */
+	private static final String MANIFEST = "segments";
+	/**
+	 * The name of the file listing segment files that are no longer used but could not be deleted yet
+	 */
+	private static final String PENDING_DELETES = "pending-deletes";
+	/**
+	 * The number of times the manifest is read when the segments it lists keep being removed before they are opened
+	 */
+	private static final int MANIFEST_ATTEMPTS = 5;
+	/**
+	 * The number of characters of added files collected in memory before they are written as a segment
+	 */
+	private static final long FLUSH_CHARS = 4L * 1024 * 1024;
+	/**
+	 * The number of neighbouring segments merged at once
+	 */
+	private static final int MERGE_FACTOR = 8;
+	/**
+	 * The largest number of characters in a merged segment, which limits the memory used by a merge
+	 */
+	private static final long MAX_MERGED_CHARS = 32L * 1024 * 1024;
+	/**
+	 * The directory holding the manifest and segment files
+	 */
+	private final File directory;
+	/**
+	 * The segments that searches currently read
+	 */
+	private volatile Snapshot snapshot;
+	/**
+	 * The number used in the name of the next segment file
+	 */
+	private int nextGeneration;
+	/**
+	 * Files that have been added but not yet written to a segment
+	 */
+	private Pending pending = new Pending();
+	/**
+	 * The segments being merged, which are not chosen for another merge
+	 */
+	private final HashSet<Segment> merging = new HashSet<Segment>();
+	/**
+	 * True if a merge has been started by this index
+	 */
+	private boolean merged = false;
+	/**
+	 * The names of segment files that are no longer used but could not be deleted, guarded by this
+	 */
+	private final ArrayList<String> pendingDeletes = new ArrayList<String>();
+	/**
+	 * The thread that merges segments. A daemon thread is used so that a merge never keeps the program open; an
+	 * unfinished merge leaves the segments it was merging as they were.
+	 */
+	private final ExecutorService merger = Executors.newSingleThreadExecutor(runnable -> {
+		/**
+		 * The thread that merges segments
+		 */
+		Thread thread = new Thread(runnable, "corpus-merge");
+		thread.setDaemon(true);
+		return thread;
+	});
+	/**
+	 * Opens the index in a directory, creating an empty index if the directory holds none. If a segment listed in the
+	 * manifest has been removed, because another program replaced the manifest and removed the segments it no longer
+	 * lists while it was being read, the new manifest is read instead. Segment files left behind by an earlier
+	 * close because they could not be deleted are deleted again.
+	 * @param directory        The directory holding the index
+	 * @throws IOException     Occurs if the index cannot be read
+	 */
+	public CorpusIndex(File directory) throws IOException {
+		this.directory = directory;
+		for (int attempt = 1; ; attempt++) {
+			try {
+				snapshot = new Snapshot(readManifest());
+				break;
+			}
+			catch (NoSuchFileException e) {
+				if (attempt == MANIFEST_ATTEMPTS) {
+					throw e;
+				}
+			}
+		}
+		readPendingDeletes();
+		try {
+			deletePending();
+		}
+		catch (IOException e) {
+			// The list is written again when the index is next merged or closed
+		}
+	}
+	/**
+	 * Reads the manifest and opens the segments it lists
+	 * @return                     The segments listed in the manifest, or none if there is no manifest
+	 * @throws IOException         Occurs if the index cannot be read
+	 */
+	private ArrayList<Segment> readManifest() throws IOException {
+		/**
+		 * The segments listed in the manifest
+		 */
+		ArrayList<Segment> segments = new ArrayList<Segment>();
+		/**
+		 * The manifest file
+		 */
+		File manifest = new File(directory, MANIFEST);
+		if (manifest.isFile()) {
+			/**
+			 * The content of the manifest
+			 */
+			ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(manifest.toPath()));
+			try {
+				if (data.getInt() != MAGIC || data.getInt() != VERSION) {
+					throw new IOException("Corpus index in " + directory + " is from another version");
+				}
+				nextGeneration = data.getInt();
+				/**
+				 * The number of segments
+				 */
+				int numSegments = data.getInt();
+				for (int i = 0; i < numSegments; i++) {
+					segments.add(new Segment(new File(directory, readString(data))));
+				}
+			}
+			catch (RuntimeException e) {
+				throw new IOException("Corpus index in " + directory + " is not valid", e);
+			}
+		}
+		return segments;
+	}
+	/**
+	 * Returns the directory the index is kept in when no other directory is given
+	 * @return     The default index directory
+	 */
+	public static File getDefaultDirectory() {
+		return new File(System.getProperty("user.home"), ".pdf-data-extraction-tool" + File.separator + "corpus");
+	}
+	/**
+	 * Returns the number of files in the index, not counting files that have been added but not yet committed
+	 * @return     The number of files
+	 */
+	public int getNumberOfFiles() {
+		return snapshot.hashes.size();
+	}
+	/**
+	 * Adds the sentences of a PDF file to the index. A file whose content has not changed since it was added is not
+	 * added again. The sentences are written to a segment once enough text has been collected or the index is
+	 * committed. Any number of threads may add files at the same time.
+	 * @param pdfFile          The PDF file
+	 * @param monitor          Receives the progress of reading the pages and tells the job when it has been cancelled
+	 * @return                 True if the file was added, or false if it is already in the index
+	 * @throws IOException     Occurs if the text cannot be extracted from the PDF file or a segment cannot be written
+	 */
+	public boolean add(File pdfFile, JobMonitor monitor) throws IOException {
+		/**
+		 * The absolute path of the file, which identifies it in the index
+		 */
+		String path = pdfFile.getAbsolutePath();
+		/**
+		 * The hash of the content of the file
+		 */
+		String hash = ExtractionCache.hash(pdfFile);
+		if (hash.equals(snapshot.hashes.get(path))) {
+			return false;
+		}
+		/**
+		 * The sentences of the file
+		 */
+		ArrayList<String> sentences = new ArrayList<String>();
+		/**
+		 * The page of each sentence
+		 */
+		IntList pages = new IntList();
+		try (DocumentSession.PageReader reader = DocumentSession.read(pdfFile, monitor)) {
+			/**
+			 * Splits the pages into sentences the same way as the keyword report
+			 */
+			SentenceIterator iterator = new SentenceIterator(reader.texts(), SentenceIterator.REPORT_DELIMITERS);
+			while (iterator.hasNext()) {
+				sentences.add(iterator.next());
+				pages.add(iterator.getPageNumber());
+			}
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		/**
+		 * The collected files, if they are now large enough to be written as a segment
+		 */
+		Pending full = null;
+		synchronized (this) {
+			pending.paths.add(path);
+			pending.hashes.add(hash);
+			pending.firstSentences.add(pending.sentences.size());
+			for (int i = 0; i < sentences.size(); i++) {
+				pending.sentences.add(sentences.get(i));
+				pending.pages.add(pages.get(i));
+				pending.numChars += sentences.get(i).length();
+			}
+			if (pending.numChars >= FLUSH_CHARS) {
+				full = pending;
+				pending = new Pending();
+			}
+		}
+		if (full != null) {
+			flush(full);
+		}
+		return true;
+	}
+	/**
+	 * Writes every added file that has not yet been written to a segment, so that searches and other programs see
+	 * them
+	 * @throws IOException     Occurs if the segment cannot be written
+	 */
+	public void commit() throws IOException {
+		/**
+		 * The collected files
+		 */
+		Pending collected;
+		synchronized (this) {
+			collected = pending;
+			pending = new Pending();
+		}
+		if (!collected.paths.isEmpty()) {
+			flush(collected);
+		}
+	}
+	/**
+	 * Writes collected files as a new segment and starts a merge if there are now enough small segments
+	 * @param collected        The collected files
+	 * @throws IOException     Occurs if the segment cannot be written
+	 */
+	private void flush(Pending collected) throws IOException {
+		/**
+		 * The ID of the first sentence of each file, followed by the number of sentences
+		 */
+		IntList firstSentences = collected.firstSentences;
+		firstSentences.add(collected.sentences.size());
+		/**
+		 * The new segment
+		 */
+		Segment segment = writeSegment(collected.paths, collected.hashes, firstSentences, collected.sentences, collected.pages);
+		replace(Collections.<Segment>emptyList(), segment);
+		startMerge();
+	}
+	/**
+	 * Writes a segment file and reads it back
+	 * @param paths              The absolute path of each file
+	 * @param hashes             The content hash of each file
+	 * @param firstSentences     The ID of the first sentence of each file, followed by the number of sentences
+	 * @param sentences          The sentences of every file
+	 * @param pages              The page of each sentence
+	 * @return                   The segment
+	 * @throws IOException       Occurs if the segment cannot be written
+	 */
+	private Segment writeSegment(List<String> paths, List<String> hashes, IntList firstSentences, List<String> sentences, IntList pages) throws IOException {
+		/**
+		 * The name of the segment file
+		 */
+		String name;
+		synchronized (this) {
+			name = "segment-" + nextGeneration++ + ".idx";
+		}
+		/**
+		 * The sentence index of the segment
+		 */
+		byte[] index = SentenceIndex.build(sentences.iterator());
+		/**
+		 * The segment file
+		 */
+		File file = new File(directory, name);
+		writeAtomically(file, out -> {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(paths.size());
+			for (int i = 0; i < paths.size(); i++) {
+				ExtractionCache.writeString(out, paths.get(i));
+				ExtractionCache.writeString(out, hashes.get(i));
+				out.writeInt(firstSentences.get(i));
+			}
+			out.writeInt(firstSentences.get(paths.size()));
+			for (int i = 0; i < pages.size(); i++) {
+				out.writeInt(pages.get(i));
+			}
+			out.write(index);
+		});
+		return new Segment(file);
+	}
+	/**
+	 * Replaces neighbouring segments with one segment, or adds a new segment after every other segment, and writes
+	 * the manifest listing the segments. Searches that start afterwards read the new segments.
+	 * @param removed          The neighbouring segments to replace, or an empty list to add a new segment
+	 * @param added            The segment that replaces them or is added
+	 * @throws IOException     Occurs if the manifest cannot be written
+	 */
+	private synchronized void replace(List<Segment> removed, Segment added) throws IOException {
+		/**
+		 * The segments once the change is made
+		 */
+		ArrayList<Segment> segments = new ArrayList<Segment>(snapshot.segments);
+		if (removed.isEmpty()) {
+			segments.add(added);
+		}
+		else {
+			/**
+			 * The position of the first replaced segment
+			 */
+			int first = segments.indexOf(removed.get(0));
+			segments.removeAll(removed);
+			segments.add(first, added);
+		}
+		writeAtomically(new File(directory, MANIFEST), out -> {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(nextGeneration);
+			out.writeInt(segments.size());
+			for (Segment segment : segments) {
+				ExtractionCache.writeString(out, segment.name);
+			}
+		});
+		snapshot = new Snapshot(segments);
+	}
+	/**
+	 * Starts merging the neighbouring run of MERGE_FACTOR segments with the fewest characters in the background,
+	 * if there is such a run that is small enough and is not already being merged
+	 */
+	private synchronized void startMerge() {
+		/**
+		 * The segments at the moment
+		 */
+		Snapshot current = snapshot;
+		/**
+		 * The position of the first segment of the smallest run found so far, or -1 if none has been found
+		 */
+		int best = -1;
+		/**
+		 * The number of characters in the smallest run found so far
+		 */
+		long bestChars = MAX_MERGED_CHARS + 1;
+		for (int start = 0; start + MERGE_FACTOR <= current.segments.size(); start++) {
+			/**
+			 * The number of characters in the run
+			 */
+			long numChars = 0;
+			for (int s = start; s < start + MERGE_FACTOR; s++) {
+				/**
+				 * A segment in the run
+				 */
+				Segment segment = current.segments.get(s);
+				numChars += merging.contains(segment) ? MAX_MERGED_CHARS + 1 : segment.index.getNumberOfCharacters();
+			}
+			if (numChars < bestChars) {
+				best = start;
+				bestChars = numChars;
+			}
+		}
+		if (best < 0) {
+			return;
+		}
+		/**
+		 * The run of segments to merge
+		 */
+		List<Segment> run = new ArrayList<Segment>(current.segments.subList(best, best + MERGE_FACTOR));
+		merging.addAll(run);
+		merged = true;
+		try {
+			merger.execute(() -> {
+				try {
+					merge(current, run);
+				}
+				catch (IOException e) {
+					// The segments stay as they were and are chosen again by a later merge
+				}
+				finally {
+					synchronized (this) {
+						merging.removeAll(run);
+					}
+				}
+				startMerge();
+			});
+		}
+		catch (RejectedExecutionException e) {
+			// The index is being closed, so the segments are merged the next time files are added
+			merging.removeAll(run);
+		}
+	}
+	/**
+	 * Merges neighbouring segments into one, leaving out files that were replaced by a newer segment, and deletes the
+	 * merged segment files. Searches that already read the old segments keep reading them until they finish.
+	 * @param current          The segments when the merge was chosen
+	 * @param run              The neighbouring segments to merge
+	 * @throws IOException     Occurs if the merged segment cannot be written
+	 */
+	private void merge(Snapshot current, List<Segment> run) throws IOException {
+		/**
+		 * The absolute path of each live file
+		 */
+		ArrayList<String> paths = new ArrayList<String>();
+		/**
+		 * The content hash of each live file
+		 */
+		ArrayList<String> hashes = new ArrayList<String>();
+		/**
+		 * The ID of the first sentence of each live file in the merged segment
+		 */
+		IntList firstSentences = new IntList();
+		/**
+		 * The sentences of every live file
+		 */
+		ArrayList<String> sentences = new ArrayList<String>();
+		/**
+		 * The page of each sentence
+		 */
+		IntList pages = new IntList();
+		for (Segment segment : run) {
+			/**
+			 * The live files of the segment
+			 */
+			boolean[] live = current.live.get(current.segments.indexOf(segment));
+			for (int f = 0; f < segment.paths.length; f++) {
+				if (!live[f]) {
+					continue;
+				}
+				paths.add(segment.paths[f]);
+				hashes.add(segment.hashes[f]);
+				firstSentences.add(sentences.size());
+				for (int i = segment.firstSentences[f]; i < segment.firstSentences[f + 1]; i++) {
+					sentences.add(segment.index.getSentence(i));
+					pages.add(segment.pages.get(i));
+				}
+			}
+		}
+		firstSentences.add(sentences.size());
+		// The merged segments are left in place until close, as programs that read the old manifest may still open them
+		replace(run, writeSegment(paths, hashes, firstSentences, sentences, pages));
+		deletePending();
+	}
+	/**
+	 * Searches every file in the index for the sentences that contain a keyword
+	 * @param keyword          The keyword, which may contain several words separated by spaces and is matched the
+	 *                         same way as by the keyword report
+	 * @param withNumber       True to only return sentences that also contain a digit or a number word anywhere in
+	 *                         the sentence, as decided by NumericSentenceFilter.isCandidate
+	 * @param limit            The largest number of sentences to return
+	 * @return                 The sentences, in the order the files were added and the sentences appear in them
+	 */
+	public List<Hit> search(String keyword, boolean withNumber, int limit) {
+		/**
+		 * The sentences found so far
+		 */
+		ArrayList<Hit> hits = new ArrayList<Hit>();
+		/**
+		 * The segments at the moment, which do not change while they are searched
+		 */
+		Snapshot current = snapshot;
+		for (int s = 0; s < current.segments.size() && hits.size() < limit; s++) {
+			/**
+			 * The segment being searched
+			 */
+			Segment segment = current.segments.get(s);
+			/**
+			 * The live files of the segment
+			 */
+			boolean[] live = current.live.get(s);
+			for (int id : segment.index.find(keyword)) {
+				/**
+				 * The file containing the sentence
+				 */
+				int f = segment.fileOf(id);
+				if (!live[f]) {
+					continue;
+				}
+				/**
+				 * The sentence
+				 */
+				String sentence = segment.index.getSentence(id);
+				if (withNumber && !NumericSentenceFilter.isCandidate(sentence)) {
+					continue;
+				}
+				hits.add(new Hit(new File(segment.paths[f]), segment.pages.get(id) + 1, sentence.replace("\n", "").replace("\r", "")));
+				if (hits.size() == limit) {
+					break;
+				}
+			}
+		}
+		return hits;
+	}
+	/**
+	 * Commits the added files, waits for any merge to finish and deletes segment files that are no longer listed in
+	 * the manifest. The segments merged by this index are still mapped by it, so on Windows their files usually
+	 * cannot be deleted until the next time the index is opened, and are added to the pending delete list.
+	 * @throws IOException     Occurs if the added files cannot be committed or the pending delete list cannot be
+	 *                         written
+	 */
+	@Override
+	public void close() throws IOException {
+		commit();
+		merger.shutdown();
+		try {
+			merger.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		if (!merged) {
+			return;
+		}
+		/**
+		 * The names of the segments in the manifest
+		 */
+		HashSet<String> listed = listedNames();
+		/**
+		 * Segment files left behind by merges
+		 */
+		File[] unused = directory.listFiles(file -> file.getName().startsWith("segment-") && !listed.contains(file.getName()));
+		if (unused != null) {
+			synchronized (this) {
+				for (File file : unused) {
+					if (!pendingDeletes.contains(file.getName())) {
+						pendingDeletes.add(file.getName());
+					}
+				}
+			}
+		}
+		deletePending();
+	}
+	/**
+	 * Returns the names of the segments that searches currently read
+	 * @return     The names of the segment files in the manifest
+	 */
+	private HashSet<String> listedNames() {
+		/**
+		 * The names of the segments
+		 */
+		HashSet<String> listed = new HashSet<String>();
+		for (Segment segment : snapshot.segments) {
+			listed.add(segment.name);
+		}
+		return listed;
+	}
+	/**
+	 * Reads the names of the segment files that an earlier index could not delete. A list that cannot be read only
+	 * leaves the files it names in place.
+	 */
+	private void readPendingDeletes() {
+		/**
+		 * The file listing the segment files
+		 */
+		File list = new File(directory, PENDING_DELETES);
+		if (!list.isFile()) {
+			return;
+		}
+		try {
+			/**
+			 * The content of the list
+			 */
+			ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(list.toPath()));
+			if (data.getInt() != MAGIC || data.getInt() != VERSION) {
+				return;
+			}
+			/**
+			 * The number of names in the list
+			 */
+			int numNames = data.getInt();
+			for (int i = 0; i < numNames; i++) {
+				pendingDeletes.add(readString(data));
+			}
+		}
+		catch (IOException | RuntimeException e) {
+			// The names read before the failure are still deleted
+		}
+	}
+	/**
+	 * Deletes the segment files in the pending delete list and writes back the names of those that still cannot be
+	 * deleted. A segment that the manifest lists is never deleted.
+	 * @throws IOException     Occurs if the pending delete list cannot be written
+	 */
+	private synchronized void deletePending() throws IOException {
+		/**
+		 * The file listing the segment files
+		 */
+		File list = new File(directory, PENDING_DELETES);
+		if (pendingDeletes.isEmpty() && !list.exists()) {
+			return;
+		}
+		/**
+		 * The names of the segments in the manifest
+		 */
+		HashSet<String> listed = listedNames();
+		pendingDeletes.removeIf(name -> {
+			/**
+			 * The segment file
+			 */
+			File file = new File(directory, name);
+			return listed.contains(name) || file.delete() || !file.exists();
+		});
+		if (pendingDeletes.isEmpty() && (list.delete() || !list.exists())) {
+			return;
+		}
+		writeAtomically(list, out -> {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(pendingDeletes.size());
+			for (String name : pendingDeletes) {
+				ExtractionCache.writeString(out, name);
+			}
+		});
+	}
+	/**
+	 * Writes a file to a temporary file first and moves it into place, so a partly written file is never read
+	 * @param file             The file to write
+	 * @param writer           Writes the content of the file
+	 * @throws IOException     Occurs if the file cannot be written
+	 */
+	private void writeAtomically(File file, ExtractionCache.EntryWriter writer) throws IOException {
+		Files.createDirectories(directory.toPath());
+		/**
+		 * The temporary file the content is written to
+		 */
+		File temp = File.createTempFile("segment", ".tmp", directory);
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 1 << 16))) {
+				writer.write(out);
+			}
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally {
+			temp.delete();
+		}
+	}
+	/**
+	 * Reads a string written by ExtractionCache.writeString from a buffer
+	 * @param data     The buffer, positioned at the string
+	 * @return         The string
+	 */
+	private static String readString(ByteBuffer data) {
+		/**
+		 * The UTF-8 bytes of the string
+		 */
+		byte[] bytes = new byte[data.getInt()];
+		data.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
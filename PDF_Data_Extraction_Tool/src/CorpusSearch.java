@@ -0,0 +1,146 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+/**
+ * Searches the corpus index built by BatchExtractor --index from the command line, printing the file, page and
+ * sentence of every sentence that contains a keyword. Nothing is extracted from the PDF files, so a search over
+ * thousands of processed files finishes in well under a second.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class CorpusSearch {
+	/**
+	 * The usage message printed when the arguments are not valid
+	 */
+	private static final String USAGE = String.join(System.lineSeparator(),
+			"Usage: CorpusSearch [options] <keyword>",
+			"  -c, --corpus DIR      Directory of the corpus index, instead of the default in the home directory",
+			"  -n, --with-number     Only find sentences that also contain a digit or a number word anywhere",
+			"  -l, --limit N         Largest number of sentences to print, defaults to 100",
+			"The keyword may contain several words separated by spaces, which must all occur in a sentence, and is",
+			"matched the same way as the keywords of the report.");
+	/**
+	 * The directory of the corpus index
+	 */
+	private File corpusDirectory = CorpusIndex.getDefaultDirectory();
+	/**
+	 * True if only sentences that also contain a number are found
+	 */
+	private boolean withNumber = false;
+	/**
+	 * The largest number of sentences to print
+	 */
+	private int limit = 100;
+	/**
+	 * The keyword to search for
+	 */
+	private String keyword = null;
+	/**
+	 * Creates a search from the command line arguments
+	 * @param args                          The command line arguments
+	 * @throws IllegalArgumentException     Occurs if the arguments are not valid
+	 */
+	public CorpusSearch(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+			case "-c":
+			case "--corpus":
+				corpusDirectory = new File(value(args, ++i));
+				break;
+			case "-n":
+			case "--with-number":
+				withNumber = true;
+				break;
+			case "-l":
+			case "--limit":
+				try {
+					limit = Integer.parseInt(value(args, ++i));
+				}
+				catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Limit must be a number: " + args[i]);
+				}
+				if (limit < 1) {
+					throw new IllegalArgumentException("Limit must be at least one");
+				}
+				break;
+			default:
+				if (args[i].startsWith("-")) {
+					throw new IllegalArgumentException("Unknown option: " + args[i]);
+				}
+				if (keyword != null) {
+					throw new IllegalArgumentException("Only one keyword can be given, put a keyword of several words in quotes");
+				}
+				keyword = args[i];
+			}
+		}
+		if (keyword == null || keyword.trim().isEmpty()) {
+			throw new IllegalArgumentException("No keyword was given");
+		}
+		if (!corpusDirectory.isDirectory()) {
+			throw new IllegalArgumentException("No corpus index in " + corpusDirectory);
+		}
+	}
+	/**
+	 * Returns the value of an option
+	 * @param args                          The command line arguments
+	 * @param index                         The index of the value in param args
+	 * @return                              The value
+	 * @throws IllegalArgumentException     Occurs if the option has no value
+	 */
+	private static String value(String[] args, int index) {
+		if (index >= args.length) {
+			throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+		}
+		return args[index];
+	}
+	/**
+	 * Searches the corpus index and prints each sentence found, followed by a summary
+	 * @return                 The number of sentences found
+	 * @throws IOException     Occurs if the corpus index cannot be read
+	 */
+	public int run() throws IOException {
+		/**
+		 * The time at which the search started
+		 */
+		long start = System.nanoTime();
+		try (CorpusIndex corpus = new CorpusIndex(corpusDirectory)) {
+			/**
+			 * The sentences that contain the keyword
+			 */
+			List<CorpusIndex.Hit> hits = corpus.search(keyword, withNumber, limit);
+			for (CorpusIndex.Hit hit : hits) {
+				System.out.println(hit.getFile() + ":" + hit.getPage() + ": " + hit.getSentence().trim());
+			}
+			System.out.println(String.format("Found %d sentences in %d indexed files in %d ms", hits.size(), corpus.getNumberOfFiles(), (System.nanoTime() - start) / 1000000));
+			return hits.size();
+		}
+	}
+	/**
+	 * Runs a search from the command line. Exits with status 0 if a sentence was found, 1 if none was found or the
+	 * index could not be read and 2 if the arguments are not valid.
+	 * @param args     The command line arguments
+	 */
+	public static void main(String[] args) {
+		/**
+		 * The search described by the arguments
+		 */
+		CorpusSearch search;
+		try {
+			search = new CorpusSearch(args);
+		}
+		catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			System.exit(2);
+			return;
+		}
+		try {
+			System.exit(search.run() > 0 ? 0 : 1);
+		}
+		catch (IOException e) {
+			System.err.println("Corpus index could not be read: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+}
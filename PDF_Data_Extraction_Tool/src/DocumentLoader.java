@@ -0,0 +1,270 @@
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
+import org.apache.pdfbox.io.RandomAccessReadMemoryMappedFile;
+import org.apache.pdfbox.io.RandomAccessStreamCache.StreamCacheCreateFunction;
+import org.apache.pdfbox.pdmodel.PDDocument;
+/**
+ * Loads PDF files with PDFBox in a way that keeps the memory used by each document within a limit, so that very large
+ * files such as scanned filings do not exhaust the heap. The bytes of the file are read from the heap, from a memory
+ * mapping or from the file on disk, depending on the size of the file and the heap that is free. The scratch buffers
+ * that PDFBox uses for decoded streams are kept in the heap up to a per-document cap and moved to temporary files
+ * beyond it. The peak heap used by the program can be measured over a job so that it can be reported afterwards.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class DocumentLoader {
+	/**
+	 * Where the bytes of a PDF file are read from while it is open
+	 */
+	public enum Backend {
+		/**
+		 * The backend is chosen for each file from its size and the free heap
+		 */
+		AUTO,
+		/**
+		 * The whole file is read into the heap, which is the fastest for small files
+		 */
+		HEAP,
+		/**
+		 * The file is mapped into memory outside of the heap, which lets the operating system page it in and out
+		 */
+		MEMORY_MAPPED,
+		/**
+		 * The file is read from disk through a small buffer and every scratch buffer is a temporary file, which uses
+		 * the least memory
+		 */
+		TEMP_FILE
+	}
+	/**
+	 * The largest file read into the heap by the automatic choice of backend
+	 */
+	private static final long MAX_HEAP_FILE = 32L * 1024 * 1024;
+	/**
+	 * The largest file that can be memory mapped, as PDFBox maps a file with a single buffer
+	 */
+	private static final long MAX_MAPPED_FILE = Integer.MAX_VALUE;
+	/**
+	 * The fraction of the free heap that the automatic choice lets a single file read into the heap use
+	 */
+	private static final int HEAP_FILE_SHARE = 16;
+	/**
+	 * The smallest default cap on the scratch buffers kept in the heap for one document
+	 */
+	private static final long MIN_DOCUMENT_MEMORY = 16L * 1024 * 1024;
+	/**
+	 * The backend used for every file, or AUTO to choose one for each file
+	 */
+	private static volatile Backend backend = Backend.AUTO;
+	/**
+	 * The largest number of bytes of scratch buffers kept in the heap for one document, or 0 to use a sixteenth of
+	 * the largest heap
+	 */
+	private static volatile long documentMemoryCap = 0;
+	/**
+	 * The directory that temporary scratch files are created in, or null for the default temporary directory
+	 */
+	private static volatile File tempDirectory = null;
+	/**
+	 * Private constructor as the class only has static methods
+	 */
+	private DocumentLoader() {
+
+	}
+	/**
+	 * Sets the backend used for every file
+	 * @param newBackend     The backend, or AUTO to choose one for each file
+	 */
+	public static void setBackend(Backend newBackend) {
+		backend = newBackend;
+	}
+	/**
+	 * Returns the backend used for every file
+	 * @return     The backend, or AUTO if one is chosen for each file
+	 */
+	public static Backend getBackend() {
+		return backend;
+	}
+	/**
+	 * Sets the largest number of bytes of scratch buffers kept in the heap for one document. Anything beyond the cap
+	 * is moved to a temporary file.
+	 * @param bytes     The cap, or 0 to use a sixteenth of the largest heap
+	 */
+	public static void setDocumentMemoryCap(long bytes) {
+		if (bytes < 0) {
+			throw new IllegalArgumentException("Memory cap cannot be negative");
+		}
+		documentMemoryCap = bytes;
+	}
+	/**
+	 * Returns the largest number of bytes of scratch buffers kept in the heap for one document
+	 * @return     The cap in bytes
+	 */
+	public static long getDocumentMemoryCap() {
+		/**
+		 * The cap that was set
+		 */
+		long cap = documentMemoryCap;
+		return cap > 0 ? cap : Math.max(MIN_DOCUMENT_MEMORY, Runtime.getRuntime().maxMemory() / 16);
+	}
+	/**
+	 * Sets the directory that temporary scratch files are created in
+	 * @param directory     The directory, or null for the default temporary directory
+	 */
+	public static void setTempDirectory(File directory) {
+		tempDirectory = directory;
+	}
+	/**
+	 * Returns the number of bytes of heap that can still be used before the heap reaches its largest size
+	 * @return     The free heap in bytes
+	 */
+	public static long getFreeHeap() {
+		/**
+		 * The runtime of the program
+		 */
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+	}
+	/**
+	 * Chooses the backend for a file
+	 * @param fileSize     The size of the file in bytes
+	 * @return             The backend set with setBackend, or if that is AUTO, the heap for small files, a memory
+	 *                     mapping for files that fit in one and temporary files for the rest
+	 */
+	public static Backend chooseBackend(long fileSize) {
+		/**
+		 * The backend that was set
+		 */
+		Backend chosen = backend;
+		if (chosen != Backend.AUTO) {
+			return chosen;
+		}
+		if (fileSize <= MAX_HEAP_FILE && fileSize <= getFreeHeap() / HEAP_FILE_SHARE) {
+			return Backend.HEAP;
+		}
+		if (fileSize <= MAX_MAPPED_FILE) {
+			return Backend.MEMORY_MAPPED;
+		}
+		return Backend.TEMP_FILE;
+	}
+	/**
+	 * Returns the largest number of copies of a file that can be open at the same time without using more than half
+	 * of the free heap, counting the file itself if it is read into the heap and the scratch buffers of each copy
+	 * @param file     The PDF file
+	 * @return         The number of copies, which is at least one
+	 */
+	public static int maxOpenCopies(File file) {
+		/**
+		 * The heap expected to be used by one copy
+		 */
+		long perCopy = getDocumentMemoryCap() + (chooseBackend(file.length()) == Backend.HEAP ? file.length() : 0);
+		return (int) Math.max(1, Math.min(Integer.MAX_VALUE, getFreeHeap() / 2 / perCopy));
+	}
+	/**
+	 * Returns the scratch buffer settings for a backend, which keep buffers in the heap up to the per-document cap
+	 * and in temporary files beyond it, or only in temporary files for the TEMP_FILE backend
+	 * @param chosen     The backend
+	 * @return           Creates the scratch buffers of a document
+	 */
+	private static StreamCacheCreateFunction streamCache(Backend chosen) {
+		/**
+		 * The scratch buffer settings
+		 */
+		MemoryUsageSetting setting = chosen == Backend.TEMP_FILE ? MemoryUsageSetting.setupTempFileOnly() : MemoryUsageSetting.setupMixed(getDocumentMemoryCap());
+		/**
+		 * The directory for temporary scratch files
+		 */
+		File directory = tempDirectory;
+		if (directory != null) {
+			setting.setTempDir(directory);
+		}
+		return setting.streamCache;
+	}
+	/**
+	 * Returns the scratch buffer settings for a document that is being created rather than loaded
+	 * @return     Creates the scratch buffers of a document
+	 */
+	public static StreamCacheCreateFunction streamCache() {
+		return streamCache(Backend.HEAP);
+	}
+	/**
+	 * Loads a PDF file with the backend chosen for it
+	 * @param file             The PDF file
+	 * @return                 The loaded document, which must be closed once it is no longer needed
+	 * @throws IOException     Occurs when the PDF file cannot be read or is not a valid PDF file
+	 */
+	public static PDDocument load(File file) throws IOException {
+		/**
+		 * The backend chosen for the file
+		 */
+		Backend chosen = chooseBackend(file.length());
+		/**
+		 * The source the bytes of the file are read from, which the document closes when it is closed
+		 */
+		RandomAccessRead source;
+		switch (chosen) {
+		case HEAP:
+			source = new RandomAccessReadBuffer(Files.readAllBytes(file.toPath()));
+			break;
+		case MEMORY_MAPPED:
+			source = new RandomAccessReadMemoryMappedFile(file);
+			break;
+		default:
+			source = new RandomAccessReadBufferedFile(file);
+		}
+		try {
+			return Loader.loadPDF(source, streamCache(chosen));
+		}
+		catch (IOException | RuntimeException e) {
+			source.close();
+			throw e;
+		}
+	}
+	/**
+	 * Resets the peak heap usage so that the peak of a job can be measured. The peak is shared by the whole program,
+	 * so it must not be reset while another job is being measured, and jobs that run at the same time are measured
+	 * together.
+	 */
+	public static void resetPeakMemory() {
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+				pool.resetPeakUsage();
+			}
+		}
+	}
+	/**
+	 * Returns the peak heap usage since it was last reset, as the sum of the peaks of every heap memory pool. The
+	 * pools may not have peaked at the same moment, so this is an upper bound.
+	 * @return     The peak heap usage in bytes
+	 */
+	public static long getPeakMemory() {
+		/**
+		 * The sum of the peaks of the heap pools
+		 */
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		return peak;
+	}
+	/**
+	 * Describes a peak heap usage of the whole program for the user
+	 * @param bytes     The peak heap usage in bytes
+	 * @return          The peak in megabytes, such as "program peak memory 212 MB"
+	 */
+	public static String describePeakMemory(long bytes) {
+		return "program peak memory " + (bytes + 512 * 1024) / (1024 * 1024) + " MB";
+	}
+}
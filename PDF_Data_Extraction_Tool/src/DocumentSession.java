@@ -0,0 +1,832 @@
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+/**
+ * The parsed content of one PDF file, shared by the report, metrics and table features so that the file is only
+ * parsed once however many of them are run on it. A single pass over every page records its text, the bounding box
+ * of every word and the ruling lines drawn on it. Features that only need each page once, such as the report and the
+ * metrics, read the pages one window at a time with a PageReader that lets each page go once the next one is
+ * returned, so their memory use does not grow with the size of the file. A feature that needs every page at once,
+ * such as the table detector, opens a whole session instead. Sessions are kept in a cache that is shared by the
+ * whole program and evicts the least recently used session once there are too many or they use too much memory,
+ * and a session larger than the whole cache is never cached. A session is parsed again if its file has been changed
+ * since it was cached. Parsed pages are also written to the ExtractionCache on disk as they are parsed, so a file
+ * parsed by an earlier run of the program is read back a page at a time instead of being parsed again.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class DocumentSession {
+	/**
+	 * The content of one page
+	 */
+	public static class Page {
+		/**
+		 * The text of the page within ParallelTextExtractor.REGION
+		 */
+		private final String text;
+		/**
+		 * The words of the page and their bounding boxes
+		 */
+		private final PageLayout layout;
+		/**
+		 * The horizontal ruling lines of the page, as {y, left, right}
+		 */
+		private final List<float[]> horizontals;
+		/**
+		 * The vertical ruling lines of the page, as {x, top, bottom}
+		 */
+		private final List<float[]> verticals;
+		/**
+		 * The filter of the sequences of characters in the text of the page
+		 */
+		private final BloomFilter filter;
+		/**
+		 * Creates the content of a page
+		 * @param text            The text of the page
+		 * @param layout          The words of the page
+		 * @param horizontals     The horizontal ruling lines of the page
+		 * @param verticals       The vertical ruling lines of the page
+		 * @param filter          The filter of the text of the page
+		 */
+		private Page(String text, PageLayout layout, List<float[]> horizontals, List<float[]> verticals, BloomFilter filter) {
+			this.text = text;
+			this.layout = layout;
+			this.horizontals = horizontals;
+			this.verticals = verticals;
+			this.filter = filter;
+		}
+		/**
+		 * Returns the text of the page
+		 * @return     The text of the page
+		 */
+		public String getText() {
+			return text;
+		}
+		/**
+		 * Returns the words of the page and their bounding boxes
+		 * @return     The layout of the page
+		 */
+		public PageLayout getLayout() {
+			return layout;
+		}
+		/**
+		 * Returns the horizontal ruling lines of the page
+		 * @return     The lines, as {y, left, right}
+		 */
+		public List<float[]> getHorizontals() {
+			return horizontals;
+		}
+		/**
+		 * Returns the vertical ruling lines of the page
+		 * @return     The lines, as {x, top, bottom}
+		 */
+		public List<float[]> getVerticals() {
+			return verticals;
+		}
+		/**
+		 * Returns the filter of the text of the page, which tells whether a keyword may occur in the text without
+		 * reading it
+		 * @return     The filter of the page
+		 */
+		public BloomFilter getFilter() {
+			return filter;
+		}
+	}
+	/**
+	 * Reads the pages of a PDF file in page order. Pages come from the cache in memory if the file has already been
+	 * parsed, otherwise from its entry in the ExtractionCache one page at a time, and otherwise are parsed a few at a
+	 * time by a ParallelTextExtractor and written to the ExtractionCache as they are parsed. Unless the reader was
+	 * asked to keep its pages, a page is let go as soon as the next page is returned, so reading a file of any size
+	 * only holds one window of pages in memory. Each page read is reported to a monitor, and reading stops between
+	 * pages once the job is cancelled.
+	 */
+	public static class PageReader implements Iterator<Page>, Closeable {
+		/**
+		 * The number of pages each worker parses in one window
+		 */
+		private static final int PAGES_PER_WORKER = 4;
+		/**
+		 * The PDF file being read
+		 */
+		private final File file;
+		/**
+		 * Receives the progress of the job and tells it when it has been cancelled
+		 */
+		private final JobMonitor monitor;
+		/**
+		 * True if every page is kept once it has been returned, so that the session of the file can be built
+		 */
+		private final boolean keepPages;
+		/**
+		 * True if the pages are those of a session in the cache in memory, which are never let go
+		 */
+		private final boolean cached;
+		/**
+		 * The session of the file, which is the cached session if the pages are read from the cache, or null until
+		 * the last page has been read by a reader that keeps its pages
+		 */
+		private DocumentSession session;
+		/**
+		 * The extraction engine that parses the pages, or null if the pages come from a cache
+		 */
+		private ParallelTextExtractor extractor = null;
+		/**
+		 * The entry in the ExtractionCache that the pages are read from, or null if they do not come from one
+		 */
+		private DataInputStream stored = null;
+		/**
+		 * The entry in the ExtractionCache that parsed pages are written to, or null if they are not written
+		 */
+		private ExtractionCache.PendingEntry entry = null;
+		/**
+		 * Builds the filter of the whole file from the parsed pages, or null if the pages are not parsed from the
+		 * first page on
+		 */
+		private BloomFilter.Builder fileFilter = null;
+		/**
+		 * The time at which the file was last modified before it was parsed
+		 */
+		private final long lastModified;
+		/**
+		 * The length of the file before it was parsed
+		 */
+		private final long length;
+		/**
+		 * The content of each page that has been read and not yet let go
+		 */
+		private final Page[] pages;
+		/**
+		 * The number of pages that have been read
+		 */
+		private int parsed = 0;
+		/**
+		 * The zero based index of the next page to be returned
+		 */
+		private int position = 0;
+		/**
+		 * Creates a reader over the pages of a PDF file, taking the pages from the cache in memory or on disk if the
+		 * file has already been parsed
+		 * @param file             The PDF file
+		 * @param monitor          Receives the progress of the job and tells it when it has been cancelled
+		 * @param keepPages        True to keep every page once it has been returned and cache the session of the file
+		 * @throws IOException     Occurs when the PDF file cannot be loaded
+		 */
+		private PageReader(File file, JobMonitor monitor, boolean keepPages) throws IOException {
+			this.file = file;
+			this.monitor = monitor;
+			this.keepPages = keepPages;
+			lastModified = file.lastModified();
+			length = file.length();
+			session = getCached(file, lastModified, length);
+			cached = session != null;
+			if (cached) {
+				pages = session.pages;
+				parsed = pages.length;
+			}
+			else {
+				pages = new Page[openStoredPages()];
+				if (pages.length == 0) {
+					finish();
+				}
+			}
+			monitor.setTotal(pages.length);
+		}
+		/**
+		 * Opens the entry of the file in the ExtractionCache, or the file itself if it has no usable entry, and
+		 * starts a new entry that the parsed pages are written to
+		 * @return                 The number of pages in the PDF file
+		 * @throws IOException     Occurs when the PDF file cannot be loaded
+		 */
+		private int openStoredPages() throws IOException {
+			stored = ExtractionCache.open(file, CACHE_KIND);
+			if (stored != null) {
+				try {
+					return stored.readInt();
+				}
+				catch (IOException e) {
+					dropStoredPages();
+				}
+			}
+			extractor = new ParallelTextExtractor(file);
+			fileFilter = new BloomFilter.Builder(length);
+			entry = ExtractionCache.create(file, CACHE_KIND);
+			if (entry != null) {
+				try {
+					entry.getOutput().writeInt(extractor.getNumberOfPages());
+				}
+				catch (IOException e) {
+					dropEntry();
+				}
+			}
+			return extractor.getNumberOfPages();
+		}
+		/**
+		 * Returns the number of pages in the PDF file
+		 * @return     The number of pages
+		 */
+		public int getNumberOfPages() {
+			return pages.length;
+		}
+		/**
+		 * Returns true if there are pages that have not been returned yet
+		 * @return     True if there is another page
+		 */
+		public boolean hasNext() {
+			return position < pages.length;
+		}
+		/**
+		 * Returns the next page, reading the next page from the ExtractionCache or parsing the next window of pages if
+		 * it has not been read yet. Unless the reader keeps its pages, the page returned before is let go.
+		 * @return                          The content of the next page
+		 * @throws UncheckedIOException     Occurs when the next window of pages cannot be parsed
+		 */
+		public Page next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			monitor.checkCancelled();
+			try {
+				if (position == parsed) {
+					readWindow();
+				}
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			if (!keepPages && !cached && position > 0) {
+				pages[position - 1] = null;
+			}
+			monitor.worked(1);
+			return pages[position++];
+		}
+		/**
+		 * Reads the next page from the entry in the ExtractionCache, or parses the next window of pages. If the entry
+		 * turns out to be damaged, the rest of the pages are parsed from the PDF file instead.
+		 * @throws IOException     Occurs when the PDF file cannot be loaded or a page cannot be parsed
+		 */
+		private void readWindow() throws IOException {
+			if (stored != null) {
+				try {
+					pages[parsed] = readPage(stored, parsed);
+					parsed++;
+				}
+				catch (IOException | RuntimeException e) {
+					dropStoredPages();
+					extractor = new ParallelTextExtractor(file);
+				}
+			}
+			if (stored == null) {
+				/**
+				 * The page after the last page of the next window
+				 */
+				int windowEnd = Math.min(parsed + extractor.getNumberOfWorkers() * PAGES_PER_WORKER, pages.length);
+				for (Page page : extractor.processPages(parsed, windowEnd, DocumentSession::createPageTask)) {
+					pages[parsed++] = page;
+					if (fileFilter != null) {
+						fileFilter.append(page.text);
+					}
+					if (entry != null) {
+						try {
+							writePage(entry.getOutput(), page);
+						}
+						catch (IOException e) {
+							dropEntry();
+						}
+					}
+				}
+			}
+			if (parsed == pages.length) {
+				finish();
+			}
+		}
+		/**
+		 * Finishes the file once its last page has been read. The filter of the whole file ends the entry of the
+		 * pages and is also stored on its own, and the session of the file is built and cached if the pages were
+		 * kept.
+		 * @throws IOException     Occurs when the filter cannot be read from the entry of the pages
+		 */
+		private void finish() throws IOException {
+			/**
+			 * The filter of the whole file, or null if it cannot be built
+			 */
+			BloomFilter filter = null;
+			if (stored != null) {
+				if (keepPages) {
+					try {
+						filter = BloomFilter.read(stored);
+					}
+					catch (IOException e) {
+						dropStoredPages();
+					}
+				}
+			}
+			else if (fileFilter != null) {
+				filter = fileFilter.build();
+				/**
+				 * The filter of the whole file, for the entry written on its own
+				 */
+				BloomFilter finished = filter;
+				if (entry != null) {
+					try {
+						filter.write(entry.getOutput());
+						entry.commit();
+					}
+					catch (IOException e) {
+						// Pages that cannot be cached are simply parsed again next time
+					}
+					dropEntry();
+				}
+				ExtractionCache.write(file, FILTER_KIND, out -> finished.write(out));
+			}
+			if (keepPages) {
+				if (filter == null) {
+					/**
+					 * Builds the filter from the kept pages, as the pages were not all parsed from the first page on
+					 */
+					BloomFilter.Builder builder = new BloomFilter.Builder(length);
+					for (Page page : pages) {
+						builder.append(page.text);
+					}
+					filter = builder.build();
+				}
+				session = new DocumentSession(file, lastModified, length, pages, filter);
+				cache(session);
+			}
+		}
+		/**
+		 * Closes the entry that the pages were read from and deletes it, as it could not be read
+		 */
+		private void dropStoredPages() {
+			try {
+				stored.close();
+			}
+			catch (IOException e) {
+				// The entry is deleted whether or not its stream could be closed
+			}
+			stored = null;
+			ExtractionCache.delete(file, CACHE_KIND);
+		}
+		/**
+		 * Abandons the entry that parsed pages are written to
+		 */
+		private void dropEntry() {
+			entry.close();
+			entry = null;
+		}
+		/**
+		 * Returns the content of a page that has been read and not let go, which is the page returned last, any page
+		 * that has been read but not returned yet, and every page that has been read if the reader keeps its pages
+		 * @param index     The zero based index of the page
+		 * @return          The content of the page
+		 */
+		public Page getPage(int index) {
+			if (index >= parsed || pages[index] == null) {
+				throw new IllegalStateException("Page " + index + " has not been read or has already been let go");
+			}
+			return pages[index];
+		}
+		/**
+		 * Returns the text of each remaining page, for use with a SentenceIterator
+		 * @return     An iterator over the text of each page
+		 */
+		public Iterator<String> texts() {
+			return new Iterator<String>() {
+				/**
+				 * Returns true if there is another page
+				 * @return     True if there is another page
+				 */
+				public boolean hasNext() {
+					return PageReader.this.hasNext();
+				}
+				/**
+				 * Returns the text of the next page
+				 * @return     The text of the next page
+				 */
+				public String next() {
+					return PageReader.this.next().getText();
+				}
+			};
+		}
+		/**
+		 * Reads every remaining page and returns the session of the file
+		 * @return                          The parsed content of the file
+		 * @throws IOException              Occurs when a page cannot be parsed
+		 * @throws IllegalStateException    Occurs if the reader does not keep its pages
+		 */
+		public DocumentSession readAll() throws IOException {
+			if (!keepPages && !cached) {
+				throw new IllegalStateException("Only a reader that keeps its pages can build a session");
+			}
+			try {
+				while (hasNext()) {
+					next();
+				}
+			}
+			catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+			return session;
+		}
+		/**
+		 * Closes the extraction engine and every document it loaded, and the entries in the ExtractionCache, deleting
+		 * the entry being written if the last page was never reached
+		 * @throws IOException     Occurs when a document cannot be closed
+		 */
+		public void close() throws IOException {
+			if (entry != null) {
+				dropEntry();
+			}
+			if (stored != null) {
+				stored.close();
+				stored = null;
+			}
+			if (extractor != null) {
+				extractor.close();
+			}
+		}
+	}
+	/**
+	 * The name of the entries in the ExtractionCache that hold parsed pages
+	 */
+	private static final String CACHE_KIND = "pages";
+	/**
+	 * The name of the entries in the ExtractionCache that hold the filter of a whole file, kept apart from the pages
+	 * so that a search can rule out a file without reading its pages
+	 */
+	private static final String FILTER_KIND = "filter";
+	/**
+	 * A rough number of bytes used by each word of a layout, counting its string and its four edges
+	 */
+	private static final int BYTES_PER_WORD = 72;
+	/**
+	 * A rough number of bytes used by each ruling line
+	 */
+	private static final int BYTES_PER_LINE = 40;
+	/**
+	 * The sessions in the cache, keyed by the absolute path of their file and ordered from least to most recently
+	 * used
+	 */
+	private static final LinkedHashMap<String, DocumentSession> CACHE = new LinkedHashMap<String, DocumentSession>(16, 0.75f, true);
+	/**
+	 * The largest number of sessions kept in the cache
+	 */
+	private static final int MAX_SESSIONS = 8;
+	/**
+	 * The largest estimated number of bytes used by the sessions in the cache, which defaults to an eighth of the
+	 * memory available to the program
+	 */
+	private static long maxCacheBytes = Runtime.getRuntime().maxMemory() / 8;
+	/**
+	 * The estimated number of bytes used by the sessions in the cache
+	 */
+	private static long cacheBytes = 0;
+	/**
+	 * The PDF file that was parsed
+	 */
+	private final File file;
+	/**
+	 * The time at which the file was last modified when it was parsed
+	 */
+	private final long lastModified;
+	/**
+	 * The length of the file in bytes when it was parsed
+	 */
+	private final long length;
+	/**
+	 * The content of each page, in page order
+	 */
+	private final Page[] pages;
+	/**
+	 * The estimated number of bytes used by the content of the pages
+	 */
+	private final long estimatedBytes;
+	/**
+	 * The filter of the sequences of characters in the text of the whole file
+	 */
+	private final BloomFilter filter;
+	/**
+	 * Creates a session from the parsed pages of a file
+	 * @param file             The PDF file that was parsed
+	 * @param lastModified     The time at which the file was last modified before it was parsed
+	 * @param length           The length of the file before it was parsed
+	 * @param pages            The content of each page
+	 * @param filter           The filter of the text of the whole file
+	 */
+	private DocumentSession(File file, long lastModified, long length, Page[] pages, BloomFilter filter) {
+		this.file = file;
+		this.lastModified = lastModified;
+		this.length = length;
+		this.pages = pages;
+		this.filter = filter;
+		/**
+		 * The estimated size of the pages
+		 */
+		long bytes = filter.getSizeInBytes();
+		for (Page page : pages) {
+			bytes += 2L * page.text.length() + (long) BYTES_PER_WORD * page.layout.getWordCount()
+					+ (long) BYTES_PER_LINE * (page.horizontals.size() + page.verticals.size()) + page.filter.getSizeInBytes();
+		}
+		estimatedBytes = bytes;
+	}
+	/**
+	 * Returns the session of a PDF file, parsing the file if it is not in the cache
+	 * @param file             The PDF file
+	 * @return                 The parsed content of the file
+	 * @throws IOException     Occurs when the PDF file cannot be loaded or a page cannot be read
+	 */
+	public static DocumentSession open(File file) throws IOException {
+		return open(file, new JobMonitor());
+	}
+	/**
+	 * Returns the session of a PDF file, parsing the file if it is not in the cache or has changed since it was
+	 * cached. Each page parsed is reported to a monitor, and the workers stop between pages once the job is
+	 * cancelled. A cached session is reported as every page being done.
+	 * @param file             The PDF file
+	 * @param monitor          Receives the progress of the job and tells it when it has been cancelled
+	 * @return                 The parsed content of the file
+	 * @throws IOException     Occurs when the PDF file cannot be loaded or a page cannot be read
+	 */
+	public static DocumentSession open(File file, JobMonitor monitor) throws IOException {
+		try (PageReader reader = new PageReader(file, monitor, true)) {
+			return reader.readAll();
+		}
+	}
+	/**
+	 * Creates a reader over the pages of a PDF file, which reads them from the cache if the file has already been
+	 * parsed and lets each page go once the next one has been returned
+	 * @param file             The PDF file
+	 * @param monitor          Receives the progress of the job and tells it when it has been cancelled
+	 * @return                 A reader that must be closed once it is no longer needed
+	 * @throws IOException     Occurs when the PDF file cannot be loaded
+	 */
+	public static PageReader read(File file, JobMonitor monitor) throws IOException {
+		return new PageReader(file, monitor, false);
+	}
+	/**
+	 * Returns the filter of the text of a whole PDF file that has already been parsed, from the cache in memory or
+	 * on disk, without reading its pages
+	 * @param file     The PDF file
+	 * @return         The filter of the file, or null if the file has not been parsed or has changed since
+	 */
+	public static BloomFilter readFilter(File file) {
+		/**
+		 * The cached session of the file, if there is one
+		 */
+		DocumentSession cached = getCached(file, file.lastModified(), file.length());
+		if (cached != null) {
+			return cached.filter;
+		}
+		return ExtractionCache.read(file, FILTER_KIND, BloomFilter::read);
+	}
+	/**
+	 * Creates the task that one worker uses to read the text, words and ruling lines of the pages of its shard in a
+	 * single pass, and to build the filter of the text of each page
+	 * @return                 The task
+	 * @throws IOException     Occurs if PDFBox cannot create a text stripper
+	 */
+	private static ParallelTextExtractor.PageTask<Page> createPageTask() throws IOException {
+		/**
+		 * Records the text and word boxes of each page of the shard
+		 */
+		PageWordStripper stripper = new PageWordStripper();
+		return (page, pageIndex) -> {
+			/**
+			 * The words of the page
+			 */
+			PageLayout layout = stripper.extractLayout(page, pageIndex);
+			/**
+			 * Collects the ruling lines of the page
+			 */
+			RulingCollector rulings = new RulingCollector(page);
+			rulings.collect();
+			/**
+			 * The text of the page
+			 */
+			String text = stripper.getText();
+			return new Page(text, layout, rulings.getHorizontals(), rulings.getVerticals(), BloomFilter.of(text));
+		};
+	}
+	/**
+	 * Returns the cached session of a file if the file has not changed since it was parsed
+	 * @param file             The PDF file
+	 * @param lastModified     The time at which the file was last modified
+	 * @param length           The length of the file
+	 * @return                 The cached session, or null if there is none or it is out of date
+	 */
+	private static DocumentSession getCached(File file, long lastModified, long length) {
+		synchronized (CACHE) {
+			/**
+			 * The cached session of the file, if there is one
+			 */
+			DocumentSession cached = CACHE.get(file.getAbsolutePath());
+			return cached != null && cached.lastModified == lastModified && cached.length == length ? cached : null;
+		}
+	}
+	/**
+	 * Adds a session to the cache, replacing any older session of the same file. A session larger than the whole
+	 * cache is not added, though it still replaces an older session of the same file.
+	 * @param session     The session to add
+	 */
+	private static void cache(DocumentSession session) {
+		synchronized (CACHE) {
+			/**
+			 * The session being replaced, if there is one
+			 */
+			DocumentSession replaced = session.estimatedBytes <= maxCacheBytes ? CACHE.put(session.file.getAbsolutePath(), session)
+					: CACHE.remove(session.file.getAbsolutePath());
+			if (replaced != null) {
+				cacheBytes -= replaced.estimatedBytes;
+			}
+			if (session.estimatedBytes <= maxCacheBytes) {
+				cacheBytes += session.estimatedBytes;
+			}
+			evict();
+		}
+	}
+	/**
+	 * Writes the content of a page to a cache entry. The entry of a file holds its number of pages, then each page,
+	 * then the filter of the whole file, so that its pages can be written and read one at a time.
+	 * @param out              The stream the entry is written to
+	 * @param page             The content of the page
+	 * @throws IOException     Occurs if the entry cannot be written
+	 */
+	private static void writePage(DataOutputStream out, Page page) throws IOException {
+		ExtractionCache.writeString(out, page.text);
+		/**
+		 * The words of the page
+		 */
+		PageLayout layout = page.layout;
+		out.writeInt(layout.getWordCount());
+		for (int i = 0; i < layout.getWordCount(); i++) {
+			ExtractionCache.writeString(out, layout.getWord(i));
+			out.writeFloat(layout.getLeft(i));
+			out.writeFloat(layout.getTop(i));
+			out.writeFloat(layout.getRight(i));
+			out.writeFloat(layout.getBottom(i));
+		}
+		writeLines(out, page.horizontals);
+		writeLines(out, page.verticals);
+		page.filter.write(out);
+	}
+	/**
+	 * Writes a list of ruling lines to a cache entry
+	 * @param out              The stream the entry is written to
+	 * @param lines            The lines, each as three coordinates
+	 * @throws IOException     Occurs if the entry cannot be written
+	 */
+	private static void writeLines(DataOutputStream out, List<float[]> lines) throws IOException {
+		out.writeInt(lines.size());
+		for (float[] line : lines) {
+			out.writeFloat(line[0]);
+			out.writeFloat(line[1]);
+			out.writeFloat(line[2]);
+		}
+	}
+	/**
+	 * Reads the content of a page from a cache entry written by writePage
+	 * @param in               The stream the entry is read from
+	 * @param index            The zero based index of the page
+	 * @return                 The content of the page
+	 * @throws IOException     Occurs if the entry cannot be read
+	 */
+	private static Page readPage(DataInputStream in, int index) throws IOException {
+		/**
+		 * The text of the page
+		 */
+		String text = ExtractionCache.readString(in);
+		/**
+		 * The words of the page
+		 */
+		PageLayout layout = new PageLayout(index);
+		/**
+		 * The number of words on the page
+		 */
+		int words = in.readInt();
+		for (int i = 0; i < words; i++) {
+			layout.add(ExtractionCache.readString(in), in.readFloat(), in.readFloat(), in.readFloat(), in.readFloat());
+		}
+		/**
+		 * The horizontal ruling lines of the page
+		 */
+		List<float[]> horizontals = readLines(in);
+		/**
+		 * The vertical ruling lines of the page
+		 */
+		List<float[]> verticals = readLines(in);
+		return new Page(text, layout, horizontals, verticals, BloomFilter.read(in));
+	}
+	/**
+	 * Reads a list of ruling lines written by writeLines
+	 * @param in               The stream the entry is read from
+	 * @return                 The lines, each as three coordinates
+	 * @throws IOException     Occurs if the entry cannot be read
+	 */
+	private static List<float[]> readLines(DataInputStream in) throws IOException {
+		/**
+		 * The number of lines
+		 */
+		int count = in.readInt();
+		/**
+		 * The lines read
+		 */
+		ArrayList<float[]> lines = new ArrayList<float[]>(count);
+		for (int i = 0; i < count; i++) {
+			lines.add(new float[] {in.readFloat(), in.readFloat(), in.readFloat()});
+		}
+		return lines;
+	}
+	/**
+	 * Removes the least recently used sessions until the cache is within its limits. Must be called while holding
+	 * the lock of the cache.
+	 */
+	private static void evict() {
+		/**
+		 * The sessions from least to most recently used
+		 */
+		Iterator<Map.Entry<String, DocumentSession>> entries = CACHE.entrySet().iterator();
+		while (CACHE.size() > MAX_SESSIONS || cacheBytes > maxCacheBytes) {
+			cacheBytes -= entries.next().getValue().estimatedBytes;
+			entries.remove();
+		}
+	}
+	/**
+	 * Sets the largest estimated number of bytes used by the sessions in the cache, evicting sessions straight away
+	 * if it is over the new limit. A limit of zero turns the cache off.
+	 * @param bytes     The largest estimated number of bytes used by the sessions
+	 */
+	public static void setMaxCacheBytes(long bytes) {
+		synchronized (CACHE) {
+			maxCacheBytes = bytes;
+			evict();
+		}
+	}
+	/**
+	 * Returns the PDF file that was parsed
+	 * @return     The PDF file
+	 */
+	public File getFile() {
+		return file;
+	}
+	/**
+	 * Returns the number of pages in the PDF file
+	 * @return     The number of pages
+	 */
+	public int getNumberOfPages() {
+		return pages.length;
+	}
+	/**
+	 * Returns the content of a page
+	 * @param index     The zero based index of the page
+	 * @return          The content of the page
+	 */
+	public Page getPage(int index) {
+		return pages[index];
+	}
+	/**
+	 * Returns the filter of the text of the whole PDF file, including the sequences of characters that cross from
+	 * one page to the next
+	 * @return     The filter of the file
+	 */
+	public BloomFilter getFilter() {
+		return filter;
+	}
+	/**
+	 * Returns the text of every page joined in page order
+	 * @return     The text of the PDF file
+	 */
+	public String getText() {
+		/**
+		 * The total length of the text, used to size the buffer so that it never has to grow
+		 */
+		int totalLength = 0;
+		for (Page page : pages) {
+			totalLength += page.text.length();
+		}
+		/**
+		 * Buffer holding the text of all the pages
+		 */
+		StringBuilder text = new StringBuilder(totalLength);
+		for (Page page : pages) {
+			text.append(page.text);
+		}
+		return text.toString();
+	}
+	/**
+	 * Returns the estimated number of bytes used by the content of the pages, which is what the cache limit is
+	 * measured in
+	 * @return     The estimated size of the session
+	 */
+	public long getEstimatedBytes() {
+		return estimatedBytes;
+	}
+}
@@ -0,0 +1,630 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+/**
+ * A cache on disk of the results of extraction, so that running a feature again on a PDF file that has already been
+ * processed skips PDFBox and Python altogether. Entries are keyed by the SHA-256 hash of the content of the PDF file
+ * and the version of the extraction code, so a renamed or copied file still hits the cache and a change to the
+ * extraction code never reads results written by older code. Each feature stores its results in its own entry in
+ * its own compact binary format, compressed with GZIP, or left uncompressed so that it can be memory mapped and read
+ * in place. Once the entries use more than the size limit, the least recently used are deleted. The cache is only an
+ * optimisation: an entry that cannot be read or written is treated as missing.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class ExtractionCache {
+	/**
+	 * Writes the content of an entry
+	 */
+	public interface EntryWriter {
+		/**
+		 * Writes the content of an entry
+		 * @param out              The stream the entry is written to
+		 * @throws IOException     Occurs if the entry cannot be written
+		 */
+		void write(DataOutputStream out) throws IOException;
+	}
+	/**
+	 * Reads the content of an entry
+	 * @param <T>     The type of the content of the entry
+	 */
+	public interface EntryReader<T> {
+		/**
+		 * Reads the content of an entry
+		 * @param in               The stream the entry is read from
+		 * @return                 The content of the entry
+		 * @throws IOException     Occurs if the entry cannot be read or is not in the expected format
+		 */
+		T read(DataInputStream in) throws IOException;
+	}
+	/**
+	 * Reads the content of an uncompressed entry in place from a memory mapping of the entry
+	 * @param <T>     The type of the content of the entry
+	 */
+	public interface MappedEntryReader<T> {
+		/**
+		 * Reads the content of an entry
+		 * @param data             The mapped content of the entry, starting after the header
+		 * @return                 The content of the entry, which may keep reading from param data
+		 * @throws IOException     Occurs if the entry is not in the expected format
+		 */
+		T read(ByteBuffer data) throws IOException;
+	}
+	/**
+	 * An entry that is written a part at a time, such as a page at a time while a PDF file is parsed. The entry is
+	 * written to a temporary file, which only replaces any existing entry once it is committed and is deleted if the
+	 * entry is closed without being committed.
+	 */
+	public static class PendingEntry implements Closeable {
+		/**
+		 * The file holding the entry once it is committed
+		 */
+		private final File entry;
+		/**
+		 * The temporary file the entry is written to
+		 */
+		private final File temp;
+		/**
+		 * The stream the temporary file is written through
+		 */
+		private final DataOutputStream out;
+		/**
+		 * True once the entry has been moved into place
+		 */
+		private boolean committed = false;
+		/**
+		 * Creates the temporary file of an entry and writes the header of the entry to it
+		 * @param entry            The file holding the entry once it is committed
+		 * @param compressed       True to compress the entry with GZIP
+		 * @throws IOException     Occurs if the temporary file cannot be created or written
+		 */
+		private PendingEntry(File entry, boolean compressed) throws IOException {
+			this.entry = entry;
+			Files.createDirectories(directory.toPath());
+			temp = File.createTempFile("entry", ".tmp", directory);
+			/**
+			 * The stream the temporary file is written through, before it is buffered and compressed
+			 */
+			OutputStream file = new FileOutputStream(temp);
+			try {
+				out = new DataOutputStream(new BufferedOutputStream(compressed ? new GZIPOutputStream(file, BUFFER_SIZE) : file, BUFFER_SIZE));
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+			}
+			catch (IOException e) {
+				file.close();
+				if (!temp.delete()) {
+					temp.deleteOnExit();
+				}
+				throw e;
+			}
+		}
+		/**
+		 * Returns the stream the content of the entry is written to
+		 * @return     The stream, positioned after the header of the entry
+		 */
+		public DataOutputStream getOutput() {
+			return out;
+		}
+		/**
+		 * Finishes the entry and moves it into place, replacing any existing entry of the same kind, then deletes the
+		 * least recently used entries if the cache is over its size limit
+		 * @throws IOException     Occurs if the entry cannot be finished or moved into place
+		 */
+		public void commit() throws IOException {
+			out.close();
+			Files.move(temp.toPath(), entry.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			committed = true;
+			evict();
+		}
+		/**
+		 * Deletes the temporary file if the entry has not been committed
+		 */
+		public void close() {
+			if (!committed) {
+				try {
+					out.close();
+				}
+				catch (IOException e) {
+					// The temporary file is deleted whether or not its stream could be finished
+				}
+				if (!temp.delete()) {
+					temp.deleteOnExit();
+				}
+			}
+		}
+	}
+	/**
+	 * The hash of a file, with the length and modification time the file had when it was hashed
+	 */
+	private static class KnownHash {
+		/**
+		 * The length of the file when it was hashed
+		 */
+		private final long length;
+		/**
+		 * The modification time of the file when it was hashed
+		 */
+		private final long modified;
+		/**
+		 * The hash as hexadecimal digits
+		 */
+		private final String hash;
+		/**
+		 * Remembers the hash of a file
+		 * @param length       The length of the file
+		 * @param modified     The modification time of the file
+		 * @param hash         The hash as hexadecimal digits
+		 */
+		private KnownHash(long length, long modified, String hash) {
+			this.length = length;
+			this.modified = modified;
+			this.hash = hash;
+		}
+	}
+	/**
+	 * The version of the extraction code. Must be increased whenever a change to the code changes the results it
+	 * produces or the format of an entry, so that entries written by older code are no longer used.
+	 */
+	public static final int VERSION = 6;
+	/**
+	 * The first four bytes of every entry
+	 */
+	private static final int MAGIC = 0x50444645;
+	/**
+	 * The number of bytes read or written at a time
+	 */
+	private static final int BUFFER_SIZE = 1 << 16;
+	/**
+	 * The directory the entries are kept in
+	 */
+	private static volatile File directory = new File(System.getProperty("user.home"), ".pdf-data-extraction-tool" + File.separator + "cache");
+	/**
+	 * The largest number of bytes used by the entries
+	 */
+	private static volatile long maxBytes = 256L * 1024 * 1024;
+	/**
+	 * True if the cache is used
+	 */
+	private static volatile boolean enabled = true;
+	/**
+	 * The largest number of files whose hashes are remembered
+	 */
+	private static final int MAX_HASHES = 4096;
+	/**
+	 * The hash of the most recently hashed files, keyed by their absolute path. The least recently used hash is
+	 * forgotten once there are more than MAX_HASHES, and a file that has changed replaces its own hash.
+	 */
+	private static final LinkedHashMap<String, KnownHash> HASHES = new LinkedHashMap<String, KnownHash>(16, 0.75f, true) {
+		/**
+		 * Identifies the map in serialized form, which it is never used in
+		 */
+		private static final long serialVersionUID = 1L;
+		/**
+		 * Forgets the least recently used hash once there are too many
+		 * @param eldest     The least recently used hash
+		 * @return           True if param eldest is removed
+		 */
+		protected boolean removeEldestEntry(Map.Entry<String, KnownHash> eldest) {
+			return size() > MAX_HASHES;
+		}
+	};
+	/**
+	 * Private constructor as the class only has static methods
+	 */
+	private ExtractionCache() {
+
+	}
+	/**
+	 * Sets the directory the entries are kept in
+	 * @param cacheDirectory     The directory, which is created when the first entry is written
+	 */
+	public static void setDirectory(File cacheDirectory) {
+		directory = cacheDirectory;
+	}
+	/**
+	 * Returns the directory the entries are kept in
+	 * @return     The cache directory
+	 */
+	public static File getDirectory() {
+		return directory;
+	}
+	/**
+	 * Sets the largest number of bytes used by the entries
+	 * @param bytes     The size limit
+	 */
+	public static void setMaxBytes(long bytes) {
+		maxBytes = bytes;
+	}
+	/**
+	 * Turns the cache on or off. While the cache is off, nothing is read from or written to it.
+	 * @param useCache     True to use the cache
+	 */
+	public static void setEnabled(boolean useCache) {
+		enabled = useCache;
+	}
+	/**
+	 * Returns true if the cache is used
+	 * @return     True if the cache is used
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+	/**
+	 * Reads an entry of a PDF file
+	 * @param <T>        The type of the content of the entry
+	 * @param pdfFile    The PDF file that the entry was written for
+	 * @param kind       The name of the feature that wrote the entry
+	 * @param reader     Reads the content of the entry
+	 * @return           The content of the entry, or null if there is no usable entry
+	 */
+	public static <T> T read(File pdfFile, String kind, EntryReader<T> reader) {
+		try (DataInputStream in = open(pdfFile, kind)) {
+			return in != null ? reader.read(in) : null;
+		}
+		catch (IOException | RuntimeException e) {
+			delete(pdfFile, kind);
+			return null;
+		}
+	}
+	/**
+	 * Opens a compressed entry of a PDF file so that its content can be read a part at a time. If the content turns
+	 * out not to be in the expected format, the stream must be closed and the entry deleted with delete.
+	 * @param pdfFile    The PDF file that the entry was written for
+	 * @param kind       The name of the feature that wrote the entry
+	 * @return           A stream positioned after the header of the entry, which must be closed, or null if there is
+	 *                   no usable entry
+	 */
+	public static DataInputStream open(File pdfFile, String kind) {
+		if (!enabled) {
+			return null;
+		}
+		/**
+		 * The file holding the entry
+		 */
+		File entry;
+		try {
+			entry = entryFile(pdfFile, kind);
+		}
+		catch (IOException e) {
+			return null;
+		}
+		if (!entry.isFile()) {
+			return null;
+		}
+		/**
+		 * The stream the entry is read from
+		 */
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(entry), BUFFER_SIZE)));
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException("Cache entry is from another version");
+			}
+			// The modification time of an entry is the time it was last used, which decides the order of eviction
+			entry.setLastModified(System.currentTimeMillis());
+			return in;
+		}
+		catch (IOException e) {
+			if (in != null) {
+				try {
+					in.close();
+				}
+				catch (IOException closeFailed) {
+					// The entry is deleted whether or not its stream could be closed
+				}
+			}
+			discard(entry);
+			return null;
+		}
+	}
+	/**
+	 * Deletes an entry of a PDF file that could not be read
+	 * @param pdfFile    The PDF file that the entry was written for
+	 * @param kind       The name of the feature that wrote the entry
+	 */
+	public static void delete(File pdfFile, String kind) {
+		try {
+			discard(entryFile(pdfFile, kind));
+		}
+		catch (IOException e) {
+			// An entry whose PDF file can no longer be hashed is never read again
+		}
+	}
+	/**
+	 * Memory maps an uncompressed entry of a PDF file written by writeMapped. Only the pages of the entry that are
+	 * read are loaded, and they are shared with every other reader of the entry.
+	 * @param <T>        The type of the content of the entry
+	 * @param pdfFile    The PDF file that the entry was written for
+	 * @param kind       The name of the feature that wrote the entry
+	 * @param reader     Reads the content of the entry from the mapping
+	 * @return           The content of the entry, or null if there is no usable entry
+	 */
+	public static <T> T map(File pdfFile, String kind, MappedEntryReader<T> reader) {
+		if (!enabled) {
+			return null;
+		}
+		/**
+		 * The file holding the entry
+		 */
+		File entry;
+		try {
+			entry = entryFile(pdfFile, kind);
+		}
+		catch (IOException e) {
+			return null;
+		}
+		if (!entry.isFile()) {
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(entry.toPath(), StandardOpenOption.READ)) {
+			/**
+			 * The mapping of the whole entry, which stays valid after the channel is closed
+			 */
+			ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (data.remaining() < 8 || data.getInt() != MAGIC || data.getInt() != VERSION) {
+				throw new IOException("Cache entry is from another version");
+			}
+			/**
+			 * The content of the entry
+			 */
+			T content = reader.read(data.slice());
+			entry.setLastModified(System.currentTimeMillis());
+			return content;
+		}
+		catch (IOException | RuntimeException e) {
+			discard(entry);
+			return null;
+		}
+	}
+	/**
+	 * Deletes an entry that cannot be used. A file that is still open, such as an entry memory mapped by another
+	 * reader on Windows, cannot be deleted, so such an entry is marked as the least recently used instead and is
+	 * deleted by a later eviction.
+	 * @param entry     The file holding the entry
+	 */
+	private static void discard(File entry) {
+		if (!entry.delete() && entry.exists()) {
+			entry.setLastModified(0);
+		}
+	}
+	/**
+	 * Writes an entry of a PDF file, replacing any existing entry of the same kind. The entry is written to a
+	 * temporary file first and moved into place, so another thread or program never reads a partly written entry.
+	 * The least recently used entries are then deleted if the cache is over its size limit.
+	 * @param pdfFile    The PDF file that the entry is written for
+	 * @param kind       The name of the feature writing the entry
+	 * @param writer     Writes the content of the entry
+	 */
+	public static void write(File pdfFile, String kind, EntryWriter writer) {
+		write(pdfFile, kind, writer, true);
+	}
+	/**
+	 * Writes an uncompressed entry of a PDF file that can be read with map, replacing any existing entry of the same
+	 * kind
+	 * @param pdfFile    The PDF file that the entry is written for
+	 * @param kind       The name of the feature writing the entry
+	 * @param writer     Writes the content of the entry
+	 */
+	public static void writeMapped(File pdfFile, String kind, EntryWriter writer) {
+		write(pdfFile, kind, writer, false);
+	}
+	/**
+	 * Writes an entry of a PDF file to a temporary file, moves it into place and deletes the least recently used
+	 * entries if the cache is over its size limit
+	 * @param pdfFile        The PDF file that the entry is written for
+	 * @param kind           The name of the feature writing the entry
+	 * @param writer         Writes the content of the entry
+	 * @param compressed     True to compress the entry with GZIP
+	 */
+	private static void write(File pdfFile, String kind, EntryWriter writer, boolean compressed) {
+		if (!enabled) {
+			return;
+		}
+		try (PendingEntry entry = new PendingEntry(entryFile(pdfFile, kind), compressed)) {
+			writer.write(entry.getOutput());
+			entry.commit();
+		}
+		catch (IOException | RuntimeException e) {
+			// A result that cannot be cached is simply extracted again next time
+		}
+	}
+	/**
+	 * Starts a compressed entry of a PDF file that is written a part at a time and can be read with open
+	 * @param pdfFile    The PDF file that the entry is written for
+	 * @param kind       The name of the feature writing the entry
+	 * @return           The entry, which must be committed to replace any existing entry and closed in any case, or
+	 *                   null if the cache is not used or the entry cannot be created
+	 */
+	public static PendingEntry create(File pdfFile, String kind) {
+		if (!enabled) {
+			return null;
+		}
+		try {
+			return new PendingEntry(entryFile(pdfFile, kind), true);
+		}
+		catch (IOException | RuntimeException e) {
+			return null;
+		}
+	}
+	/**
+	 * Deletes every entry
+	 */
+	public static void clear() {
+		/**
+		 * The entries in the cache directory
+		 */
+		File[] entries = directory.listFiles();
+		if (entries != null) {
+			for (File entry : entries) {
+				entry.delete();
+			}
+		}
+	}
+	/**
+	 * Deletes the least recently used entries until the entries fit within the size limit
+	 */
+	private static synchronized void evict() {
+		/**
+		 * The entries in the cache directory
+		 */
+		File[] entries = directory.listFiles(file -> file.isFile() && !file.getName().endsWith(".tmp"));
+		if (entries == null) {
+			return;
+		}
+		/**
+		 * The number of bytes used by the entries
+		 */
+		long total = 0;
+		for (File entry : entries) {
+			total += entry.length();
+		}
+		if (total <= maxBytes) {
+			return;
+		}
+		Arrays.sort(entries, Comparator.comparingLong(File::lastModified));
+		for (int i = 0; i < entries.length && total > maxBytes; i++) {
+			/**
+			 * The number of bytes used by the entry
+			 */
+			long length = entries[i].length();
+			// An entry that is still open on Windows cannot be deleted, and keeps using its bytes
+			if (entries[i].delete()) {
+				total -= length;
+			}
+		}
+	}
+	/**
+	 * Returns the file holding an entry of a PDF file
+	 * @param pdfFile          The PDF file
+	 * @param kind             The name of the feature that the entry belongs to
+	 * @return                 The file holding the entry, which may not exist
+	 * @throws IOException     Occurs if the PDF file cannot be read to hash it
+	 */
+	private static File entryFile(File pdfFile, String kind) throws IOException {
+		return new File(directory, hash(pdfFile) + "." + kind + ".v" + VERSION);
+	}
+	/**
+	 * Returns the SHA-256 hash of the content of a file. The hash of a file that has not changed since it was last
+	 * hashed is remembered, so each file is only read once.
+	 * @param file             The file to hash
+	 * @return                 The hash as 64 hexadecimal digits
+	 * @throws IOException     Occurs if the file cannot be read
+	 */
+	public static String hash(File file) throws IOException {
+		/**
+		 * The key of the file in the remembered hashes
+		 */
+		String key = file.getAbsolutePath();
+		/**
+		 * The length of the file, which must match the remembered hash
+		 */
+		long length = file.length();
+		/**
+		 * The modification time of the file, which must match the remembered hash
+		 */
+		long modified = file.lastModified();
+		synchronized (HASHES) {
+			/**
+			 * The remembered hash of the file
+			 */
+			KnownHash known = HASHES.get(key);
+			if (known != null && known.length == length && known.modified == modified) {
+				return known.hash;
+			}
+		}
+		/**
+		 * Computes the hash
+		 */
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IOException("SHA-256 is not available", e);
+		}
+		try (InputStream in = new FileInputStream(file)) {
+			/**
+			 * The bytes read from the file
+			 */
+			byte[] buffer = new byte[BUFFER_SIZE];
+			/**
+			 * The number of bytes read into the buffer
+			 */
+			int read;
+			while ((read = in.read(buffer)) > 0) {
+				digest.update(buffer, 0, read);
+			}
+		}
+		/**
+		 * The hash as hexadecimal digits
+		 */
+		StringBuilder hex = new StringBuilder(64);
+		for (byte b : digest.digest()) {
+			hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		synchronized (HASHES) {
+			HASHES.put(key, new KnownHash(length, modified, hex.toString()));
+		}
+		return hex.toString();
+	}
+	/**
+	 * Writes a string as its length in bytes followed by its UTF-8 bytes, which unlike writeUTF has no limit on the
+	 * length of the string
+	 * @param out              The stream to write to
+	 * @param value            The string to write
+	 * @throws IOException     Occurs if the string cannot be written
+	 */
+	public static void writeString(DataOutputStream out, String value) throws IOException {
+		/**
+		 * The UTF-8 bytes of the string
+		 */
+		byte[] data = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(data.length);
+		out.write(data);
+	}
+	/**
+	 * Reads a string written by writeString
+	 * @param in               The stream to read from
+	 * @return                 The string
+	 * @throws IOException     Occurs if the string cannot be read
+	 */
+	public static String readString(DataInputStream in) throws IOException {
+		/**
+		 * The length of the string in bytes
+		 */
+		int length = in.readInt();
+		if (length < 0) {
+			throw new IOException("Invalid cache entry: string length " + length);
+		}
+		/**
+		 * The UTF-8 bytes of the string
+		 */
+		byte[] data = new byte[length];
+		in.readFully(data);
+		return new String(data, StandardCharsets.UTF_8);
+	}
+}
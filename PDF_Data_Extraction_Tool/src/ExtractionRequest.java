@@ -0,0 +1,125 @@
+import java.io.File;
+import java.time.LocalDate;
+import java.util.ArrayList;
+/**
+ * Everything an extraction job needs to know about what to extract and where to save it: the PDF file, the report
+ * keywords and the save location. A request cannot be changed once created, so a job never sees the user select a
+ * different file part way through and any number of jobs can run at the same time, each with its own request.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class ExtractionRequest {
+	/**
+	 * The PDF file to extract from
+	 */
+	private final File pdfFile;
+	/**
+	 * The non-empty keywords to search for when generating a report, in the order they were entered
+	 */
+	private final String[] keywords;
+	/**
+	 * The directory in which generated files are saved
+	 */
+	private final File saveDirectory;
+	/**
+	 * The date included in the names of generated files, fixed when the request is created so that every file of
+	 * one job has the same name even if the job runs past midnight
+	 */
+	private final LocalDate date;
+	/**
+	 * Creates a request that has no report keywords
+	 * @param pdfFile           The PDF file to extract from
+	 * @param saveDirectory     The directory in which generated files are saved
+	 */
+	public ExtractionRequest(File pdfFile, File saveDirectory) {
+		this(pdfFile, new String[0], saveDirectory);
+	}
+	/**
+	 * Creates a request
+	 * @param pdfFile           The PDF file to extract from
+	 * @param keywords          The keywords to search for when generating a report. Null and empty keywords are
+	 *                          left out.
+	 * @param saveDirectory     The directory in which generated files are saved
+	 */
+	public ExtractionRequest(File pdfFile, String[] keywords, File saveDirectory) {
+		this.pdfFile = pdfFile;
+		this.saveDirectory = saveDirectory;
+		this.date = LocalDate.now();
+		/**
+		 * The keywords that were entered
+		 */
+		ArrayList<String> entered = new ArrayList<String>();
+		for (String keyword : keywords) {
+			if (keyword != null && !keyword.isEmpty()) {
+				entered.add(keyword);
+			}
+		}
+		this.keywords = entered.toArray(new String[entered.size()]);
+	}
+	/**
+	 * Returns the PDF file to extract from
+	 * @return     The PDF file
+	 */
+	public File getPdfFile() {
+		return pdfFile;
+	}
+	/**
+	 * Returns the name of the PDF file, including its extension but not its directory
+	 * @return     The name of the PDF file
+	 */
+	public String getFileName() {
+		return pdfFile.getName();
+	}
+	/**
+	 * Returns the non-empty keywords to search for when generating a report
+	 * @return     A new list of the keywords, in the order they were entered
+	 */
+	public ArrayList<String> getKeywords() {
+		/**
+		 * The keywords, copied so that the request cannot be changed through the list
+		 */
+		ArrayList<String> copy = new ArrayList<String>(keywords.length);
+		for (String keyword : keywords) {
+			copy.add(keyword);
+		}
+		return copy;
+	}
+	/**
+	 * Returns the directory in which generated files are saved
+	 * @return     The save directory
+	 */
+	public File getSaveDirectory() {
+		return saveDirectory;
+	}
+	/**
+	 * Returns the file in which the keyword report is saved. The name is made up of the name of the PDF file
+	 * without its extension, each keyword and the date.
+	 * @return     The report file
+	 */
+	public File getReportFile() {
+		/**
+		 * The name of the report file
+		 */
+		StringBuilder name = new StringBuilder(getFileName().split("\\.")[0]);
+		for (String keyword : keywords) {
+			name.append("-").append(keyword);
+		}
+		name.append(date).append(".pdf");
+		return new File(saveDirectory, name.toString());
+	}
+	/**
+	 * Returns the file in which exported tables are saved
+	 * @return     The CSV file
+	 */
+	public File getTableCsvFile() {
+		return new File(saveDirectory, getFileName() + "-tables-" + date + ".csv");
+	}
+	/**
+	 * Returns the file in which generated metrics are saved
+	 * @return     The CSV file
+	 */
+	public File getMetricsCsvFile() {
+		return new File(saveDirectory, getFileName() + "-metrics-" + date + ".csv");
+	}
+}
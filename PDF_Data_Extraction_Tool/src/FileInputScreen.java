@@ -7,23 +7,23 @@ import org.eclipse.swt.widgets.TabFolder;
 import org.eclipse.swt.widgets.TabItem;
 import org.eclipse.swt.widgets.Table;
 import org.eclipse.swt.widgets.TableColumn;
-import org.eclipse.swt.widgets.TableItem;
 import org.eclipse.swt.widgets.Text;
 
 import org.eclipse.swt.widgets.FileDialog;
 import org.eclipse.swt.widgets.Group;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Combo;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.DirectoryDialog;
+import org.eclipse.swt.events.ModifyEvent;
+import org.eclipse.swt.events.ModifyListener;
 import org.eclipse.swt.events.SelectionEvent;
 import org.eclipse.swt.events.SelectionListener;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 
 /**
@@ -43,16 +43,25 @@ public class FileInputScreen {
 	 * The file name of the file selected in the FileDialog widget, including the file extension but not including 
 	 * the file system path
 	 */
-	public static String fileName = "";
+	private static String fileName = "";
 	/**
 	 * The array of up to six search keywords that can be provided to generate an automated report for each 
 	 * keyword 
 	 */
-	public static String[] words = {"", "", "", "", "", ""};
+	private static String[] words = {"", "", "", "", "", ""};
 	/**
-	 * ArrayList for holding all identified metrics (measure, value, date) generated by the MetricsGenerator class
+	 * Store holding all identified metrics (measure, value, date) generated by the MetricsGenerator class
 	 */
-	private static ArrayList<String> outputMetrics = new ArrayList<String>();
+	private static MetricStore outputMetrics = new MetricStore();
+	/**
+	 * Search index of the metric names in outputMetrics, built alongside it once metrics have been generated
+	 */
+	private static MetricIndex metricIndex = new MetricIndex(outputMetrics);
+	/**
+	 * The time in milliseconds after the last change to the metrics search text box before the search is run, so
+	 * that typing is not slowed down by searching after every keystroke
+	 */
+	private static final int SEARCH_DELAY_MILLIS = 150;
 	/**
 	 * Counter representing the number of times minus one that metrics have been generated in the current session,
 	 * for the purpose of adding a new SelectionListener to the FileSubmitButton in tab2 after the first time that
@@ -248,38 +257,89 @@ public class FileInputScreen {
 		result.setText("Enter up to 6 keywords");
         
         fileSubmitButton.addSelectionListener(new SelectionListener() {
+        	/**
+        	 * The monitor of the report generation job that is running, or null if no job is running
+        	 */
+        	private JobMonitor job = null;
         	/**
         	 * When the generate report button is clicked and at least one keyword has been entered, the
-        	 * generateReport method of the ReportGenerator class is invoked and a PDF file containing the report
-        	 * is created in the same directory as the PDF file for which the report is being created
+        	 * generateReport method of the ReportGenerator class is run as a background job and a PDF file
+        	 * containing the report is created in the save location. While the job runs, the button cancels it.
         	 * @param event     The click of the fileSubmitButton
         	 */
         	public void widgetSelected(SelectionEvent event) {
-		        try {
-					words[0] = keyword1.getText();
-					words[1] = keyword2.getText();
-					words[2] = keyword3.getText();
-					words[3] = keyword4.getText();
-					words[4] = keyword5.getText();
-					words[5] = keyword6.getText();
-					if (words[0].length() == 0 && words[1].length() == 0 && words[2].length() == 0 && words[3].length() == 0 && words[4].length() == 0 && words[5].length() == 0) {
-						result.setForeground(display.getSystemColor(SWT.COLOR_BLACK));
-						result.setText("Please enter at least one keyword");
-					}
-					else if (getSaveLocationPath().length() == 0) {
-						result.setForeground(display.getSystemColor(SWT.COLOR_BLACK));
-						result.setText("Enter a valid location to save report");
-					}
-					else {
-						ReportGenerator.generateReport(new File(filePath + "\\" + fileName));
-						result.setForeground(display.getSystemColor(SWT.COLOR_DARK_GREEN));
-						result.setText("Report successfully generated at: " + getSaveLocationPath());
-					}
-				} catch (IOException e) {
-					result.setForeground(display.getSystemColor(SWT.COLOR_RED));
-					result.setText("Failed to generate report");
+        		if (job != null) {
+        			job.cancel();
+        			return;
+        		}
+				words[0] = keyword1.getText();
+				words[1] = keyword2.getText();
+				words[2] = keyword3.getText();
+				words[3] = keyword4.getText();
+				words[4] = keyword5.getText();
+				words[5] = keyword6.getText();
+				if (words[0].length() == 0 && words[1].length() == 0 && words[2].length() == 0 && words[3].length() == 0 && words[4].length() == 0 && words[5].length() == 0) {
+					result.setForeground(display.getSystemColor(SWT.COLOR_BLACK));
+					result.setText("Please enter at least one keyword");
+				}
+				else if (getSaveLocationPath().length() == 0) {
+					result.setForeground(display.getSystemColor(SWT.COLOR_BLACK));
+					result.setText("Enter a valid location to save report");
+				}
+				else {
+					/**
+					 * The PDF file, keywords and save location of the report, fixed for the duration of the job
+					 */
+					ExtractionRequest request = new ExtractionRequest(new File(filePath + "\\" + fileName), words, new File(getSaveLocationPath()));
+					/**
+					 * Counters describing how the keyword filters answered the search
+					 */
+					SearchStatistics statistics = new SearchStatistics();
+					result.setForeground(display.getSystemColor(SWT.COLOR_BLACK));
+					result.setText("Generating report...");
+					fileSubmitButton.setText("Cancel");
+					job = BackgroundJob.start(display, monitor -> ReportGenerator.generateReport(request, statistics, monitor),
+							(done, total) -> result.setText("Generating report: page " + done + " of " + total), new BackgroundJob.Callback<File>() {
+						/**
+						 * Reports that the report was saved
+						 * @param reportFile     The report file that was saved
+						 */
+						public void succeeded(File reportFile) {
+							/**
+							 * The peak heap usage of the job, read before the monitor is released
+							 */
+							String peak = DocumentLoader.describePeakMemory(job.getPeakMemory());
+							finished();
+							result.setForeground(display.getSystemColor(SWT.COLOR_DARK_GREEN));
+							result.setText("Report successfully generated at: " + reportFile.getParent() + " (" + statistics + ", " + peak + ")");
+						}
+						/**
+						 * Reports that the report could not be generated
+						 * @param e     The reason the job failed
+						 */
+						public void failed(Exception e) {
+							finished();
+							result.setForeground(display.getSystemColor(SWT.COLOR_RED));
+							result.setText("Failed to generate report");
+						}
+						/**
+						 * Reports that the user cancelled the report
+						 */
+						public void cancelled() {
+							finished();
+							result.setForeground(display.getSystemColor(SWT.COLOR_BLACK));
+							result.setText("Report generation was cancelled");
+						}
+					});
 				}
 		    }
+        	/**
+        	 * Allows a new report to be generated once the running job has ended
+        	 */
+        	private void finished() {
+        		job = null;
+        		fileSubmitButton.setText("Generate Report");
+        	}
             /**
              * When a default selection occurs for the generate reports button, nothing happens
              * @param event     Any default selection event, which is platform specific
@@ -463,7 +523,7 @@ public class FileInputScreen {
         /**
          * Table that holds the values of all metrics found in the PDF file, by metric, value and date
          */
-        Table table = new Table(content, SWT.BORDER);
+        Table table = new Table(content, SWT.BORDER | SWT.VIRTUAL);
         table.setHeaderVisible(true);
         gridData = new GridData(SWT.FILL, SWT.FILL, true, false);
         gridData.horizontalSpan = 3;
@@ -487,54 +547,73 @@ public class FileInputScreen {
         	col.setText(colTitles[j]);
         }
         
+        VirtualTable.attach(table);
+        
         fileSubmitButton.addSelectionListener(new SelectionListener() {
+        	/**
+        	 * The monitor of the metrics generation job that is running, or null if no job is running
+        	 */
+        	private JobMonitor job = null;
         	/**
         	 * On the click of the generate metrics button, if a file has been selected the generateMetrics method
-        	 * of the MetricsGenerator class is invoked and an ArrayList of metrics is stored in outputMetrics. For
-        	 * each metric, a TableItem is then created, splitting on a purposefully provided separator to generate
-        	 * three values per TableItem corresponding to the three columns. If this was the first initiation of
-        	 * the metrics generation process in the session, a new selection listener is attached to the file
+        	 * of the MetricsGenerator class is run as a background job that also builds the search index of the
+        	 * metrics and, once it has finished, the store of metrics is stored in outputMetrics. While the job
+        	 * runs, the button cancels it. The metrics are given to the virtual table, which reads the three
+        	 * columns of each metric from the store when its row is shown. If this was the first initiation of the
+        	 * metrics generation process in the session, a new selection listener is attached to the file
         	 * upload button in order to remove any existing data in the table or outputMetrics in preparation
         	 * for another metrics generation process for another PDF file
         	 * @param event     The click of the button
         	 */
         	public void widgetSelected(SelectionEvent event) {
-		        try {
-					if (fileName.length() == 0) {
-						result.setForeground(display.getSystemColor(SWT.COLOR_BLACK));
-						result.setText("You must choose a file before generating values");
-					}
-					else {
-						try {
-							outputMetrics = MetricsGenerator.generateMetrics(new File(filePath + "\\" + fileName));
-							if (outputMetrics.size() == 1 && (outputMetrics.get(0).contains("-----") == false)) {
+        		if (job != null) {
+        			job.cancel();
+        			return;
+        		}
+				if (fileName.length() == 0) {
+					result.setForeground(display.getSystemColor(SWT.COLOR_BLACK));
+					result.setText("You must choose a file before generating values");
+				}
+				else {
+					/**
+					 * Counters describing how the sentences of the PDF file were handled
+					 */
+					MetricsStatistics statistics = new MetricsStatistics();
+					/**
+					 * The PDF file for which to generate metrics
+					 */
+					File pdfFile = new File(filePath + "\\" + fileName);
+					result.setForeground(display.getSystemColor(SWT.COLOR_BLACK));
+					result.setText("Generating values...");
+					fileSubmitButton.setText("Cancel");
+					job = BackgroundJob.start(display, monitor -> new MetricIndex(MetricsGenerator.generateMetrics(pdfFile, statistics, monitor)),
+							(done, total) -> result.setText("Generating values: page " + done + " of " + total), new BackgroundJob.Callback<MetricIndex>() {
+						/**
+						 * Stores the metrics that were found and their search index and shows them in the table
+						 * @param index     The search index of the metric/value/date results
+						 */
+						public void succeeded(MetricIndex index) {
+							/**
+							 * The peak heap usage of the job, read before the monitor is released
+							 */
+							String peak = DocumentLoader.describePeakMemory(job.getPeakMemory());
+							finished();
+							outputMetrics = index.getStore();
+							metricIndex = index;
+							if (outputMetrics.size() == 1 && !outputMetrics.hasValue(0)) {
 								result.setForeground(display.getSystemColor(SWT.COLOR_RED));
-							    result.setText(outputMetrics.get(0));
+							    result.setText(outputMetrics.getName(0));
 							}
 							else {
 							    result.setForeground(display.getSystemColor(SWT.COLOR_DARK_GREEN));
-							    result.setText("Values successfully generated");
-							
-							    for (int i = 0; i < outputMetrics.size(); i++) {
-					        	    /**
-					        	     * A TableItem corresponding to a row in the table for each metric
-					        	     */
-								    TableItem tItem = new TableItem(table, SWT.NULL);
-								    /**
-								     * A row of outputMetrics split into an array whose elements correspond to the
-								     * metric/value/date columns
-								     */
-					        	    String[] metricsRowData = outputMetrics.get(i).split(" ----- ");
-					        	    tItem.setText("Item" + i);
-					        	
-					        	    for (int k = 0; k < metricsRowData.length; k++) {
-					        		    tItem.setText(k, metricsRowData[k]);
-					        	    }
-					            }
+							    result.setText("Values successfully generated (" + statistics + ", " + peak + ")");
 							
-							    for (int l = 0; l < colTitles.length; l++) {
-								    table.getColumn(l).pack();
-							    }
+							    /**
+							     * The metrics shown in the table, each read from the columns of the store only when its
+							     * row scrolls into view
+							     */
+							    final MetricStore shownMetrics = outputMetrics;
+							    VirtualTable.setRows(table, shownMetrics.size(), shownMetrics::getRow);
 							
 							    if (genValueCount == 0) {
 								    fileUploadButton.removeSelectionListener(chooseFileListener1);
@@ -554,7 +633,8 @@ public class FileInputScreen {
 		                                    dlg.setFilterExtensions(new String[]{"*.pdf"});
 		                                    if (dlg.open() != null) {
 		                                	    table.removeAll();
-		                                	    outputMetrics.clear();
+		                                	    outputMetrics = new MetricStore();
+		                                	    metricIndex = new MetricIndex(outputMetrics);
 		    							        result.setText("");
 		    							        fileName = dlg.getFileName();
 		    							        filePath = dlg.getFilterPath();
@@ -573,17 +653,39 @@ public class FileInputScreen {
 								    genValueCount++;
 							    }
 							}
-						    }
-						catch (InterruptedException ie) {
+						}
+						/**
+						 * Reports that the metrics could not be generated
+						 * @param e     The reason the job failed
+						 */
+						public void failed(Exception e) {
+							finished();
 							result.setForeground(display.getSystemColor(SWT.COLOR_RED));
-							result.setText("Metrics generation process was interrupted");
+							if (e instanceof InterruptedException) {
+								result.setText("Metrics generation process was interrupted");
+							}
+							else {
+								result.setText("Failed to generate metrics");
+							}
 						}
-					}
-				} catch (IOException e) {
-					result.setForeground(display.getSystemColor(SWT.COLOR_RED));
-					result.setText("Failed to generate metrics");
+						/**
+						 * Reports that the user cancelled metrics generation
+						 */
+						public void cancelled() {
+							finished();
+							result.setForeground(display.getSystemColor(SWT.COLOR_BLACK));
+							result.setText("Metrics generation was cancelled");
+						}
+					});
 				}
 		    }
+        	/**
+        	 * Allows metrics to be generated again once the running job has ended
+        	 */
+        	private void finished() {
+        		job = null;
+        		fileSubmitButton.setText("Generate Values");
+        	}
             /**
              * On a default selection of the generate metrics button, nothing happens
              * @param event    Any default selection event, which is platform specific
@@ -593,15 +695,20 @@ public class FileInputScreen {
 		    }
         });
         
-        searchButton.addSelectionListener(new SelectionListener() {
+        /**
+         * Fills the table with only the metrics containing the value of the search string in their metric column,
+         * found with the search index of the metrics. Each search that extends the previous one, as typing does,
+         * only narrows the results of the previous search. If the search bar is empty and metrics have already
+         * been generated previously, all metrics are displayed in the table.
+         */
+        Runnable search = new Runnable() {
         	/**
-        	 * On click of the search button, if the search string length is greater than zero, existing table
-        	 * items are removed and new table items containing the value of the search string in their metric
-        	 * column are generated. If the search bar is empty and metrics have already been generated previously,
-        	 * all metrics are displayed in the table on click of the button.
-        	 * @param event     Click of the button
+        	 * Runs the search for the text entered in the search text box
         	 */
-        	public void widgetSelected(SelectionEvent event) {
+        	public void run() {
+        		if (table.isDisposed()) {
+        			return;
+        		}
         		/**
         		 * The value of the text entered in the search text box
         		 */
@@ -609,61 +716,62 @@ public class FileInputScreen {
         		if (searchTextVal.length() > 0) {
         			table.removeAll();
         			
-        			if (outputMetrics.size() == 1 && (outputMetrics.get(0).contains("-----") == false)) {
+        			if (outputMetrics.size() == 1 && !outputMetrics.hasValue(0)) {
         				
         			}
         			else {
-        			    for (int m = 0; m < outputMetrics.size(); m++) {
-        				    /**
-        				     * The metric row split into an array whose values correspond to a column of the table from
-        				     * left to right
-        				     */
-        				    String[] metricsRowData2 = outputMetrics.get(m).split(" ----- ");
-        				    if (metricsRowData2.length > 0 && metricsRowData2[0].contains(searchTextVal)) {
-        					    /**
-        					     * A TableItem corresponding to a row in the table for each metric that contains the 
-        					     * provided search string
-        					     */
-        					    TableItem tItem2 = new TableItem(table, SWT.NULL);
-        					    for (int n = 0; n < metricsRowData2.length; n++) {
-        						    tItem2.setText(n, metricsRowData2[n]);
-        					    }
-        				    }
-        			    }
-        			
-        			    for (int o = 0; o < colTitles.length; o++) {
-        				    table.getColumn(o).pack();
-        			    }
+        			    /**
+        			     * The metrics shown in the table
+        			     */
+        			    final MetricStore shownMetrics = outputMetrics;
+        			    /**
+        			     * The positions of the metrics whose metric column contains the provided search string
+        			     */
+        			    int[] matches = metricIndex.search(searchTextVal);
+        			    VirtualTable.setRows(table, matches.length, m -> shownMetrics.getRow(matches[m]));
         			}
         		}
         		else if (searchTextVal.length() == 0 && outputMetrics.size() > 0) {
-        			if (outputMetrics.size() == 1 && (outputMetrics.get(0).contains("-----") == false)) {
+        			if (outputMetrics.size() == 1 && !outputMetrics.hasValue(0)) {
         				
         			}
         			else {
-        			    for (int p = 0; p < outputMetrics.size(); p++) {
-        				    /**
-        				     * A TableItem for a row in the table for each metric
-        				     */
-			        	    TableItem tItem = new TableItem(table, SWT.NULL);
-			        	    /**
-			        	     * The values of each metric row split into an array containing the values that correspond
-			        	     * to each column of the table
-			        	     */
-			        	    String[] metricsRowData = outputMetrics.get(p).split(" ----- ");
-			        	    tItem.setText("Item" + p);
-			        	
-			        	    for (int q = 0; q < metricsRowData.length; q++) {
-			        		    tItem.setText(q, metricsRowData[q]);
-			        	    }
-			            }
-					
-					    for (int r = 0; r < colTitles.length; r++) {
-						    table.getColumn(r).pack();
-					    }
+        			    /**
+        			     * The metrics shown in the table
+        			     */
+        			    final MetricStore shownMetrics = outputMetrics;
+        			    /**
+        			     * The positions of every metric, which also clears the previous search of the index
+        			     */
+        			    int[] all = metricIndex.search("");
+        			    VirtualTable.setRows(table, all.length, p -> shownMetrics.getRow(all[p]));
         		    }
         		}
         	}
+        };
+        
+        searchText.addModifyListener(new ModifyListener() {
+        	/**
+        	 * On each change to the search string, the search is run once the search string has not changed for
+        	 * SEARCH_DELAY_MILLIS, replacing any search waiting to run
+        	 * @param event     The change to the text
+        	 */
+        	public void modifyText(ModifyEvent event) {
+        		display.timerExec(-1, search);
+        		display.timerExec(SEARCH_DELAY_MILLIS, search);
+        	}
+        });
+        
+        searchButton.addSelectionListener(new SelectionListener() {
+        	/**
+        	 * On click of the search button, any search waiting to run is cancelled and the search is run straight
+        	 * away
+        	 * @param event     Click of the button
+        	 */
+        	public void widgetSelected(SelectionEvent event) {
+        		display.timerExec(-1, search);
+        		search.run();
+        	}
         	/**
         	 * On a default selection of the search button, nothing happens
         	 * @param event    Any default selection event, which is platform specific 
@@ -787,6 +895,50 @@ public class FileInputScreen {
         		
         	}
         });
+        /**
+         * Labels the choices of how tables are found
+         */
+        Label detectionLabel = new Label(content, SWT.NONE);
+        detectionLabel.setText("Table detection: ");
+        detectionLabel.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+        /**
+         * The detector modes offered by param modeCombo, in the order of its items
+         */
+        final TableDetector.Mode[] modes = {TableDetector.Mode.AUTO, TableDetector.Mode.LATTICE, TableDetector.Mode.STREAM};
+        /**
+         * Selects how the TableDetector recognises tables
+         */
+        final Combo modeCombo = new Combo(content, SWT.READ_ONLY);
+        modeCombo.setItems("Ruled and aligned tables", "Ruled tables only", "Aligned text only");
+        modeCombo.select(0);
+        modeCombo.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+        /**
+         * The tabula settings offered by param tabulaCombo, in the order of its items
+         */
+        final PdfTable.TabulaUse[] tabulaUses = {PdfTable.TabulaUse.FALLBACK, PdfTable.TabulaUse.NEVER, PdfTable.TabulaUse.ALWAYS};
+        /**
+         * Selects when the tabula Python file is used to find tables
+         */
+        final Combo tabulaCombo = new Combo(content, SWT.READ_ONLY);
+        tabulaCombo.setItems("Tabula if no table is found", "Never use tabula", "Tabula only");
+        tabulaCombo.select(0);
+        tabulaCombo.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+        tabulaCombo.addSelectionListener(new SelectionListener() {
+        	/**
+        	 * Disables the detector modes when tabula alone finds the tables
+        	 * @param event     The selection of an item
+        	 */
+        	public void widgetSelected(SelectionEvent event) {
+        		modeCombo.setEnabled(tabulaUses[tabulaCombo.getSelectionIndex()] != PdfTable.TabulaUse.ALWAYS);
+        	}
+        	/**
+        	 * Upon default selection of the combo, there is no change to the state of the system
+        	 * @param event     Any default selection, which is platform specific
+        	 */
+        	public void widgetDefaultSelected(SelectionEvent event) {
+        		
+        	}
+        });
 		/**
 		 * Label that holds a sentence detailing the result of the table generation process
 		 */
@@ -813,103 +965,128 @@ public class FileInputScreen {
         listAndTable.setLayoutData(gridData);
         
         fileSubmitButton.addSelectionListener(new SelectionListener() {
+        	/**
+        	 * The monitor of the table generation job that is running, or null if no job is running
+        	 */
+        	private JobMonitor job = null;
         	/**
         	 * On click of the generate tables button, any existing widgets in the listAndTable composite are first
-        	 * disposed. A new process is initiated that executes a Python file and the standard output of the
-        	 * execution is read into an ArrayList. The conjureTables method of the PdfTable class is invoked,
-        	 * which generates a list of lists of individual tables from this ArrayList. A new PdfTable object is
-        	 * created for each individual table and the generateList method of the PdfTable class is invoked which
-        	 * takes the list of PdfTable objects and creates a list, export button and set of tables.
+        	 * disposed. The tables of the PDF file are found in a background job by a TableDetector, the tabula Python
+        	 * file or both, as chosen in the table detection combos, and a PdfTable object is created for each table.
+        	 * The generateList method of the PdfTable class is invoked which takes the list of PdfTable objects and
+        	 * creates a list, export button and set of tables. While the job runs, the button cancels it.
         	 * @param event     The click of the button
         	 */
         	public void widgetSelected(SelectionEvent event) {
-        		try {
-        			/**
-        			 * A control that is a child of the listAndTable composite
-        			 */
-        			for (Control control : listAndTable.getChildren()) {
-        				control.dispose();
-        			}
-        			/**
-        			 * A composite that will hold the list of tables and an export button and result/instructions
-        			 * label
-        			 */
-        			final Composite listContent = new Composite(listAndTable, SWT.NONE);
-        	        /**
-        	         * A grid layout for the listContent composite that is divided into five columns
-        	         */
-        			GridLayout gridLayout = new GridLayout(5, true);
-        	        listContent.setLayout(gridLayout);
-        	        /**
-        	         * A GridData object for the listContent composite that allows the composite to fill extra
-        	         * horizontal space and defines the span of the composite to take up only one of the five 
-        	         * columns in the listAndTable composite's grid layout
-        	         */
-        	        GridData gridData = new GridData(SWT.FILL, SWT.BEGINNING, true, false);
-        	        gridData.horizontalSpan = 1;
-        	        listContent.setLayoutData(gridData);
-        			/**
-        			 * A ProcessBuilder object for executing a Python file that contains table extraction
-        			 * functionality
-        			 */
-        			ProcessBuilder pb = new ProcessBuilder("python", "res/tabula_real.py", filePath + "/" + fileName);
-        			pb.redirectErrorStream(true);
-        			/**
-        			 * ArrayList for storing lines from standard output of execution of Python file
-        			 */
-        			ArrayList<String> result = new ArrayList<String>();
-        			/**
-        			 * Process object that handles the execution of the Python file
-        			 */
-        			Process process = pb.start();
-        			/**
-        			 * Reads data from the input stream provided by the Process object from the standard output
-        			 */
-        			BufferedReader bfr = new BufferedReader(new InputStreamReader(process.getInputStream()));
-        			/**
-        			 * One line of the standard output of the execution of the Python file
-        			 */
-        			String line = bfr.readLine();
-        			while (line != null) {
-        				result.add(line);
-        				line = bfr.readLine();
-        			}
-        			try {
-						process.waitFor();
+        		if (job != null) {
+        			job.cancel();
+        			return;
+        		}
+        		/**
+        		 * A control that is a child of the listAndTable composite
+        		 */
+        		for (Control control : listAndTable.getChildren()) {
+        			control.dispose();
+        		}
+        		/**
+        		 * A composite that will hold the list of tables and an export button and result/instructions
+        		 * label
+        		 */
+        		final Composite listContent = new Composite(listAndTable, SWT.NONE);
+                /**
+                 * A grid layout for the listContent composite that is divided into five columns
+                 */
+        		GridLayout gridLayout = new GridLayout(5, true);
+                listContent.setLayout(gridLayout);
+                /**
+                 * A GridData object for the listContent composite that allows the composite to fill extra
+                 * horizontal space and defines the span of the composite to take up only one of the five 
+                 * columns in the listAndTable composite's grid layout
+                 */
+                GridData gridData = new GridData(SWT.FILL, SWT.BEGINNING, true, false);
+                gridData.horizontalSpan = 1;
+                listContent.setLayoutData(gridData);
+        		/**
+        		 * The PDF file for which to find tables and the save location of exported tables, fixed for the
+        		 * duration of the job and of the list it creates
+        		 */
+        		ExtractionRequest request = new ExtractionRequest(new File(filePath + "/" + fileName), new File(getSaveLocationPath()));
+        		/**
+        		 * The PDF file for which to find tables
+        		 */
+        		File pdfFile = request.getPdfFile();
+        		/**
+        		 * How the TableDetector recognises tables, read before the job starts as widgets belong to the UI
+        		 * thread
+        		 */
+        		TableDetector.Mode mode = modes[modeCombo.getSelectionIndex()];
+        		/**
+        		 * When the tabula Python file is used to find tables
+        		 */
+        		PdfTable.TabulaUse tabula = tabulaUses[tabulaCombo.getSelectionIndex()];
+        		resultLabel.setForeground(display.getSystemColor(SWT.COLOR_BLACK));
+        		resultLabel.setText("Generating tables...");
+        		fileSubmitButton.setText("Cancel");
+        		job = BackgroundJob.start(display, monitor -> PdfTable.findTables(pdfFile, mode, tabula, monitor), (done, total) -> resultLabel.setText("Generating tables: page " + done + " of " + total), new BackgroundJob.Callback<ArrayList<PdfTable>>() {
+					/**
+					 * Shows the list of tables that were found
+					 * @param uiTables     A list of PdfTable objects for each table
+					 */
+					public void succeeded(ArrayList<PdfTable> uiTables) {
 						/**
-						 * Holds a list of tables and a list of rows in each table
+						 * The peak heap usage of the job, read before the monitor is released
 						 */
-						ArrayList<ArrayList<String>> individualTables = PdfTable.conjureTables(result);
+						String peak = DocumentLoader.describePeakMemory(job.getPeakMemory());
 						/**
-						 * Holds a list of PdfTable objects for each table
+						 * True if the tables were read from the cache of an earlier run
 						 */
-						ArrayList<PdfTable> uiTables = new ArrayList<PdfTable>();
-						
-						for (int i = 0; i < individualTables.size(); i++) {
-							uiTables.add(new PdfTable(individualTables.get(i)));
-						}
-						
+						boolean cached = job.isFromCache();
+						finished();
 						// TEST TABLE
 						if (uiTables.size() > 0) {
-							PdfTable.generateList(shell, listContent, listAndTable, uiTables);
+							PdfTable.generateList(shell, listContent, listAndTable, uiTables, request);
 							resultLabel.setForeground(display.getSystemColor(SWT.COLOR_DARK_GREEN));
-							resultLabel.setText("Tables successfully generated. To view a table, click on an item in the list.");
+							resultLabel.setText("Tables successfully generated (" + (cached ? "from cache, " : "") + peak + "). To view a table, click on an item in the list.");
 							shell.layout();
 						}
 						else {
 							resultLabel.setForeground(display.getSystemColor(SWT.COLOR_BLACK));
 							resultLabel.setText("No tables were found");
 						}
-					} catch (InterruptedException e) {
+					}
+					/**
+					 * Reports that the tables could not be generated
+					 * @param e     The reason the job failed
+					 */
+					public void failed(Exception e) {
+						finished();
 						resultLabel.setForeground(display.getSystemColor(SWT.COLOR_RED));
-						resultLabel.setText("Table generation process was interrupted");
-						System.out.println("Table generation process was interrupted");
+						if (e instanceof InterruptedException) {
+							resultLabel.setText("Table generation process was interrupted");
+							System.out.println("Table generation process was interrupted");
+						}
+						else {
+							resultLabel.setText("Failed to generate tables");
+							System.out.println("Failed to load file");
+						}
 					}
-        		}
-        		catch (IOException ioe) {
-        			System.out.println("Failed to load file");
-        		}
+					/**
+					 * Reports that the user cancelled table generation
+					 */
+					public void cancelled() {
+						finished();
+						resultLabel.setForeground(display.getSystemColor(SWT.COLOR_BLACK));
+						resultLabel.setText("Table generation was cancelled");
+					}
+				});
 		    }
+        	/**
+        	 * Allows tables to be generated again once the running job has ended
+        	 */
+        	private void finished() {
+        		job = null;
+        		fileSubmitButton.setText("Generate Tables");
+        	}
             /**
              * Upon default selection of the generate tables button, there is no change to the state of the system
              * @param event     Any default selection event, which is platform specific
@@ -0,0 +1,48 @@
+import java.util.Arrays;
+/**
+ * A growable list of ints, which unlike a list of Integer objects uses four bytes for each value
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class IntList {
+	/**
+	 * The values in the list
+	 */
+	private int[] values = new int[1024];
+	/**
+	 * The number of values in the list
+	 */
+	private int size = 0;
+	/**
+	 * Adds a value to the end of the list
+	 * @param value     The value
+	 */
+	public void add(int value) {
+		if (size == values.length) {
+			values = Arrays.copyOf(values, size * 2);
+		}
+		values[size++] = value;
+	}
+	/**
+	 * Returns a value in the list
+	 * @param index     The index of the value
+	 * @return          The value
+	 */
+	public int get(int index) {
+		return values[index];
+	}
+	/**
+	 * Returns the number of values in the list
+	 * @return     The number of values
+	 */
+	public int size() {
+		return size;
+	}
+	/**
+	 * Removes every value from the list
+	 */
+	public void clear() {
+		size = 0;
+	}
+}
@@ -0,0 +1,210 @@
+import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+/**
+ * Tracks the progress of one extraction job and lets it be cancelled from another thread. Engines report each page
+ * they finish and check for cancellation between pages. Anything that blocks outside of Java, such as an NER worker
+ * or the tabula process, registers a hook that kills it when the job is cancelled.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class JobMonitor {
+	/**
+	 * Receives the progress of a job
+	 */
+	public interface ProgressListener {
+		/**
+		 * Called whenever a unit of work, usually a page, is finished. May be called from any thread.
+		 * @param done      The number of units finished
+		 * @param total     The total number of units, or 0 if it is not known yet
+		 */
+		void progress(int done, int total);
+	}
+	/**
+	 * Receives the progress of the job, or null if nothing is listening
+	 */
+	private final ProgressListener listener;
+	/**
+	 * The number of units finished
+	 */
+	private final AtomicInteger done = new AtomicInteger();
+	/**
+	 * The total number of units, or 0 if it is not known yet
+	 */
+	private volatile int total = 0;
+	/**
+	 * True once the job has been cancelled
+	 */
+	private volatile boolean cancelled = false;
+	/**
+	 * The thread running the job, which is interrupted when the job is cancelled
+	 */
+	private Thread thread;
+	/**
+	 * The peak heap usage of the whole program measured over the job, or 0 if it has not been measured
+	 */
+	private volatile long peakMemory = 0;
+	/**
+	 * True if the result of the job was read from the ExtractionCache instead of being extracted
+	 */
+	private volatile boolean fromCache = false;
+	/**
+	 * Hooks run when the job is cancelled
+	 */
+	private final ArrayList<Runnable> cancelHooks = new ArrayList<Runnable>();
+	/**
+	 * Creates a monitor that nothing listens to, for jobs run without a user interface
+	 */
+	public JobMonitor() {
+		this(null);
+	}
+	/**
+	 * Creates a monitor that reports progress to a listener
+	 * @param listener     Receives the progress of the job, or null
+	 */
+	public JobMonitor(ProgressListener listener) {
+		this.listener = listener;
+	}
+	/**
+	 * Sets the total number of units of the job
+	 * @param total     The total number of units
+	 */
+	public void setTotal(int total) {
+		this.total = total;
+		if (listener != null) {
+			listener.progress(done.get(), total);
+		}
+	}
+	/**
+	 * Records that units of the job have been finished
+	 * @param amount     The number of units finished
+	 */
+	public void worked(int amount) {
+		/**
+		 * The number of units finished so far
+		 */
+		int finished = done.addAndGet(amount);
+		if (listener != null) {
+			listener.progress(finished, total);
+		}
+	}
+	/**
+	 * Returns the number of units finished
+	 * @return     The number of units finished
+	 */
+	public int getDone() {
+		return done.get();
+	}
+	/**
+	 * Returns the total number of units
+	 * @return     The total number of units, or 0 if it is not known yet
+	 */
+	public int getTotal() {
+		return total;
+	}
+	/**
+	 * Records that the result of the job was read from the ExtractionCache, finishing every unit of the job at once
+	 * @param total     The total number of units, such as the number of pages of the PDF file
+	 */
+	public void finishedFromCache(int total) {
+		fromCache = true;
+		setTotal(total);
+		worked(total - done.get());
+	}
+	/**
+	 * Returns true if the result of the job was read from the ExtractionCache
+	 * @return     True if the result came from the cache
+	 */
+	public boolean isFromCache() {
+		return fromCache;
+	}
+	/**
+	 * Returns true if the job has been cancelled
+	 * @return     True if the job has been cancelled
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+	/**
+	 * Stops the job if it has been cancelled
+	 * @throws CancellationException     Occurs if the job has been cancelled
+	 */
+	public void checkCancelled() {
+		if (cancelled) {
+			throw new CancellationException("Job was cancelled");
+		}
+	}
+	/**
+	 * Registers a hook that is run when the job is cancelled. The hook is run straight away if the job has already
+	 * been cancelled.
+	 * @param hook     The hook, which must be safe to run from any thread
+	 */
+	public void onCancel(Runnable hook) {
+		synchronized (cancelHooks) {
+			if (!cancelled) {
+				cancelHooks.add(hook);
+				return;
+			}
+		}
+		hook.run();
+	}
+	/**
+	 * Removes a hook once the resource it stops has finished
+	 * @param hook     A hook registered with onCancel
+	 */
+	public void removeCancelHook(Runnable hook) {
+		synchronized (cancelHooks) {
+			cancelHooks.remove(hook);
+		}
+	}
+	/**
+	 * Cancels the job by running every cancel hook and interrupting the thread running the job. May be called from
+	 * any thread, including the user interface thread.
+	 */
+	public void cancel() {
+		/**
+		 * The hooks to run
+		 */
+		ArrayList<Runnable> hooks;
+		synchronized (cancelHooks) {
+			if (cancelled) {
+				return;
+			}
+			cancelled = true;
+			hooks = new ArrayList<Runnable>(cancelHooks);
+			cancelHooks.clear();
+		}
+		for (Runnable hook : hooks) {
+			hook.run();
+		}
+		synchronized (this) {
+			if (thread != null) {
+				thread.interrupt();
+			}
+		}
+	}
+	/**
+	 * Records the peak heap usage of the whole program measured over the job, which includes jobs that ran at the
+	 * same time
+	 * @param bytes     The peak heap usage in bytes
+	 */
+	public void setPeakMemory(long bytes) {
+		peakMemory = bytes;
+	}
+	/**
+	 * Returns the peak heap usage measured over the job
+	 * @return     The peak heap usage in bytes, or 0 if it has not been measured
+	 */
+	public long getPeakMemory() {
+		return peakMemory;
+	}
+	/**
+	 * Sets the thread running the job, or null once the job has finished. Synchronised with cancel so that a thread
+	 * is never interrupted after it has finished the job.
+	 * @param thread     The thread running the job
+	 */
+	synchronized void setThread(Thread thread) {
+		this.thread = thread;
+	}
+}
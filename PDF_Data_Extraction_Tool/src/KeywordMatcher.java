@@ -0,0 +1,184 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+/**
+ * Matches a large list of keywords against sentences. Every distinct word of every keyword is compiled into one
+ * AhoCorasickAutomaton, so each sentence is scanned once and a keyword is reported when all of its words occur in
+ * the sentence. A matcher keeps scratch state between calls and must only be used by one thread at a time.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class KeywordMatcher {
+	/**
+	 * The number of keywords the matcher was compiled from
+	 */
+	private final int numKeywords;
+	/**
+	 * True if a word only matches when it is not part of a longer run of letters and digits
+	 */
+	private final boolean wholeWord;
+	/**
+	 * The automaton that finds every distinct keyword word
+	 */
+	private final AhoCorasickAutomaton automaton;
+	/**
+	 * The keywords that contain each distinct word
+	 */
+	private final int[][] wordKeywords;
+	/**
+	 * The number of distinct words in each keyword
+	 */
+	private final int[] wordsNeeded;
+	/**
+	 * Keywords that have no words, which match every sentence
+	 */
+	private final int[] emptyKeywords;
+	/**
+	 * The serial number of the sentence in which each word was last found
+	 */
+	private final int[] wordStamp;
+	/**
+	 * The serial number of the sentence in which each keyword last had a word found
+	 */
+	private final int[] keywordStamp;
+	/**
+	 * The number of distinct words of each keyword found in the current sentence
+	 */
+	private final int[] keywordHits;
+	/**
+	 * The serial number of the sentence being matched, used to reset the scratch arrays without clearing them
+	 */
+	private int serial = 0;
+	/**
+	 * Creates a case sensitive matcher that finds keyword words anywhere in a sentence, including inside longer
+	 * words, which is how the report feature has always matched keywords
+	 * @param keywords     The keywords, each of which may contain several words separated by spaces
+	 */
+	public KeywordMatcher(List<String> keywords) {
+		this(keywords, false, false);
+	}
+	/**
+	 * Creates a matcher for a list of keywords
+	 * @param keywords            The keywords, each of which may contain several words separated by spaces
+	 * @param caseInsensitive     True if words should match regardless of case
+	 * @param wholeWord           True if words should only match whole words in the sentence
+	 */
+	public KeywordMatcher(List<String> keywords, boolean caseInsensitive, boolean wholeWord) {
+		this.wholeWord = wholeWord;
+		numKeywords = keywords.size();
+		/**
+		 * The index of each distinct word, after case folding
+		 */
+		Map<String, Integer> wordIds = new HashMap<String, Integer>();
+		/**
+		 * The distinct words in the order they were first seen
+		 */
+		List<String> words = new ArrayList<String>();
+		/**
+		 * The keywords that contain each distinct word while the matcher is being built
+		 */
+		List<List<Integer>> keywordsForWord = new ArrayList<List<Integer>>();
+		/**
+		 * Keywords that have no words
+		 */
+		List<Integer> empty = new ArrayList<Integer>();
+		wordsNeeded = new int[numKeywords];
+		for (int i = 0; i < numKeywords; i++) {
+			/**
+			 * The distinct words of the keyword. Empty words are left out as they occur in every sentence.
+			 */
+			LinkedHashSet<String> keywordWords = new LinkedHashSet<String>();
+			for (String word : keywords.get(i).split(" ")) {
+				if (word.length() > 0) {
+					keywordWords.add(caseInsensitive ? word.toLowerCase(Locale.ROOT) : word);
+				}
+			}
+			wordsNeeded[i] = keywordWords.size();
+			if (keywordWords.isEmpty()) {
+				empty.add(i);
+			}
+			for (String word : keywordWords) {
+				/**
+				 * The index of the word
+				 */
+				Integer id = wordIds.get(word);
+				if (id == null) {
+					id = words.size();
+					wordIds.put(word, id);
+					words.add(word);
+					keywordsForWord.add(new ArrayList<Integer>());
+				}
+				keywordsForWord.get(id).add(i);
+			}
+		}
+		automaton = new AhoCorasickAutomaton(words, caseInsensitive);
+		wordKeywords = new int[words.size()][];
+		for (int w = 0; w < words.size(); w++) {
+			wordKeywords[w] = keywordsForWord.get(w).stream().mapToInt(Integer::intValue).toArray();
+		}
+		emptyKeywords = empty.stream().mapToInt(Integer::intValue).toArray();
+		wordStamp = new int[words.size()];
+		keywordStamp = new int[numKeywords];
+		keywordHits = new int[numKeywords];
+	}
+	/**
+	 * Returns the number of keywords the matcher was compiled from
+	 * @return     The number of keywords
+	 */
+	public int getKeywordCount() {
+		return numKeywords;
+	}
+	/**
+	 * Finds every keyword whose words all occur in a sentence
+	 * @param sentence     The sentence to scan
+	 * @param matched      An array of at least getKeywordCount() elements that receives the index of each matched
+	 *                     keyword
+	 * @return             The number of keywords written to param matched
+	 */
+	public int match(CharSequence sentence, int[] matched) {
+		if (++serial == 0) {
+			Arrays.fill(wordStamp, 0);
+			Arrays.fill(keywordStamp, 0);
+			serial = 1;
+		}
+		/**
+		 * The number of matched keywords written so far, kept in an array so the match handler can update it
+		 */
+		int[] count = {0};
+		for (int k : emptyKeywords) {
+			matched[count[0]++] = k;
+		}
+		automaton.scan(sentence, (word, start, end) -> {
+			if (wordStamp[word] == serial || (wholeWord && !isWholeWord(sentence, start, end))) {
+				return;
+			}
+			wordStamp[word] = serial;
+			for (int k : wordKeywords[word]) {
+				if (keywordStamp[k] != serial) {
+					keywordStamp[k] = serial;
+					keywordHits[k] = 0;
+				}
+				if (++keywordHits[k] == wordsNeeded[k]) {
+					matched[count[0]++] = k;
+				}
+			}
+		});
+		return count[0];
+	}
+	/**
+	 * Returns true if an occurrence of a word is not directly preceded or followed by a letter or digit
+	 * @param sentence     The sentence containing the occurrence
+	 * @param start        The index where the occurrence starts
+	 * @param end          The index after the last character of the occurrence
+	 * @return             True if the occurrence is a whole word
+	 */
+	private static boolean isWholeWord(CharSequence sentence, int start, int end) {
+		return (start == 0 || !Character.isLetterOrDigit(sentence.charAt(start - 1)))
+				&& (end == sentence.length() || !Character.isLetterOrDigit(sentence.charAt(end)));
+	}
+}
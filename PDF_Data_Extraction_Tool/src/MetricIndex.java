@@ -0,0 +1,244 @@
+import java.util.Arrays;
+import java.util.HashMap;
+/**
+ * A search index of the metric names of a MetricStore for searching as the user types. Every sequence of three
+ * characters of each distinct name is indexed once when the index is built, so a search only checks the names that
+ * hold every sequence of the search string instead of every result. A search that extends the previous one, as each
+ * keystroke does, narrows the names and results of the previous search instead of searching again. Names are
+ * matched with their case, the same as String.contains. An index keeps the previous search between calls and must
+ * only be used by one thread at a time.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class MetricIndex {
+	/**
+	 * The length of the sequences of characters that are indexed
+	 */
+	private static final int GRAM_LENGTH = 3;
+	/**
+	 * The results that are searched
+	 */
+	private final MetricStore store;
+	/**
+	 * The identifiers of the names that hold each sequence of characters, in increasing order, keyed by the
+	 * characters of the sequence packed into a long
+	 */
+	private final HashMap<Long, int[]> postings = new HashMap<Long, int[]>();
+	/**
+	 * The previous search string, or null if there has not been a search
+	 */
+	private String lastQuery = null;
+	/**
+	 * The identifiers of the names found by the previous search, in increasing order
+	 */
+	private int[] lastNames;
+	/**
+	 * The positions of the results found by the previous search, in order
+	 */
+	private int[] lastRows;
+	/**
+	 * Builds the index of the names of a store, which must not be changed afterwards
+	 * @param store     The results to search
+	 */
+	public MetricIndex(MetricStore store) {
+		this.store = store;
+		/**
+		 * The number of names that hold each sequence, followed by the identifier of the last name counted for it so
+		 * that a name holding a sequence more than once is only counted once
+		 */
+		HashMap<Long, int[]> counts = new HashMap<Long, int[]>();
+		for (int n = 0; n < store.getNameCount(); n++) {
+			/**
+			 * The name being indexed
+			 */
+			String name = store.getNameOf(n);
+			for (int i = 0; i + GRAM_LENGTH <= name.length(); i++) {
+				/**
+				 * The count and last name of the sequence starting at i
+				 */
+				int[] count = counts.computeIfAbsent(gram(name, i), g -> new int[] {0, -1});
+				if (count[1] != n) {
+					count[1] = n;
+					count[0]++;
+				}
+			}
+		}
+		for (Long gram : counts.keySet()) {
+			/**
+			 * The count and last name of the sequence, which are reused while the posting list is filled
+			 */
+			int[] count = counts.get(gram);
+			postings.put(gram, new int[count[0]]);
+			count[0] = 0;
+			count[1] = -1;
+		}
+		for (int n = 0; n < store.getNameCount(); n++) {
+			/**
+			 * The name being indexed
+			 */
+			String name = store.getNameOf(n);
+			for (int i = 0; i + GRAM_LENGTH <= name.length(); i++) {
+				/**
+				 * The sequence starting at i
+				 */
+				Long gram = gram(name, i);
+				/**
+				 * The number of names added for the sequence and the last one added
+				 */
+				int[] count = counts.get(gram);
+				if (count[1] != n) {
+					count[1] = n;
+					postings.get(gram)[count[0]++] = n;
+				}
+			}
+		}
+	}
+	/**
+	 * Returns the results searched by the index
+	 * @return     The store of results
+	 */
+	public MetricStore getStore() {
+		return store;
+	}
+	/**
+	 * Packs the characters of a sequence into a long
+	 * @param text      The text holding the sequence
+	 * @param start     The index of the first character of the sequence
+	 * @return          The packed sequence
+	 */
+	private static Long gram(String text, int start) {
+		return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+	}
+	/**
+	 * Finds the results whose metric name contains a search string. If the search string contains the previous one,
+	 * only the names and results found by the previous search are searched.
+	 * @param query     The search string, matched with its case, where an empty string finds every result
+	 * @return          The positions of the results found, in the order they were found in the PDF file
+	 */
+	public int[] search(String query) {
+		if (query.isEmpty()) {
+			lastQuery = null;
+			return store.allRows();
+		}
+		if (lastQuery != null && query.contains(lastQuery)) {
+			if (query.equals(lastQuery)) {
+				return lastRows.clone();
+			}
+			lastNames = filterNames(lastNames, query);
+			lastRows = rowsOf(lastRows, lastNames);
+		}
+		else {
+			lastNames = filterNames(candidates(query), query);
+			lastRows = rowsOf(store.allRows(), lastNames);
+		}
+		lastQuery = query;
+		return lastRows.clone();
+	}
+	/**
+	 * Returns the names that may contain a search string, which are those holding every sequence of the search
+	 * string, or every name if it is shorter than a sequence
+	 * @param query     The search string
+	 * @return          The identifiers of the names in increasing order
+	 */
+	private int[] candidates(String query) {
+		if (query.length() < GRAM_LENGTH) {
+			/**
+			 * The identifier of every name
+			 */
+			int[] all = new int[store.getNameCount()];
+			for (int n = 0; n < all.length; n++) {
+				all[n] = n;
+			}
+			return all;
+		}
+		/**
+		 * The posting lists of the sequences of the search string
+		 */
+		int[][] lists = new int[query.length() - GRAM_LENGTH + 1][];
+		for (int i = 0; i < lists.length; i++) {
+			lists[i] = postings.get(gram(query, i));
+			if (lists[i] == null) {
+				return new int[0];
+			}
+		}
+		// Intersecting the shortest lists first keeps every intermediate result small
+		Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+		/**
+		 * The names holding every sequence intersected so far
+		 */
+		int[] names = lists[0];
+		for (int l = 1; l < lists.length && names.length > 0; l++) {
+			names = intersect(names, lists[l]);
+		}
+		return names;
+	}
+	/**
+	 * Returns the names found in two sorted lists
+	 * @param a     A list of identifiers in increasing order
+	 * @param b     Another list of identifiers in increasing order
+	 * @return      The identifiers in both lists, in increasing order
+	 */
+	private static int[] intersect(int[] a, int[] b) {
+		/**
+		 * The identifiers in both lists
+		 */
+		int[] both = new int[Math.min(a.length, b.length)];
+		/**
+		 * The number of identifiers in both lists
+		 */
+		int count = 0;
+		for (int i = 0, j = 0; i < a.length && j < b.length;) {
+			if (a[i] < b[j]) {
+				i++;
+			}
+			else if (a[i] > b[j]) {
+				j++;
+			}
+			else {
+				both[count++] = a[i];
+				i++;
+				j++;
+			}
+		}
+		return Arrays.copyOf(both, count);
+	}
+	/**
+	 * Returns the names that contain a search string
+	 * @param names     The identifiers of the names to check, in increasing order
+	 * @param query     The search string
+	 * @return          The identifiers of the names that contain param query, in increasing order
+	 */
+	private int[] filterNames(int[] names, String query) {
+		/**
+		 * The names kept
+		 */
+		int[] kept = new int[names.length];
+		/**
+		 * The number of names kept
+		 */
+		int count = 0;
+		for (int n : names) {
+			if (store.getNameOf(n).contains(query)) {
+				kept[count++] = n;
+			}
+		}
+		return Arrays.copyOf(kept, count);
+	}
+	/**
+	 * Returns the results that have one of a set of names
+	 * @param rows      The positions of the results to check, in order
+	 * @param names     The identifiers of the names, in increasing order
+	 * @return          The positions of the results whose name is in param names, in order
+	 */
+	private int[] rowsOf(int[] rows, int[] names) {
+		/**
+		 * True for the identifier of each name in param names
+		 */
+		boolean[] matching = new boolean[store.getNameCount()];
+		for (int n : names) {
+			matching[n] = true;
+		}
+		return store.filter(rows, row -> matching[store.getNameId(row)]);
+	}
+}
@@ -0,0 +1,183 @@
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+/**
+ * Resolves the metric/value/date of a sentence that follows a simple pattern without the NER model, such as
+ * "Production of 83,476 dmt of spodumene concentrate (September Quarter". A sentence is only resolved when the
+ * answer is clear: it must hold exactly one number outside its date, that number must have a unit or percent sign
+ * next to it, and the words before the number must name the measure, as in "Revenue of", "Production was" or
+ * "Revenue:". A magnitude such as million or m after the value is kept as part of it, and a value that runs on
+ * into any other word is not resolved. Every other sentence is left to the NER model. Results are written the same
+ * way as by the Python file, as the measure, value and date separated by " ----- ", where the date is only
+ * included if it comes after the value. A rule set keeps scratch state between calls and must only be used by one
+ * thread at a time.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class MetricRules {
+	/**
+	 * The names of the months and their abbreviations
+	 */
+	private static final String MONTH = "(?:January|February|March|April|May|June|July|August|September|October|November|December"
+			+ "|Jan|Feb|Mar|Apr|Jun|Jul|Aug|Sep|Sept|Oct|Nov|Dec)";
+	/**
+	 * A four digit year
+	 */
+	private static final String YEAR = "(?:19|20)\\d{2}";
+	/**
+	 * The grammar of a reporting date: a day, month and year such as 30 June 2022, a month and year, a month and
+	 * period such as September Quarter, or a financial period such as FY23, Q1 FY2023 or H1 2022
+	 */
+	private static final Pattern DATE = Pattern.compile("\\b(?:(?:\\d{1,2} )?" + MONTH + ",? " + YEAR + "(?: (?:[Qq]uarter|[Hh]alf|[Yy]ear))?"
+			+ "|" + MONTH + " (?:[Qq]uarter|[Hh]alf(?: [Yy]ear)?|[Yy]ear)(?: " + YEAR + ")?"
+			+ "|(?:(?:Q[1-4]|H[12]|[1-4]Q) ?)?(?:FY|CY) ?(?:19|20)?\\d{2}"
+			+ "|(?:Q[1-4]|H[12]) " + YEAR + ")\\b");
+	/**
+	 * The words that name a measure followed by the words that join them to its value, ending just before the
+	 * value. The measure is up to four words of letters.
+	 */
+	private static final Pattern MEASURE = Pattern.compile("(?<![A-Za-z'\u2019\\-])([A-Za-z][A-Za-z\\-]*(?: [A-Za-z][A-Za-z\\-]*){0,3})"
+			+ "(?: (?:of|was|were|is|are|totalled|totaled|totalling|totaling|reached|increased to|decreased to|rose to|fell to|grew to)"
+			+ "(?: (?:approximately|around|about|circa|nearly|almost|over))?|:) $");
+	/**
+	 * Words that start a measure phrase but are not part of the name of the measure
+	 */
+	private static final Pattern LEADING_WORDS = Pattern.compile("^(?:(?:the|a|an|and|with|in|for|its|our|their|there|it|this|these|that|which)(?: |$))+", Pattern.CASE_INSENSITIVE);
+	/**
+	 * A word that multiplies the value before it, such as million in $45 million or m in A$125m, which may be
+	 * separated from the value by a space
+	 */
+	private static final Pattern MAGNITUDE = Pattern.compile(" ?(?:billion|million|thousand|bn|mln|mn|b|B|m|M|k|K)(?![A-Za-z])");
+	/**
+	 * The number of characters before a value that are searched for its measure
+	 */
+	private static final int MEASURE_WINDOW = 120;
+	/**
+	 * Finds the numbers of a sentence
+	 */
+	private final NumericTokenizer numbers = new NumericTokenizer();
+	/**
+	 * Finds the units of a sentence and gives each number its nearest unit
+	 */
+	private final UnitDictionary units;
+	/**
+	 * Creates a rule set that recognises the units of UnitDictionary.DEFAULT_UNITS
+	 */
+	public MetricRules() {
+		this(UnitDictionary.createDefault());
+	}
+	/**
+	 * Creates a rule set that recognises the units of a dictionary
+	 * @param units     The dictionary of units, which must not be used by anything else
+	 */
+	public MetricRules(UnitDictionary units) {
+		this.units = units;
+	}
+	/**
+	 * Resolves the metric of a sentence if it follows one of the rules
+	 * @param sentence     The sentence
+	 * @return             The measure, value and date separated by " ----- ", or null if the sentence must be left to
+	 *                     the NER model
+	 */
+	public String resolve(String sentence) {
+		/**
+		 * The number of numbers in the sentence
+		 */
+		int count = numbers.tokenize(sentence);
+		if (count == 0) {
+			return null;
+		}
+		/**
+		 * Finds the date of the sentence
+		 */
+		Matcher date = DATE.matcher(sentence);
+		/**
+		 * The start and end of the date, or -1 if there is none
+		 */
+		int dateStart = -1;
+		int dateEnd = -1;
+		if (date.find()) {
+			dateStart = date.start();
+			dateEnd = date.end();
+			if (date.find()) {
+				return null;
+			}
+		}
+		/**
+		 * The only number outside the date, or -1 if there is none yet
+		 */
+		int value = -1;
+		for (int t = 0; t < count; t++) {
+			if (numbers.getStart(t) >= dateStart && numbers.getEnd(t) <= dateEnd) {
+				continue;
+			}
+			if (value >= 0) {
+				return null;
+			}
+			value = t;
+		}
+		if (value < 0) {
+			return null;
+		}
+		/**
+		 * The start and end of the value, including its unit
+		 */
+		int valueStart = numbers.getStart(value);
+		int valueEnd = numbers.getEnd(value);
+		units.attach(sentence, numbers);
+		if (numbers.getUnit(value) != NumericTokenizer.NO_UNIT) {
+			/**
+			 * The unit of the value
+			 */
+			String unit = units.getUnit(numbers.getUnit(value));
+			if (sentence.startsWith(unit, valueEnd)) {
+				valueEnd += unit.length();
+			}
+			else if (sentence.startsWith(" " + unit, valueEnd)) {
+				valueEnd += unit.length() + 1;
+			}
+			else if (sentence.startsWith(unit, valueStart - unit.length())) {
+				valueStart -= unit.length();
+			}
+			else if (!numbers.hasFlag(value, NumericTokenizer.PERCENT)) {
+				return null;
+			}
+		}
+		else if (!numbers.hasFlag(value, NumericTokenizer.PERCENT)) {
+			return null;
+		}
+		/**
+		 * Finds a magnitude word just after the value and its unit
+		 */
+		Matcher magnitude = MAGNITUDE.matcher(sentence).region(valueEnd, sentence.length());
+		if (magnitude.lookingAt()) {
+			valueEnd = magnitude.end();
+		}
+		if (valueEnd < sentence.length() && Character.isLetter(sentence.charAt(valueEnd))) {
+			// The value runs on into a word that is not understood, so it is left to the NER model
+			return null;
+		}
+		/**
+		 * Finds the measure just before the value
+		 */
+		Matcher measure = MEASURE.matcher(sentence).region(Math.max(0, valueStart - MEASURE_WINDOW), valueStart);
+		if (!measure.find()) {
+			return null;
+		}
+		/**
+		 * The name of the measure
+		 */
+		String name = LEADING_WORDS.matcher(measure.group(1)).replaceFirst("");
+		if (name.isEmpty()) {
+			return null;
+		}
+		/**
+		 * The metric, written the same way as by the Python file
+		 */
+		String metric = name + " ----- " + sentence.substring(valueStart, valueEnd);
+		if (dateStart >= valueEnd) {
+			metric = metric + " ----- " + sentence.substring(dateStart, dateEnd);
+		}
+		return metric.replace("\n", " ");
+	}
+}
@@ -0,0 +1,570 @@
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+/**
+ * A columnar store of the metric/value/date results of a PDF file. Each result is parsed once when it is added and
+ * kept in primitive arrays: the metric name and unit as identifiers of interned strings, the value as a double and
+ * each distinct date with its day counted from 1970-01-01, next to the value as it was written. Filtering, sorting
+ * and grouping work on arrays of row numbers without reading any string again, and a million results use a few tens
+ * of megabytes. A store must only be changed by one thread at a time, and may be read by any thread once it is no
+ * longer changed.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class MetricStore {
+	/**
+	 * The unit of a value that was written without one
+	 */
+	public static final int NO_UNIT = -1;
+	/**
+	 * The day of a date that does not name a single day, month or calendar year, or a result without a date
+	 */
+	public static final int NO_DATE = Integer.MIN_VALUE;
+	/**
+	 * Separates the metric, value and date of a result written by the Python file
+	 */
+	private static final String SEPARATOR = " ----- ";
+	/**
+	 * The number of results the columns hold before they first have to grow
+	 */
+	private static final int INITIAL_CAPACITY = 256;
+	/**
+	 * A date with a month and year, optionally preceded by a day or followed by a period such as Quarter, in which
+	 * group 1 is the day, group 2 the month and group 3 the year
+	 */
+	private static final Pattern MONTH_DATE = Pattern.compile("\\b(?:(\\d{1,2}) )?(January|February|March|April|May|June|July|August|September|October|November|December"
+			+ "|Jan|Feb|Mar|Apr|Jun|Jul|Aug|Sep|Sept|Oct|Nov|Dec)(?: (?:[Qq]uarter|[Hh]alf|[Yy]ear))?,? ((?:19|20)\\d{2})\\b");
+	/**
+	 * A calendar year on its own, such as 2022 or CY22, in which group 1 is the year
+	 */
+	private static final Pattern CALENDAR_YEAR = Pattern.compile("^(?:CY ?)?((?:19|20)?\\d{2})$");
+	/**
+	 * The first three letters of the names of the months, in the order of the months
+	 */
+	private static final List<String> MONTHS = Arrays.asList("jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec");
+	/**
+	 * The distinct metric names, in the order of their identifiers
+	 */
+	private final ArrayList<String> names = new ArrayList<String>();
+	/**
+	 * The identifier of each distinct metric name
+	 */
+	private final HashMap<String, Integer> nameIds = new HashMap<String, Integer>();
+	/**
+	 * The distinct units, in the order of their identifiers
+	 */
+	private final ArrayList<String> units = new ArrayList<String>();
+	/**
+	 * The identifier of each distinct unit
+	 */
+	private final HashMap<String, Integer> unitIds = new HashMap<String, Integer>();
+	/**
+	 * The distinct dates as they were written, in the order of their identifiers
+	 */
+	private final ArrayList<String> dates = new ArrayList<String>();
+	/**
+	 * The identifier of each distinct date
+	 */
+	private final HashMap<String, Integer> dateIds = new HashMap<String, Integer>();
+	/**
+	 * The day of each distinct date counted from 1970-01-01, or NO_DATE, in the order of the identifiers of the
+	 * dates
+	 */
+	private final IntList dateDays = new IntList();
+	/**
+	 * The metric name of each result
+	 */
+	private int[] nameColumn = new int[INITIAL_CAPACITY];
+	/**
+	 * The value of each result, or NaN if its value has no number
+	 */
+	private double[] valueColumn = new double[INITIAL_CAPACITY];
+	/**
+	 * The unit of the value of each result, or NO_UNIT
+	 */
+	private int[] unitColumn = new int[INITIAL_CAPACITY];
+	/**
+	 * The date of each result as it was written, or -1 if the result has no date
+	 */
+	private int[] dateColumn = new int[INITIAL_CAPACITY];
+	/**
+	 * The index in valueText where the value of each result as it was written ends, so that it starts where the
+	 * value before it ends
+	 */
+	private int[] valueEnds = new int[INITIAL_CAPACITY];
+	/**
+	 * The values of every result as they were written, one after another
+	 */
+	private char[] valueText = new char[16 * INITIAL_CAPACITY];
+	/**
+	 * The number of results
+	 */
+	private int size = 0;
+	/**
+	 * Finds the number of each value
+	 */
+	private final NumericTokenizer numbers = new NumericTokenizer();
+	/**
+	 * Default constructor
+	 */
+	public MetricStore() {
+
+	}
+	/**
+	 * Creates a store holding results written by the Python file
+	 * @param metrics     The results, each with the metric, value and date separated by " ----- "
+	 * @return            The store
+	 */
+	public static MetricStore of(List<String> metrics) {
+		/**
+		 * The store being filled
+		 */
+		MetricStore store = new MetricStore();
+		for (String metric : metrics) {
+			store.add(metric);
+		}
+		return store;
+	}
+	/**
+	 * Adds a result written by the Python file
+	 * @param metric     The metric, value and date separated by " ----- ", where the value and date may be missing
+	 */
+	public void add(String metric) {
+		/**
+		 * The end of the metric name and the end of the value
+		 */
+		int nameEnd = metric.indexOf(SEPARATOR);
+		int valueEnd = nameEnd < 0 ? -1 : metric.indexOf(SEPARATOR, nameEnd + SEPARATOR.length());
+		if (nameEnd < 0) {
+			add(metric, "", null);
+		}
+		else if (valueEnd < 0) {
+			add(metric.substring(0, nameEnd), metric.substring(nameEnd + SEPARATOR.length()), null);
+		}
+		else {
+			/**
+			 * The end of the date, which is followed by any further columns that are not kept
+			 */
+			int dateEnd = metric.indexOf(SEPARATOR, valueEnd + SEPARATOR.length());
+			add(metric.substring(0, nameEnd), metric.substring(nameEnd + SEPARATOR.length(), valueEnd),
+					metric.substring(valueEnd + SEPARATOR.length(), dateEnd < 0 ? metric.length() : dateEnd));
+		}
+	}
+	/**
+	 * Adds a result
+	 * @param name      The name of the metric
+	 * @param value     The value as it was written, including its unit, or an empty string if there is none
+	 * @param date      The date as it was written, or null if the result has no date
+	 */
+	public void add(String name, String value, String date) {
+		if (size == nameColumn.length) {
+			/**
+			 * The new capacity of the columns
+			 */
+			int capacity = 2 * size;
+			nameColumn = Arrays.copyOf(nameColumn, capacity);
+			valueColumn = Arrays.copyOf(valueColumn, capacity);
+			unitColumn = Arrays.copyOf(unitColumn, capacity);
+			dateColumn = Arrays.copyOf(dateColumn, capacity);
+			valueEnds = Arrays.copyOf(valueEnds, capacity);
+		}
+		/**
+		 * The index in valueText where the value starts
+		 */
+		int valueStart = size == 0 ? 0 : valueEnds[size - 1];
+		if (valueStart + value.length() > valueText.length) {
+			valueText = Arrays.copyOf(valueText, Math.max(valueStart + value.length(), 2 * valueText.length));
+		}
+		value.getChars(0, value.length(), valueText, valueStart);
+		valueEnds[size] = valueStart + value.length();
+		nameColumn[size] = intern(name, names, nameIds);
+		valueColumn[size] = Double.NaN;
+		unitColumn[size] = NO_UNIT;
+		if (numbers.tokenize(value) > 0) {
+			valueColumn[size] = numbers.getValue(0);
+			/**
+			 * The value without its number, which is its unit
+			 */
+			String unit = (value.substring(0, numbers.getStart(0)) + " " + value.substring(numbers.getEnd(0))).trim().replaceAll("\\s+", " ");
+			if (numbers.hasFlag(0, NumericTokenizer.PERCENT)) {
+				unit = unit.isEmpty() ? "%" : "% " + unit;
+			}
+			if (!unit.isEmpty()) {
+				unitColumn[size] = intern(unit, units, unitIds);
+			}
+		}
+		dateColumn[size] = -1;
+		if (date != null) {
+			dateColumn[size] = intern(date, dates, dateIds);
+			if (dateColumn[size] == dateDays.size()) {
+				dateDays.add(toEpochDay(date));
+			}
+		}
+		size++;
+	}
+	/**
+	 * Returns the identifier of a string, adding it to a pool if it has not been seen before
+	 * @param value     The string
+	 * @param pool      The distinct strings, in the order of their identifiers
+	 * @param ids       The identifier of each distinct string
+	 * @return          The identifier of the string
+	 */
+	private static int intern(String value, ArrayList<String> pool, HashMap<String, Integer> ids) {
+		/**
+		 * The identifier of the string if it has been seen before
+		 */
+		Integer id = ids.get(value);
+		if (id == null) {
+			id = pool.size();
+			pool.add(value);
+			ids.put(value, id);
+		}
+		return id;
+	}
+	/**
+	 * Returns the day of a date counted from 1970-01-01. A date with a day is that day, a month and year, or a
+	 * period such as September Quarter 2022, is the last day of the month, and a calendar year on its own is its
+	 * last day. Financial years and quarters are not resolved, as they depend on when the financial year of the
+	 * company ends.
+	 * @param date     The date as it was written
+	 * @return         The day, or NO_DATE if the date is not resolved
+	 */
+	public static int toEpochDay(String date) {
+		try {
+			/**
+			 * Finds a date with a month
+			 */
+			Matcher month = MONTH_DATE.matcher(date);
+			while (month.find()) {
+				/**
+				 * The number of the month, from one
+				 */
+				int number = MONTHS.indexOf(month.group(2).substring(0, 3).toLowerCase()) + 1;
+				if (number > 0) {
+					/**
+					 * The month of the date
+					 */
+					YearMonth yearMonth = YearMonth.of(Integer.parseInt(month.group(3)), number);
+					return (int) (month.group(1) == null ? yearMonth.atEndOfMonth() : yearMonth.atDay(Integer.parseInt(month.group(1)))).toEpochDay();
+				}
+			}
+			/**
+			 * Finds a calendar year
+			 */
+			Matcher year = CALENDAR_YEAR.matcher(date.trim());
+			if (year.matches()) {
+				/**
+				 * The year, where a two digit year is in this century
+				 */
+				int number = Integer.parseInt(year.group(1));
+				return (int) LocalDate.of(number < 100 ? 2000 + number : number, 12, 31).toEpochDay();
+			}
+		}
+		catch (DateTimeException e) {
+			// A day that does not exist in its month, such as 31 June, is not a date
+		}
+		return NO_DATE;
+	}
+	/**
+	 * Returns the number of results
+	 * @return     The number of results
+	 */
+	public int size() {
+		return size;
+	}
+	/**
+	 * Returns the number of distinct metric names
+	 * @return     The number of names
+	 */
+	public int getNameCount() {
+		return names.size();
+	}
+	/**
+	 * Returns a distinct metric name
+	 * @param nameId     The identifier of the name
+	 * @return           The name
+	 */
+	public String getNameOf(int nameId) {
+		return names.get(nameId);
+	}
+	/**
+	 * Returns the identifier of the metric name of a result
+	 * @param row     The position of the result
+	 * @return        The identifier of the name
+	 */
+	public int getNameId(int row) {
+		return nameColumn[row];
+	}
+	/**
+	 * Returns the metric name of a result
+	 * @param row     The position of the result
+	 * @return        The name
+	 */
+	public String getName(int row) {
+		return names.get(nameColumn[row]);
+	}
+	/**
+	 * Returns the value of a result. A percentage is returned as written, so 12% is 12.
+	 * @param row     The position of the result
+	 * @return        The value, or NaN if the value has no number
+	 */
+	public double getValue(int row) {
+		return valueColumn[row];
+	}
+	/**
+	 * Returns the identifier of the unit of a result
+	 * @param row     The position of the result
+	 * @return        The identifier of the unit, or NO_UNIT
+	 */
+	public int getUnitId(int row) {
+		return unitColumn[row];
+	}
+	/**
+	 * Returns a distinct unit
+	 * @param unitId     The identifier of the unit
+	 * @return           The unit
+	 */
+	public String getUnitOf(int unitId) {
+		return units.get(unitId);
+	}
+	/**
+	 * Returns the date of a result as a day counted from 1970-01-01
+	 * @param row     The position of the result
+	 * @return        The day, or NO_DATE
+	 */
+	public int getEpochDay(int row) {
+		return dateColumn[row] < 0 ? NO_DATE : dateDays.get(dateColumn[row]);
+	}
+	/**
+	 * Returns the value of a result as it was written
+	 * @param row     The position of the result
+	 * @return        The value, or an empty string if the result has no value
+	 */
+	public String getValueText(int row) {
+		/**
+		 * The index in valueText where the value starts
+		 */
+		int start = row == 0 ? 0 : valueEnds[row - 1];
+		return new String(valueText, start, valueEnds[row] - start);
+	}
+	/**
+	 * Returns the date of a result as it was written
+	 * @param row     The position of the result
+	 * @return        The date, or null if the result has no date
+	 */
+	public String getDateText(int row) {
+		return dateColumn[row] < 0 ? null : dates.get(dateColumn[row]);
+	}
+	/**
+	 * Returns true if a result has a value
+	 * @param row     The position of the result
+	 * @return        True if the result has a value
+	 */
+	public boolean hasValue(int row) {
+		return valueEnds[row] > (row == 0 ? 0 : valueEnds[row - 1]);
+	}
+	/**
+	 * Returns the columns of a result as they were written, the same as splitting the result written by the Python
+	 * file on its separator
+	 * @param row     The position of the result
+	 * @return        The metric, value and date, without the value and date if they are missing
+	 */
+	public String[] getRow(int row) {
+		if (dateColumn[row] >= 0) {
+			return new String[] {getName(row), getValueText(row), getDateText(row)};
+		}
+		return hasValue(row) ? new String[] {getName(row), getValueText(row)} : new String[] {getName(row)};
+	}
+	/**
+	 * Returns a result written the same way as by the Python file
+	 * @param row     The position of the result
+	 * @return        The metric, value and date separated by " ----- "
+	 */
+	public String getLine(int row) {
+		return String.join(SEPARATOR, getRow(row));
+	}
+	/**
+	 * Returns the positions of every result
+	 * @return     The positions in order
+	 */
+	public int[] allRows() {
+		/**
+		 * The positions of every result
+		 */
+		int[] rows = new int[size];
+		for (int r = 0; r < size; r++) {
+			rows[r] = r;
+		}
+		return rows;
+	}
+	/**
+	 * Returns the results that pass a test, keeping their order
+	 * @param rows     The positions of the results to test
+	 * @param test     Returns true for the position of a result that is kept
+	 * @return         The positions of the results kept
+	 */
+	public int[] filter(int[] rows, IntPredicate test) {
+		/**
+		 * The positions kept
+		 */
+		int[] kept = new int[rows.length];
+		/**
+		 * The number of positions kept
+		 */
+		int count = 0;
+		for (int row : rows) {
+			if (test.test(row)) {
+				kept[count++] = row;
+			}
+		}
+		return Arrays.copyOf(kept, count);
+	}
+	/**
+	 * Returns the results whose metric name contains a string, keeping their order. Each distinct name is only
+	 * searched once however many results share it.
+	 * @param rows     The positions of the results to search
+	 * @param part     The string, matched with its case
+	 * @return         The positions of the results whose name contains param part
+	 */
+	public int[] filterByName(int[] rows, String part) {
+		/**
+		 * True for the identifier of each name that contains the string
+		 */
+		boolean[] matching = new boolean[names.size()];
+		for (int n = 0; n < matching.length; n++) {
+			matching[n] = names.get(n).contains(part);
+		}
+		return filter(rows, row -> matching[nameColumn[row]]);
+	}
+	/**
+	 * Sorts results by metric name, keeping results with the same name in their order
+	 * @param rows     The positions of the results, which are sorted in place
+	 */
+	public void sortByName(int[] rows) {
+		/**
+		 * The position of each distinct name in alphabetical order
+		 */
+		int[] rank = new int[names.size()];
+		/**
+		 * The identifiers of the names in alphabetical order
+		 */
+		Integer[] order = new Integer[names.size()];
+		for (int n = 0; n < order.length; n++) {
+			order[n] = n;
+		}
+		Arrays.sort(order, (a, b) -> names.get(a).compareTo(names.get(b)));
+		for (int n = 0; n < order.length; n++) {
+			rank[order[n]] = n;
+		}
+		sort(rows, (a, b) -> Integer.compare(rank[nameColumn[a]], rank[nameColumn[b]]));
+	}
+	/**
+	 * Sorts results by value from smallest to largest, keeping results with the same value in their order. Results
+	 * without a number are placed last.
+	 * @param rows     The positions of the results, which are sorted in place
+	 */
+	public void sortByValue(int[] rows) {
+		sort(rows, (a, b) -> Double.compare(valueColumn[a], valueColumn[b]));
+	}
+	/**
+	 * Sorts results by date from earliest to latest, keeping results with the same date in their order. Results
+	 * whose date is not resolved are placed last.
+	 * @param rows     The positions of the results, which are sorted in place
+	 */
+	public void sortByDate(int[] rows) {
+		/**
+		 * The position of each result in date order, where a date that is not resolved is after every other date
+		 */
+		long[] keys = new long[dates.size() + 1];
+		for (int d = 0; d < dates.size(); d++) {
+			keys[d + 1] = dateDays.get(d) == NO_DATE ? Long.MAX_VALUE : dateDays.get(d);
+		}
+		keys[0] = Long.MAX_VALUE;
+		sort(rows, (a, b) -> Long.compare(keys[dateColumn[a] + 1], keys[dateColumn[b] + 1]));
+	}
+	/**
+	 * Groups results by metric name
+	 * @param rows     The positions of the results to group
+	 * @return         The positions of the results of each name in their order, indexed by the identifier of the
+	 *                 name, with an empty array for a name that none of the results have
+	 */
+	public int[][] groupByName(int[] rows) {
+		/**
+		 * The number of results of each name
+		 */
+		int[] counts = new int[names.size()];
+		for (int row : rows) {
+			counts[nameColumn[row]]++;
+		}
+		/**
+		 * The positions of the results of each name
+		 */
+		int[][] groups = new int[counts.length][];
+		for (int n = 0; n < groups.length; n++) {
+			groups[n] = new int[counts[n]];
+			counts[n] = 0;
+		}
+		for (int row : rows) {
+			groups[nameColumn[row]][counts[nameColumn[row]]++] = row;
+		}
+		return groups;
+	}
+	/**
+	 * Sorts positions with a merge sort, which unlike sorting Integer objects allocates a single array and keeps
+	 * positions that compare equal in their order
+	 * @param rows        The positions, which are sorted in place
+	 * @param compare     Compares two positions, returning a negative number, zero or a positive number
+	 */
+	private static void sort(int[] rows, IntBinaryOperator compare) {
+		/**
+		 * The positions being merged from, which are swapped with param rows after each pass
+		 */
+		int[] from = rows;
+		/**
+		 * The positions being merged into
+		 */
+		int[] to = new int[rows.length];
+		for (int width = 1; width < rows.length; width *= 2) {
+			for (int low = 0; low < rows.length; low += 2 * width) {
+				/**
+				 * The end of the left run and of the right run
+				 */
+				int middle = Math.min(low + width, rows.length);
+				int high = Math.min(low + 2 * width, rows.length);
+				/**
+				 * The next position in the left run, the right run and the merged run
+				 */
+				int i = low;
+				int j = middle;
+				int k = low;
+				while (i < middle && j < high) {
+					to[k++] = compare.applyAsInt(from[j], from[i]) < 0 ? from[j++] : from[i++];
+				}
+				while (i < middle) {
+					to[k++] = from[i++];
+				}
+				while (j < high) {
+					to[k++] = from[j++];
+				}
+			}
+			/**
+			 * The array merged into, which is merged from in the next pass
+			 */
+			int[] merged = to;
+			to = from;
+			from = merged;
+		}
+		if (from != rows) {
+			System.arraycopy(from, 0, rows, 0, rows.length);
+		}
+	}
+}
@@ -1,9 +1,10 @@
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
-import java.io.FileWriter;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.util.concurrent.CancellationException;
 /**
  * This class is concerned with all of the functionalities relating to generating a list of metrics inside of a PDF
  * file
@@ -12,67 +13,247 @@ import java.io.InputStreamReader;
  * @since      28/04/22
  */
 public class MetricsGenerator {
+	/**
+	 * The largest number of sentences sent to an NER worker in one batch. Read again for every batch, so a change
+	 * takes effect while metrics are being generated.
+	 */
+	private static volatile int batchSentences = 64;
+	/**
+	 * The name of the entries in the ExtractionCache that hold the metrics of a PDF file
+	 */
+	private static final String CACHE_KIND = "metrics";
+	/**
+	 * The largest number of characters sent to an NER worker in one batch, unless a single sentence is longer
+	 */
+	private static volatile int batchCharacters = 20000;
 	/**
 	 * Default constructor
 	 */
 	public MetricsGenerator() {
 		
+	}
+	/**
+	 * Sets the largest number of sentences sent to an NER worker in one batch
+	 * @param sentences     The number of sentences, which must be at least one
+	 */
+	public static void setBatchSentences(int sentences) {
+		if (sentences < 1) {
+			throw new IllegalArgumentException("Batch size must be at least one sentence");
+		}
+		batchSentences = sentences;
+	}
+	/**
+	 * Returns the largest number of sentences sent to an NER worker in one batch
+	 * @return     The number of sentences
+	 */
+	public static int getBatchSentences() {
+		return batchSentences;
+	}
+	/**
+	 * Sets the largest number of characters sent to an NER worker in one batch
+	 * @param characters     The number of characters, which must be at least one
+	 */
+	public static void setBatchCharacters(int characters) {
+		if (characters < 1) {
+			throw new IllegalArgumentException("Batch size must be at least one character");
+		}
+		batchCharacters = characters;
+	}
+	/**
+	 * Returns the largest number of characters sent to an NER worker in one batch
+	 * @return     The number of characters
+	 */
+	public static int getBatchCharacters() {
+		return batchCharacters;
 	}
 	/**
 	 * Generates a list of all metrics that were found in the PDF file, using an external Python file that makes
-	 * use of the Named Entity Extractor (NER) machine learning algorithm by spaCy
+	 * use of the Named Entity Extractor (NER) machine learning algorithm by spaCy. The Python file runs in a pool of
+	 * long-lived worker processes so that the model is only loaded once. Sentences are streamed to the worker in
+	 * batches as they are extracted, so tagging runs alongside extraction and no text is written to disk.
 	 * @param newFile                    The PDF file for which to generate metrics for
-	 * @return                           A list of strings containing metric/value/date results 
-	 * @throws IOException               Occurs if the FileWriter was unable to write extracted text from the PDF file
-	 *                                   to a new file that is used by the Python file
-	 * @throws InterruptedException      Occurs if the external Python file execution process is interrupted
+	 * @return                           The metric/value/date results
+	 * @throws IOException               Occurs if the text cannot be extracted from the PDF file or the NER worker
+	 *                                   fails
+	 * @throws InterruptedException      Occurs if waiting for an NER worker is interrupted
 	 */
-	public static ArrayList<String> generateMetrics(File newFile) throws IOException, InterruptedException {
+	public static MetricStore generateMetrics(File newFile) throws IOException, InterruptedException {
+		return generateMetrics(newFile, new MetricsStatistics());
+	}
+	/**
+	 * Generates a list of all metrics that were found in the PDF file, recording how the sentences were handled.
+	 * Sentences without a digit or number word cannot hold a metric value and are not sent to the NER model.
+	 * @param newFile                    The PDF file for which to generate metrics for
+	 * @param statistics                 Receives the number of sentences read and dropped by the prefilter and
+	 *                                   the size and latency of each NER batch
+	 * @return                           The metric/value/date results
+	 * @throws IOException               Occurs if the text cannot be extracted from the PDF file or the NER worker
+	 *                                   fails
+	 * @throws InterruptedException      Occurs if waiting for an NER worker is interrupted
+	 */
+	public static MetricStore generateMetrics(File newFile, MetricsStatistics statistics) throws IOException, InterruptedException {
+		return generateMetrics(newFile, statistics, new JobMonitor());
+	}
+	/**
+	 * Generates a list of all metrics that were found in the PDF file, reporting each page read to a monitor. If the
+	 * job is cancelled, the NER worker is killed straight away and the method stops. The metrics of a file that has
+	 * already been processed are read from the ExtractionCache without starting an NER worker, with every page of
+	 * the file reported to the monitor as done and the statistics marked as read from the cache. A sentence that
+	 * MetricRules can resolve on its own is not sent to the worker, and its result is placed among the results of
+	 * the worker in sentence order.
+	 * @param newFile                    The PDF file for which to generate metrics for
+	 * @param statistics                 Receives the number of sentences read, dropped by the prefilter and
+	 *                                   resolved by rules, and the size and latency of each NER batch
+	 * @param monitor                    Receives the progress of the job and tells it when it has been cancelled
+	 * @return                           The metric/value/date results
+	 * @throws IOException               Occurs if the text cannot be extracted from the PDF file or the NER worker
+	 *                                   fails
+	 * @throws InterruptedException      Occurs if waiting for an NER worker is interrupted
+	 * @throws CancellationException     Occurs if the job is cancelled between pages
+	 */
+	public static MetricStore generateMetrics(File newFile, MetricsStatistics statistics, JobMonitor monitor) throws IOException, InterruptedException {
 		/**
-		 * The extracted text from the PDF file
+		 * The number of pages of the PDF file, read from the cache entry before its metrics
 		 */
-		String fileText = ReportGenerator.extractTextFromPDF(newFile);
+		int[] storedPages = new int[1];
 		/**
-		 * File name for the output file that will contain the extracted text from the input PDF file, which the
-		 * Python file will read in order to generate metrics
+		 * The metrics stored by an earlier run, if there are any
 		 */
-		String outputFileName = "filetext-" + java.time.LocalDate.now() + ".txt";
+		MetricStore stored = ExtractionCache.read(newFile, CACHE_KIND, in -> {
+			storedPages[0] = in.readInt();
+			return readMetrics(in);
+		});
+		if (stored != null) {
+			monitor.finishedFromCache(storedPages[0]);
+			statistics.readFromCache();
+			return stored;
+		}
 		/**
-		 * Creates a new file in same directory as input PDF file and overwrites any existing text inside the file
+		 * The pool of NER worker processes shared by the program
 		 */
-		FileWriter extractedText = new FileWriter(FileInputScreen.getSaveLocationPath() + "\\" + outputFileName, false);
-		extractedText.write(fileText);
-		extractedText.close();
+		NerWorkerPool pool = NerWorkerPool.getSharedPool();
 		/**
-		 * A new ProcessBuilder object that executes the Python file containing metric generation functionality and
-		 * passes a command line argument containing the location in the file system of the file containing 
-		 * extracted text created previously
+		 * The streaming session with a worker of the pool, which replaces the worker if it dies
 		 */
-		ProcessBuilder pb = new ProcessBuilder("python", "res/december_report_nlp_test.py", FileInputScreen.getSaveLocationPath() + "\\" + outputFileName, "res/ner_model");
-		pb.redirectErrorStream(true);
+		NerStream stream = new NerStream(pool, statistics);
 		/**
-		 * A list of strings that will hold the metric/value/date results generated in the standard output of the
-		 * Python file
+		 * Kills the worker if the job is cancelled, which also stops the session reading its results
 		 */
-		ArrayList<String> result = new ArrayList<String>();
+		Runnable killWorker = stream::kill;
+		monitor.onCancel(killWorker);
+		/**
+		 * The store that will hold the metric/value/date results
+		 */
+		MetricStore result;
+		/**
+		 * The number of pages of the PDF file
+		 */
+		int numPages;
+		try (DocumentSession.PageReader pages = DocumentSession.read(newFile, monitor)) {
+			/**
+			 * The sentences of the PDF file, split the same way as the Python file splits text
+			 */
+			numPages = pages.getNumberOfPages();
+			SentenceIterator sentences = new SentenceIterator(pages.texts(), SentenceIterator.NER_DELIMITERS);
+			/**
+			 * Resolves the sentences that follow a simple pattern without the worker
+			 */
+			MetricRules rules = new MetricRules();
+			/**
+			 * Sentences waiting to be sent as the next batch
+			 */
+			ArrayList<String> batch = new ArrayList<String>();
+			/**
+			 * The number of characters in the sentences waiting to be sent
+			 */
+			int batchLength = 0;
+			while (sentences.hasNext()) {
+				/**
+				 * The next sentence of the PDF file
+				 */
+				String sentence = sentences.next();
+				statistics.sentenceRead();
+				if (!NumericSentenceFilter.isCandidate(sentence)) {
+					statistics.sentenceDropped();
+					continue;
+				}
+				/**
+				 * The metric of the sentence if the rules can resolve it
+				 */
+				String metric = rules.resolve(sentence);
+				if (metric != null) {
+					statistics.sentenceResolved();
+					stream.addResolved(stream.getNextId() + batch.size(), metric);
+					continue;
+				}
+				if (batch.size() > 0 && (batch.size() >= batchSentences || batchLength + sentence.length() > batchCharacters)) {
+					stream.send(batch);
+					batch.clear();
+					batchLength = 0;
+				}
+				batch.add(sentence);
+				batchLength += sentence.length();
+			}
+			stream.send(batch);
+			result = MetricStore.of(stream.finish());
+		}
+		catch (IOException | InterruptedException | RuntimeException e) {
+			monitor.removeCancelHook(killWorker);
+			stream.abort();
+			if (e instanceof UncheckedIOException) {
+				throw ((UncheckedIOException) e).getCause();
+			}
+			throw e;
+		}
+		monitor.removeCancelHook(killWorker);
+		ExtractionCache.write(newFile, CACHE_KIND, out -> {
+			out.writeInt(numPages);
+			out.writeInt(result.size());
+			for (int i = 0; i < result.size(); i++) {
+				ExtractionCache.writeString(out, result.getLine(i));
+			}
+		});
+		return result;
+	}
+	/**
+	 * Reads the metrics of a PDF file from a cache entry, after the number of pages of the file that comes first
+	 * @param in               The stream the entry is read from
+	 * @return                 The metric/value/date results
+	 * @throws IOException     Occurs if the entry cannot be read
+	 */
+	private static MetricStore readMetrics(DataInputStream in) throws IOException {
 		/**
-		 * Start the execution of the Python file
+		 * The number of metrics
 		 */
-		Process process = pb.start();
+		int count = in.readInt();
 		/**
-		 * New BufferedReader object for reading lines from the standard output of the execution of the Python file
+		 * The metric/value/date results
 		 */
-		BufferedReader bfr = new BufferedReader(new InputStreamReader(process.getInputStream()));
+		MetricStore metrics = new MetricStore();
+		for (int i = 0; i < count; i++) {
+			metrics.add(ExtractionCache.readString(in));
+		}
+		return metrics;
+	}
+	/**
+	 * Generates a new file containing comma separated values for every metric, with a column each for the metric,
+	 * value and date
+	 * @param request          The PDF file and save location that the metrics were generated for
+	 * @param metrics          The metric/value/date results returned by generateMetrics
+	 * @return                 The CSV file that was saved
+	 * @throws IOException     Occurs if the file cannot be written
+	 */
+	public static File generateMetricsCsv(ExtractionRequest request, MetricStore metrics) throws IOException {
 		/**
-		 * The next line in the input stream of the process
+		 * A new CSV file in the save location of the request
 		 */
-		String line = bfr.readLine();
-		while (line != null) {
-			result.add(line);
-			line = bfr.readLine();
+		File csvOutputFile = request.getMetricsCsvFile();
+		try (PrintWriter pw = new PrintWriter(csvOutputFile, "UTF-8")) {
+			pw.println(PdfTable.convertToCsv(new String[] {"Metric", "Value", "Date"}));
+			for (int i = 0; i < metrics.size(); i++) {
+				pw.println(PdfTable.convertToCsv(metrics.getRow(i)));
+			}
 		}
-		process.waitFor();
-		
-		return result;
+		return csvOutputFile;
 	}
-}
\ No newline at end of file
+}
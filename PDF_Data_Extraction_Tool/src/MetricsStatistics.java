@@ -0,0 +1,221 @@
+import java.util.ArrayList;
+import java.util.Collections;
+/**
+ * Counters describing how the sentences of one metrics generation run were handled, so that the effect of each
+ * stage of the metrics pipeline can be reported to the user
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class MetricsStatistics {
+	/**
+	 * The number of sentences read from the PDF file
+	 */
+	private long sentencesRead = 0;
+	/**
+	 * The number of sentences that the numeric prefilter kept away from the NER model
+	 */
+	private long sentencesDropped = 0;
+	/**
+	 * The number of sentences whose metric was resolved by MetricRules without the NER model
+	 */
+	private long sentencesResolved = 0;
+	/**
+	 * The number of runs whose metrics were read from the ExtractionCache, which record no other counters
+	 */
+	private int cachedRuns = 0;
+	/**
+	 * The number of sentences in each batch sent to the NER model, in the order the results arrived
+	 */
+	private final ArrayList<Integer> batchSentences = new ArrayList<Integer>();
+	/**
+	 * The number of characters in each batch
+	 */
+	private final ArrayList<Integer> batchCharacters = new ArrayList<Integer>();
+	/**
+	 * The time in milliseconds from sending each batch until its results were read back
+	 */
+	private final ArrayList<Long> batchRoundTrips = new ArrayList<Long>();
+	/**
+	 * The time in milliseconds the NER worker spent tagging each batch
+	 */
+	private final ArrayList<Long> batchTaggingTimes = new ArrayList<Long>();
+	/**
+	 * Default constructor
+	 */
+	public MetricsStatistics() {
+
+	}
+	/**
+	 * Records that a sentence has been read from the PDF file
+	 */
+	public void sentenceRead() {
+		sentencesRead++;
+	}
+	/**
+	 * Records that a sentence was dropped by the numeric prefilter
+	 */
+	public void sentenceDropped() {
+		sentencesDropped++;
+	}
+	/**
+	 * Records that the metric of a sentence was resolved by MetricRules without the NER model
+	 */
+	public void sentenceResolved() {
+		sentencesResolved++;
+	}
+	/**
+	 * Records that the metrics of the run were read from the ExtractionCache instead of being generated
+	 */
+	public synchronized void readFromCache() {
+		cachedRuns = 1;
+	}
+	/**
+	 * Returns the number of runs whose metrics were read from the ExtractionCache
+	 * @return     The number of runs read from the cache, which is at most one unless counters have been added
+	 */
+	public synchronized int getCachedRuns() {
+		return cachedRuns;
+	}
+	/**
+	 * Records the size and latency of a batch whose results have been read back from the NER worker. Called by the
+	 * thread reading the results, so it may run at the same time as the other methods.
+	 * @param sentences          The number of sentences in the batch
+	 * @param characters         The number of characters in the batch
+	 * @param roundTripMillis    The time from sending the batch until its results were read back
+	 * @param taggingMillis      The time the NER worker reported spending on the batch
+	 */
+	public synchronized void batchCompleted(int sentences, int characters, long roundTripMillis, long taggingMillis) {
+		batchSentences.add(sentences);
+		batchCharacters.add(characters);
+		batchRoundTrips.add(roundTripMillis);
+		batchTaggingTimes.add(taggingMillis);
+	}
+	/**
+	 * Returns the number of batches whose results have been read back
+	 * @return     The number of batches
+	 */
+	public synchronized int getBatchCount() {
+		return batchRoundTrips.size();
+	}
+	/**
+	 * Returns the number of sentences in a batch
+	 * @param batch     The position of the batch in the order its results arrived
+	 * @return          The number of sentences
+	 */
+	public synchronized int getBatchSentences(int batch) {
+		return batchSentences.get(batch);
+	}
+	/**
+	 * Returns the number of characters in a batch
+	 * @param batch     The position of the batch in the order its results arrived
+	 * @return          The number of characters
+	 */
+	public synchronized int getBatchCharacters(int batch) {
+		return batchCharacters.get(batch);
+	}
+	/**
+	 * Returns the time from sending a batch until its results were read back, which includes time spent waiting
+	 * behind earlier batches
+	 * @param batch     The position of the batch in the order its results arrived
+	 * @return          The round trip time in milliseconds
+	 */
+	public synchronized long getBatchRoundTrip(int batch) {
+		return batchRoundTrips.get(batch);
+	}
+	/**
+	 * Returns the time the NER worker spent tagging a batch
+	 * @param batch     The position of the batch in the order its results arrived
+	 * @return          The tagging time in milliseconds
+	 */
+	public synchronized long getBatchTaggingTime(int batch) {
+		return batchTaggingTimes.get(batch);
+	}
+	/**
+	 * Returns the round trip time below which a share of the batches completed, using the nearest rank
+	 * @param percentile     The share of the batches as a percentage, from zero, which gives the shortest, to 100
+	 * @return               The round trip time in milliseconds, or zero if no batch has completed
+	 */
+	public synchronized long getRoundTripPercentile(double percentile) {
+		if (batchRoundTrips.isEmpty()) {
+			return 0;
+		}
+		/**
+		 * The round trip times from shortest to longest
+		 */
+		ArrayList<Long> sorted = new ArrayList<Long>(batchRoundTrips);
+		Collections.sort(sorted);
+		return sorted.get(Math.max(0, (int) Math.ceil(percentile / 100 * sorted.size()) - 1));
+	}
+	/**
+	 * Adds the counters of another run, such as that of another file of a batch
+	 * @param other     The counters of a run that has finished
+	 */
+	public synchronized void add(MetricsStatistics other) {
+		synchronized (other) {
+			sentencesRead += other.sentencesRead;
+			sentencesDropped += other.sentencesDropped;
+			sentencesResolved += other.sentencesResolved;
+			cachedRuns += other.cachedRuns;
+			batchSentences.addAll(other.batchSentences);
+			batchCharacters.addAll(other.batchCharacters);
+			batchRoundTrips.addAll(other.batchRoundTrips);
+			batchTaggingTimes.addAll(other.batchTaggingTimes);
+		}
+	}
+	/**
+	 * Returns the average time the NER worker spent tagging a batch
+	 * @return     The average tagging time in milliseconds, or zero if no batch has completed
+	 */
+	public synchronized long getAverageTaggingTime() {
+		/**
+		 * The total tagging time of every batch
+		 */
+		long total = 0;
+		for (long millis : batchTaggingTimes) {
+			total += millis;
+		}
+		return batchTaggingTimes.isEmpty() ? 0 : total / batchTaggingTimes.size();
+	}
+	/**
+	 * Returns the number of sentences read from the PDF file
+	 * @return     The number of sentences read
+	 */
+	public long getSentencesRead() {
+		return sentencesRead;
+	}
+	/**
+	 * Returns the number of sentences dropped by the numeric prefilter
+	 * @return     The number of sentences dropped
+	 */
+	public long getSentencesDropped() {
+		return sentencesDropped;
+	}
+	/**
+	 * Returns the number of sentences resolved by MetricRules without the NER model
+	 * @return     The number of sentences resolved
+	 */
+	public long getSentencesResolved() {
+		return sentencesResolved;
+	}
+	/**
+	 * Returns the share of the sentences kept by the numeric prefilter that were resolved by MetricRules
+	 * @return     The hit rate of the rules between zero and one, or zero if the prefilter kept no sentence
+	 */
+	public double getRuleHitRate() {
+		return sentencesRead == sentencesDropped ? 0 : (double) sentencesResolved / (sentencesRead - sentencesDropped);
+	}
+	/**
+	 * Returns a short description of the counters suitable for showing to the user
+	 * @return     A summary of the counters
+	 */
+	public synchronized String toString() {
+		if (cachedRuns > 0 && sentencesRead == 0) {
+			return "from cache, metrics read from an earlier run";
+		}
+		return (cachedRuns > 0 ? cachedRuns + " files from cache, " : "") + sentencesDropped + " of " + sentencesRead + " sentences skipped by the numeric prefilter, "
+				+ sentencesResolved + " resolved by rules (" + String.format("%.1f%%", 100 * getRuleHitRate()) + " hit rate), "
+				+ getBatchCount() + " NER batches averaging " + getAverageTaggingTime() + " ms of tagging, round trips "
+				+ getRoundTripPercentile(0) + "/" + getRoundTripPercentile(95) + "/" + getRoundTripPercentile(100) + " ms min/p95/max";
+	}
+}
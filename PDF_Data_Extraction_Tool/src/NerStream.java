@@ -0,0 +1,391 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+/**
+ * A streaming session with one NER worker at a time. Sentences are sent in numbered batches while the PDF file is
+ * still being extracted, and a separate thread reads the results back as soon as the worker produces them, so tagging
+ * starts on the first page long before the last page has been extracted. Each batch is kept until its results arrive,
+ * so if the worker dies part way through the file it is replaced with a new worker from the pool and the batches
+ * that were not answered are sent again.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class NerStream {
+	/**
+	 * A batch of sentences that has been sent but not answered
+	 */
+	private static class Batch {
+		/**
+		 * The number of sentences in the batch
+		 */
+		final int sentences;
+		/**
+		 * The number of characters in the sentences of the batch
+		 */
+		final int characters;
+		/**
+		 * The sentences joined into the body of one request frame
+		 */
+		final String body;
+		/**
+		 * The time in milliseconds at which the batch was last sent
+		 */
+		long sentAt;
+		/**
+		 * Creates a batch that has not been sent yet
+		 * @param sentences      The number of sentences in the batch
+		 * @param characters     The number of characters in the sentences of the batch
+		 * @param body           The sentences joined into the body of one request frame
+		 */
+		Batch(int sentences, int characters, String body) {
+			this.sentences = sentences;
+			this.characters = characters;
+			this.body = body;
+		}
+	}
+	/**
+	 * Separates the sentences of a batch inside a request frame
+	 */
+	private static final char SENTENCE_SEPARATOR = '\u001e';
+	/**
+	 * The number of times a worker that has died is replaced before the session fails
+	 */
+	private static final int MAX_RESTARTS = 1;
+	/**
+	 * The pool that the workers are borrowed from and given back to
+	 */
+	private final NerWorkerPool pool;
+	/**
+	 * The worker that the session sends its sentences to, or null once it has been given back to the pool.
+	 * Replaced only by the reader thread while holding the lock of the session.
+	 */
+	private volatile NerWorker worker;
+	/**
+	 * The thread that reads result frames from the worker
+	 */
+	private final Thread reader;
+	/**
+	 * The ID of the sentence that each result was found in, in the order the results arrived
+	 */
+	private final ArrayList<Integer> resultIds = new ArrayList<Integer>();
+	/**
+	 * The metric/value/date results, in the same order as resultIds
+	 */
+	private final ArrayList<String> results = new ArrayList<String>();
+	/**
+	 * The ID of the first sentence sent after each result that was resolved without the worker, in the order they
+	 * were added
+	 */
+	private final ArrayList<Integer> resolvedIds = new ArrayList<Integer>();
+	/**
+	 * The metric/value/date results resolved without the worker, in the same order as resolvedIds
+	 */
+	private final ArrayList<String> resolved = new ArrayList<String>();
+	/**
+	 * Receives the size and latency of each batch
+	 */
+	private final MetricsStatistics statistics;
+	/**
+	 * The batches that have been sent but not answered, keyed by the ID of their first sentence, guarded by the lock
+	 * of the session
+	 */
+	private final TreeMap<Integer, Batch> inFlight = new TreeMap<Integer, Batch>();
+	/**
+	 * True once every batch has been sent and the worker has been asked to confirm that it has tagged them, guarded
+	 * by the lock of the session
+	 */
+	private boolean syncing = false;
+	/**
+	 * The number of times the worker has been replaced
+	 */
+	private int restarts = 0;
+	/**
+	 * True once the session has been killed, after which a worker that dies is not replaced
+	 */
+	private volatile boolean killed = false;
+	/**
+	 * The first failure seen by the reader thread
+	 */
+	private volatile IOException failure;
+	/**
+	 * The ID given to the next sentence sent
+	 */
+	private int nextId = 0;
+	/**
+	 * Starts a session with a worker borrowed from a pool and starts reading its results
+	 * @param pool                     The pool to borrow workers from
+	 * @param statistics               Receives the size and latency of each batch
+	 * @throws IOException             Occurs if a new worker cannot be started
+	 * @throws InterruptedException    Occurs if the thread is interrupted while waiting for a worker
+	 */
+	public NerStream(NerWorkerPool pool, MetricsStatistics statistics) throws IOException, InterruptedException {
+		this.pool = pool;
+		this.statistics = statistics;
+		worker = pool.borrow();
+		reader = new Thread(this::readResults, "ner-stream-reader");
+		reader.setDaemon(true);
+		reader.start();
+	}
+	/**
+	 * Returns the ID that will be given to the next sentence sent
+	 * @return     The next sentence ID
+	 */
+	public int getNextId() {
+		return nextId;
+	}
+	/**
+	 * Sends a batch of sentences to the worker without waiting for their results
+	 * @param sentences        The sentences to tag, which are numbered in order from getNextId()
+	 * @throws IOException     Occurs if the session has failed
+	 */
+	public void send(List<String> sentences) throws IOException {
+		if (failure != null) {
+			throw failure;
+		}
+		if (sentences.isEmpty()) {
+			return;
+		}
+		/**
+		 * The sentences joined into the body of one request frame
+		 */
+		StringBuilder body = new StringBuilder();
+		for (int i = 0; i < sentences.size(); i++) {
+			if (i > 0) {
+				body.append(SENTENCE_SEPARATOR);
+			}
+			body.append(sentences.get(i).replace(SENTENCE_SEPARATOR, ' '));
+		}
+		/**
+		 * The batch being sent
+		 */
+		Batch batch = new Batch(sentences.size(), body.length() - sentences.size() + 1, body.toString());
+		synchronized (this) {
+			inFlight.put(nextId, batch);
+			sendBatch(nextId, batch);
+		}
+		nextId += sentences.size();
+	}
+	/**
+	 * Sends a batch to the current worker. A worker that cannot be written to is killed, so that the reader thread
+	 * sees it die and replaces it. Must be called while holding the lock of the session.
+	 * @param firstId     The ID of the first sentence of the batch
+	 * @param batch       The batch to send
+	 */
+	private void sendBatch(int firstId, Batch batch) {
+		batch.sentAt = System.currentTimeMillis();
+		try {
+			worker.send("NER " + firstId, batch.body);
+		}
+		catch (IOException e) {
+			worker.destroy();
+		}
+	}
+	/**
+	 * Asks the current worker to confirm once it has tagged every batch sent to it. Must be called while holding the
+	 * lock of the session.
+	 */
+	private void sendSync() {
+		try {
+			worker.send("SYNC", "");
+		}
+		catch (IOException e) {
+			worker.destroy();
+		}
+	}
+	/**
+	 * Adds a result that was resolved without the worker, so that it is returned among the results of the worker in
+	 * the order of the sentences it was found in
+	 * @param beforeId     The ID of the first sentence found after the resolved sentence, which is getNextId() plus
+	 *                     the number of sentences waiting to be sent
+	 * @param metric       The metric/value/date result
+	 */
+	public void addResolved(int beforeId, String metric) {
+		resolvedIds.add(beforeId);
+		resolved.add(metric);
+	}
+	/**
+	 * Waits for the worker to finish every batch sent, gives the worker back to the pool and returns the results in
+	 * sentence order
+	 * @return                         A list of strings containing metric/value/date results
+	 * @throws IOException             Occurs if the session failed while tagging any batch
+	 * @throws InterruptedException    Occurs if the thread is interrupted while waiting for the results
+	 */
+	public ArrayList<String> finish() throws IOException, InterruptedException {
+		synchronized (this) {
+			syncing = true;
+			if (failure == null) {
+				sendSync();
+			}
+		}
+		reader.join();
+		if (failure != null) {
+			throw failure;
+		}
+		synchronized (this) {
+			pool.release(worker);
+			worker = null;
+		}
+		/**
+		 * The position in the sentence order of each result of the worker followed by each resolved result. A
+		 * resolved result is placed just before the result of the first sentence found after it.
+		 */
+		long[] keys = new long[results.size() + resolved.size()];
+		for (int i = 0; i < results.size(); i++) {
+			keys[i] = 2L * resultIds.get(i) + 1;
+		}
+		for (int i = 0; i < resolved.size(); i++) {
+			keys[results.size() + i] = 2L * resolvedIds.get(i);
+		}
+		/**
+		 * The positions of the results sorted by the ID of the sentence they were found in. Batches are answered in
+		 * order, so the results of the worker are already sorted unless they were tagged out of order, and the sort
+		 * keeps results of the same sentence in the order they were found.
+		 */
+		Integer[] order = new Integer[keys.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> Long.compare(keys[a], keys[b]));
+		/**
+		 * The results in sentence order
+		 */
+		ArrayList<String> ordered = new ArrayList<String>(order.length);
+		for (Integer i : order) {
+			ordered.add(i < results.size() ? results.get(i) : resolved.get(i - results.size()));
+		}
+		return ordered;
+	}
+	/**
+	 * Kills the worker straight away without waiting for anything, so that it can be used as the cancel hook of a
+	 * job. The session then fails instead of replacing the worker, and must be ended with abort.
+	 */
+	public void kill() {
+		killed = true;
+		/**
+		 * The current worker, read after the session was marked as killed so that a worker started by a restart at
+		 * the same time is either seen here or killed by the restart
+		 */
+		NerWorker current = worker;
+		if (current != null) {
+			current.destroy();
+		}
+		reader.interrupt();
+	}
+	/**
+	 * Ends a session that has failed or been cancelled by killing the worker, which also stops the reader thread, and
+	 * discards the worker from the pool
+	 * @throws InterruptedException    Occurs if the thread is interrupted while waiting for the reader to stop
+	 */
+	public void abort() throws InterruptedException {
+		kill();
+		reader.join();
+		synchronized (this) {
+			if (worker != null) {
+				pool.discard(worker);
+				worker = null;
+			}
+		}
+	}
+	/**
+	 * Reads result frames until the worker confirms that every batch has been tagged, or the session fails. A worker
+	 * that dies is replaced with restart.
+	 */
+	private void readResults() {
+		try {
+			while (true) {
+				/**
+				 * The next frame from the worker
+				 */
+				String frame;
+				try {
+					frame = worker.receive();
+				}
+				catch (IOException e) {
+					restart(e);
+					continue;
+				}
+				if (frame.equals("SYNCED")) {
+					return;
+				}
+				if (frame.startsWith("ERROR")) {
+					throw new IOException(frame.substring(frame.indexOf('\n') + 1));
+				}
+				/**
+				 * The result lines of a batch, after the status line
+				 */
+				String[] lines = frame.split("\n");
+				/**
+				 * The status line, which holds the ID of the first sentence of the batch and the time the worker
+				 * spent tagging it
+				 */
+				String[] status = lines[0].split(" ");
+				/**
+				 * The batch that was answered
+				 */
+				Batch batch;
+				synchronized (this) {
+					batch = inFlight.remove(Integer.parseInt(status[1]));
+				}
+				if (batch != null) {
+					statistics.batchCompleted(batch.sentences, batch.characters, System.currentTimeMillis() - batch.sentAt, status.length > 2 ? Long.parseLong(status[2]) : 0);
+				}
+				for (int i = 1; i < lines.length; i++) {
+					/**
+					 * The tab between the sentence ID and the metric
+					 */
+					int tab = lines[i].indexOf('\t');
+					if (tab > 0) {
+						resultIds.add(Integer.parseInt(lines[i].substring(0, tab)));
+						results.add(lines[i].substring(tab + 1));
+					}
+				}
+			}
+		}
+		catch (IOException | RuntimeException e) {
+			failure = e instanceof IOException ? (IOException) e : new IOException("Invalid NER worker response", e);
+			/**
+			 * The current worker, which is null if a worker that died could not be replaced
+			 */
+			NerWorker current = worker;
+			if (current != null) {
+				// Nothing reads the worker's output any more, so kill it before a blocked write can hang the sender
+				current.destroy();
+			}
+		}
+	}
+	/**
+	 * Replaces a worker that has died with a new worker from the pool and sends it every batch that was not
+	 * answered, in sentence order, followed by the request to confirm them if it had already been sent
+	 * @param cause            The reason the worker could not be read from
+	 * @throws IOException     Occurs if the session has been killed, the worker has already been replaced as often as
+	 *                         allowed or a new worker cannot be started
+	 */
+	private synchronized void restart(IOException cause) throws IOException {
+		if (killed || restarts >= MAX_RESTARTS) {
+			throw cause;
+		}
+		restarts++;
+		pool.discard(worker);
+		worker = null;
+		try {
+			worker = pool.borrow();
+		}
+		catch (InterruptedException e) {
+			throw new IOException("Interrupted while replacing the NER worker", e);
+		}
+		if (killed) {
+			worker.destroy();
+			throw cause;
+		}
+		for (Map.Entry<Integer, Batch> batch : inFlight.entrySet()) {
+			sendBatch(batch.getKey(), batch.getValue());
+		}
+		if (syncing) {
+			sendSync();
+		}
+	}
+}
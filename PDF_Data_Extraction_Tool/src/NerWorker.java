@@ -0,0 +1,191 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+/**
+ * A long-lived Python process that has loaded the spaCy NER model once and answers requests sent over its standard
+ * input and output. Every message is a frame made of a four byte big-endian length followed by that many bytes of
+ * UTF-8 text, where the first line of the text is the command or status.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class NerWorker implements Closeable {
+	/**
+	 * The Python process running the metrics generation file in worker mode
+	 */
+	private final Process process;
+	/**
+	 * Frames sent to the standard input of the process
+	 */
+	private final DataOutputStream toWorker;
+	/**
+	 * Frames read from the standard output of the process
+	 */
+	private final DataInputStream fromWorker;
+	/**
+	 * The time in milliseconds at which the worker last finished a request
+	 */
+	private volatile long lastUsed;
+	/**
+	 * Starts a worker process and waits until it has loaded the model
+	 * @param python           The command used to run Python
+	 * @param script           The path of the Python file containing metric generation functionality
+	 * @param model            The path of the spaCy model directory
+	 * @throws IOException     Occurs if the process cannot be started or fails to load the model
+	 */
+	public NerWorker(String python, String script, String model) throws IOException {
+		/**
+		 * A new ProcessBuilder object that executes the Python file in worker mode. Error output is not merged
+		 * with standard output as it would corrupt the frames.
+		 */
+		ProcessBuilder pb = new ProcessBuilder(python, script, "--worker", model);
+		pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+		process = pb.start();
+		toWorker = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+		fromWorker = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+		/**
+		 * The first frame of the worker, which reports whether the model was loaded
+		 */
+		String status;
+		try {
+			status = readFrame();
+		}
+		catch (IOException e) {
+			process.destroyForcibly();
+			throw new IOException("NER worker exited before loading the model", e);
+		}
+		if (!status.equals("READY")) {
+			process.destroyForcibly();
+			throw new IOException(body(status));
+		}
+		lastUsed = System.currentTimeMillis();
+	}
+	/**
+	 * Sends a request frame without waiting for the response, so that a session can keep sending while another
+	 * thread reads responses with receive. Requests are answered in the order they were sent.
+	 * @param command          The command, which forms the first line of the request frame
+	 * @param body             The rest of the request frame, which may be empty
+	 * @throws IOException     Occurs if the worker's standard input has been closed
+	 */
+	public void send(String command, String body) throws IOException {
+		writeFrame(body.length() == 0 ? command : command + "\n" + body);
+	}
+	/**
+	 * Waits for the next response frame of a request sent with send
+	 * @return                 The whole response frame, including its status line
+	 * @throws IOException     Occurs if the worker exits before a whole frame has been read
+	 */
+	public String receive() throws IOException {
+		/**
+		 * The response frame of the worker
+		 */
+		String response = readFrame();
+		lastUsed = System.currentTimeMillis();
+		return response;
+	}
+	/**
+	 * Sends a ping to the worker to check that it is still responding
+	 * @return     True if the worker answered the ping
+	 */
+	public synchronized boolean ping() {
+		try {
+			writeFrame("PING");
+			return readFrame().equals("PONG");
+		}
+		catch (IOException e) {
+			return false;
+		}
+	}
+	/**
+	 * Returns true if the worker process has not exited
+	 * @return     True if the process is alive
+	 */
+	public boolean isAlive() {
+		return process.isAlive();
+	}
+	/**
+	 * Returns the time at which the worker last finished a request
+	 * @return     The time in milliseconds since the epoch
+	 */
+	public long getLastUsed() {
+		return lastUsed;
+	}
+	/**
+	 * Kills the worker process immediately, which also unblocks any thread waiting for a response
+	 */
+	public void destroy() {
+		process.destroyForcibly();
+	}
+	/**
+	 * Asks the worker to exit, killing it if it does not exit shortly afterwards
+	 */
+	public void close() {
+		try {
+			writeFrame("QUIT");
+			if (!process.waitFor(2, TimeUnit.SECONDS)) {
+				process.destroyForcibly();
+			}
+		}
+		catch (IOException e) {
+			process.destroyForcibly();
+		}
+		catch (InterruptedException e) {
+			process.destroyForcibly();
+			Thread.currentThread().interrupt();
+		}
+	}
+	/**
+	 * Writes one frame to the standard input of the worker
+	 * @param text             The text of the frame
+	 * @throws IOException     Occurs if the worker's standard input has been closed
+	 */
+	private void writeFrame(String text) throws IOException {
+		/**
+		 * The UTF-8 bytes of the frame
+		 */
+		byte[] data = text.getBytes(StandardCharsets.UTF_8);
+		toWorker.writeInt(data.length);
+		toWorker.write(data);
+		toWorker.flush();
+	}
+	/**
+	 * Reads one frame from the standard output of the worker
+	 * @return                 The text of the frame
+	 * @throws IOException     Occurs if the worker exits before a whole frame has been read
+	 */
+	private String readFrame() throws IOException {
+		try {
+			/**
+			 * The length of the frame in bytes
+			 */
+			int length = fromWorker.readInt();
+			/**
+			 * The UTF-8 bytes of the frame
+			 */
+			byte[] data = new byte[length];
+			fromWorker.readFully(data);
+			return new String(data, StandardCharsets.UTF_8);
+		}
+		catch (EOFException e) {
+			throw new IOException("NER worker exited unexpectedly", e);
+		}
+	}
+	/**
+	 * Removes the status line from a frame
+	 * @param frame     The text of a frame
+	 * @return          Everything after the first line of the frame
+	 */
+	private static String body(String frame) {
+		/**
+		 * The end of the status line
+		 */
+		int newline = frame.indexOf('\n');
+		return newline < 0 ? "" : frame.substring(newline + 1);
+	}
+}
@@ -0,0 +1,262 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+/**
+ * A pool of long-lived NER worker processes. Starting Python and loading the spaCy model takes far longer than
+ * tagging a document, so workers are started on demand, kept after each request and reused. Idle workers are pinged
+ * periodically and workers that have died or stopped responding are replaced the next time one is needed.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class NerWorkerPool implements Closeable {
+	/**
+	 * The command used to run Python
+	 */
+	public static final String PYTHON = "python";
+	/**
+	 * The Python file containing metric generation functionality
+	 */
+	public static final String SCRIPT = "res/december_report_nlp_test.py";
+	/**
+	 * The directory of the trained spaCy NER model
+	 */
+	public static final String MODEL = "res/ner_model";
+	/**
+	 * How often idle workers are checked, in seconds
+	 */
+	private static final long HEALTH_CHECK_SECONDS = 30;
+	/**
+	 * How long a worker has to answer a ping before it is considered hung, in seconds
+	 */
+	private static final long PING_TIMEOUT_SECONDS = 5;
+	/**
+	 * The pool shared by the whole program, created on first use
+	 */
+	private static NerWorkerPool sharedPool;
+	/**
+	 * The maximum number of workers in the pool
+	 */
+	private final int size;
+	/**
+	 * Workers that are not currently handling a request, most recently used first
+	 */
+	private final LinkedBlockingDeque<NerWorker> idle = new LinkedBlockingDeque<NerWorker>();
+	/**
+	 * The number of workers that currently exist, both idle and borrowed
+	 */
+	private int created = 0;
+	/**
+	 * True once the pool has been closed
+	 */
+	private volatile boolean closed = false;
+	/**
+	 * Runs the periodic health check on one thread and the pings that it sends on another
+	 */
+	private final ScheduledExecutorService healthChecker;
+	/**
+	 * Creates a pool that holds up to the provided number of workers
+	 * @param size     The maximum number of workers, which must be at least one
+	 */
+	public NerWorkerPool(int size) {
+		if (size < 1) {
+			throw new IllegalArgumentException("Pool size must be at least one");
+		}
+		this.size = size;
+		healthChecker = Executors.newScheduledThreadPool(2, runnable -> {
+			/**
+			 * A daemon thread so that the health check never keeps the program running
+			 */
+			Thread thread = new Thread(runnable, "ner-health-check");
+			thread.setDaemon(true);
+			return thread;
+		});
+		healthChecker.scheduleWithFixedDelay(this::checkIdleWorkers, HEALTH_CHECK_SECONDS, HEALTH_CHECK_SECONDS, TimeUnit.SECONDS);
+	}
+	/**
+	 * Returns the pool shared by the whole program, creating it on first use with a size based on the number of
+	 * available cores. The workers of the shared pool are stopped when the program exits.
+	 * @return     The shared pool
+	 */
+	public static synchronized NerWorkerPool getSharedPool() {
+		if (sharedPool == null) {
+			sharedPool = new NerWorkerPool(defaultSize());
+			/**
+			 * The pool being registered for shutdown
+			 */
+			final NerWorkerPool pool = sharedPool;
+			Runtime.getRuntime().addShutdownHook(new Thread(pool::close, "ner-pool-shutdown"));
+		}
+		return sharedPool;
+	}
+	/**
+	 * Returns the default pool size, which is half of the available cores so that PDF extraction keeps the rest
+	 * @return     The default number of workers
+	 */
+	public static int defaultSize() {
+		return Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+	}
+	/**
+	 * Returns the maximum number of workers in the pool
+	 * @return     The pool size
+	 */
+	public int getSize() {
+		return size;
+	}
+	/**
+	 * Takes a worker from the pool, starting a new one if none is idle and the pool is not full, or waiting for
+	 * one to be released otherwise. Idle workers whose process has exited are replaced.
+	 * @return                         A worker that must be given back with release or discard
+	 * @throws IOException             Occurs if a new worker cannot be started
+	 * @throws InterruptedException    Occurs if the thread is interrupted while waiting for a worker
+	 */
+	public NerWorker borrow() throws IOException, InterruptedException {
+		while (true) {
+			if (closed) {
+				throw new IOException("NER worker pool has been closed");
+			}
+			/**
+			 * An idle worker, if there is one
+			 */
+			NerWorker worker = idle.pollFirst();
+			if (worker == null) {
+				/**
+				 * True if a place in the pool was reserved for a new worker
+				 */
+				boolean reserved = false;
+				synchronized (this) {
+					if (created < size) {
+						created++;
+						reserved = true;
+					}
+				}
+				if (reserved) {
+					worker = startWorker();
+				}
+				else {
+					worker = idle.pollFirst(HEALTH_CHECK_SECONDS, TimeUnit.SECONDS);
+				}
+			}
+			if (worker != null) {
+				if (worker.isAlive()) {
+					return worker;
+				}
+				discard(worker);
+			}
+		}
+	}
+	/**
+	 * Gives a worker back to the pool once a request has finished
+	 * @param worker     A worker taken from the pool with borrow
+	 */
+	public void release(NerWorker worker) {
+		if (closed || !worker.isAlive()) {
+			discard(worker);
+		}
+		else {
+			idle.offerFirst(worker);
+		}
+	}
+	/**
+	 * Kills a worker that has failed or been cancelled and frees its place in the pool
+	 * @param worker     A worker taken from the pool with borrow
+	 */
+	public void discard(NerWorker worker) {
+		worker.destroy();
+		synchronized (this) {
+			created--;
+		}
+	}
+	/**
+	 * Pings every idle worker that has not been used since the last check and discards workers that have exited or
+	 * do not answer in time
+	 */
+	private void checkIdleWorkers() {
+		/**
+		 * The idle workers taken out of the pool for the check
+		 */
+		ArrayList<NerWorker> toCheck = new ArrayList<NerWorker>();
+		idle.drainTo(toCheck);
+		/**
+		 * Workers used more recently than this time are known to be responding
+		 */
+		long recent = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(HEALTH_CHECK_SECONDS);
+		for (int i = 0; i < toCheck.size(); i++) {
+			/**
+			 * The worker being checked
+			 */
+			NerWorker worker = toCheck.get(i);
+			/**
+			 * True if the worker is alive and either answered the ping in time or was used recently
+			 */
+			boolean healthy = worker.isAlive();
+			if (healthy && worker.getLastUsed() < recent) {
+				/**
+				 * The ping running on another thread so that a hung worker cannot block the check
+				 */
+				Future<Boolean> ping = healthChecker.submit(worker::ping);
+				try {
+					healthy = ping.get(PING_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+				}
+				catch (TimeoutException | ExecutionException e) {
+					healthy = false;
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					for (int j = i; j < toCheck.size(); j++) {
+						release(toCheck.get(j));
+					}
+					return;
+				}
+			}
+			if (healthy) {
+				release(worker);
+			}
+			else {
+				discard(worker);
+			}
+		}
+	}
+	/**
+	 * Starts a new worker process, freeing its place in the pool if it fails to start
+	 * @return                 The new worker
+	 * @throws IOException     Occurs if the process cannot be started or fails to load the model
+	 */
+	private NerWorker startWorker() throws IOException {
+		try {
+			return new NerWorker(PYTHON, SCRIPT, MODEL);
+		}
+		catch (IOException | RuntimeException e) {
+			synchronized (this) {
+				created--;
+			}
+			throw e;
+		}
+	}
+	/**
+	 * Stops the health check and asks every idle worker to exit. Borrowed workers are stopped when they are
+	 * released.
+	 */
+	public void close() {
+		closed = true;
+		healthChecker.shutdownNow();
+		/**
+		 * The idle workers to stop
+		 */
+		ArrayList<NerWorker> toClose = new ArrayList<NerWorker>();
+		idle.drainTo(toClose);
+		for (NerWorker worker : toClose) {
+			worker.close();
+			synchronized (this) {
+				created--;
+			}
+		}
+	}
+}
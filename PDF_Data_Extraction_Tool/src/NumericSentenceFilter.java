@@ -0,0 +1,104 @@
+/**
+ * A quick check for whether a sentence could hold a metric. A MEASURE/VALUE pair can only be found in a sentence
+ * that contains a digit or a number word, so sentences without either can be skipped before they reach the NER
+ * model. The check scans the characters of the sentence directly and never allocates.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class NumericSentenceFilter {
+	/**
+	 * Lower case words that represent a number without using digits
+	 */
+	private static final char[][] NUMBER_WORDS = toCharArrays(
+			"zero", "one", "two", "three", "four", "five", "six", "seven", "eight", "nine", "ten", "eleven",
+			"twelve", "thirteen", "fourteen", "fifteen", "sixteen", "seventeen", "eighteen", "nineteen", "twenty",
+			"thirty", "forty", "fifty", "sixty", "seventy", "eighty", "ninety", "hundred", "thousand", "million",
+			"billion", "trillion", "dozen", "half", "double", "triple", "twice");
+	/**
+	 * The length of the longest number word
+	 */
+	private static final int LONGEST_WORD = 9;
+	/**
+	 * Private constructor as the class only has static methods
+	 */
+	private NumericSentenceFilter() {
+
+	}
+	/**
+	 * Returns true if a sentence contains a digit or a whole number word, ignoring case
+	 * @param sentence     The sentence to check
+	 * @return             True if the sentence could contain a metric value
+	 */
+	public static boolean isCandidate(CharSequence sentence) {
+		/**
+		 * The length of the sentence
+		 */
+		int length = sentence.length();
+		/**
+		 * The index where the current run of letters started, or -1 if the previous character was not a letter
+		 */
+		int wordStart = -1;
+		for (int i = 0; i <= length; i++) {
+			/**
+			 * The current character, or a space after the end of the sentence so that the last word is checked
+			 */
+			char c = i < length ? sentence.charAt(i) : ' ';
+			if (Character.isDigit(c)) {
+				return true;
+			}
+			if (Character.isLetter(c)) {
+				if (wordStart < 0) {
+					wordStart = i;
+				}
+			}
+			else if (wordStart >= 0) {
+				if (i - wordStart <= LONGEST_WORD && isNumberWord(sentence, wordStart, i)) {
+					return true;
+				}
+				wordStart = -1;
+			}
+		}
+		return false;
+	}
+	/**
+	 * Returns true if a run of letters in a sentence is one of the number words, ignoring case
+	 * @param sentence     The sentence containing the run of letters
+	 * @param start        The index of the first letter
+	 * @param end          The index after the last letter
+	 * @return             True if the letters spell a number word
+	 */
+	private static boolean isNumberWord(CharSequence sentence, int start, int end) {
+		for (char[] word : NUMBER_WORDS) {
+			if (word.length != end - start) {
+				continue;
+			}
+			/**
+			 * True while every letter so far has matched the number word
+			 */
+			boolean matched = true;
+			for (int k = 0; k < word.length && matched; k++) {
+				matched = Character.toLowerCase(sentence.charAt(start + k)) == word[k];
+			}
+			if (matched) {
+				return true;
+			}
+		}
+		return false;
+	}
+	/**
+	 * Converts a list of words into character arrays
+	 * @param words     The words
+	 * @return          An array holding the characters of each word
+	 */
+	private static char[][] toCharArrays(String... words) {
+		/**
+		 * The characters of each word
+		 */
+		char[][] chars = new char[words.length][];
+		for (int i = 0; i < words.length; i++) {
+			chars[i] = words[i].toCharArray();
+		}
+		return chars;
+	}
+}
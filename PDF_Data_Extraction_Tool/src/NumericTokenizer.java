@@ -0,0 +1,341 @@
+import java.util.Arrays;
+/**
+ * A reusable scanner that finds the numbers in a text and records each one as primitive values in buffers that are
+ * kept between calls, so scanning a sentence allocates nothing once the buffers are large enough for it. A number
+ * may use commas as thousands separators, have a decimal part and be followed by a percent sign. A number preceded
+ * by a minus sign that does not join it to an earlier word or number, or enclosed in brackets as in financial
+ * statements, is negative. The value of each number is held as a long mantissa and a decimal scale, so that values
+ * such as amounts of money are exact. An instance must only be used by one thread at a time.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class NumericTokenizer {
+	/**
+	 * Flag of a number that is negative, either because of a minus sign or because it is in brackets
+	 */
+	public static final int NEGATIVE = 1;
+	/**
+	 * Flag of a number enclosed in brackets
+	 */
+	public static final int BRACKETED = 2;
+	/**
+	 * Flag of a number followed by a percent sign
+	 */
+	public static final int PERCENT = 4;
+	/**
+	 * Flag of a number with a decimal part
+	 */
+	public static final int DECIMAL = 8;
+	/**
+	 * Flag of a number with thousands separators
+	 */
+	public static final int GROUPED = 16;
+	/**
+	 * The unit of a number that has not been given a unit
+	 */
+	public static final int NO_UNIT = -1;
+	/**
+	 * The number of numbers the buffers hold before they first have to grow
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+	/**
+	 * The largest mantissa that another digit can be added to without overflowing
+	 */
+	private static final long MAX_MANTISSA = (Long.MAX_VALUE - 9) / 10;
+	/**
+	 * The index in the text of the first character of each number, including its sign or opening bracket
+	 */
+	private int[] starts = new int[INITIAL_CAPACITY];
+	/**
+	 * The index in the text after the last character of each number, including its percent sign or closing bracket
+	 */
+	private int[] ends = new int[INITIAL_CAPACITY];
+	/**
+	 * The digits of each number as a signed integer, without the decimal point
+	 */
+	private long[] mantissas = new long[INITIAL_CAPACITY];
+	/**
+	 * The number of decimal places of each mantissa, which is negative if trailing digits of a number too long for
+	 * a long were dropped
+	 */
+	private int[] scales = new int[INITIAL_CAPACITY];
+	/**
+	 * The flags of each number
+	 */
+	private int[] flags = new int[INITIAL_CAPACITY];
+	/**
+	 * The unit given to each number, or NO_UNIT
+	 */
+	private int[] units = new int[INITIAL_CAPACITY];
+	/**
+	 * The number of numbers found by the last scan
+	 */
+	private int count = 0;
+	/**
+	 * Default constructor
+	 */
+	public NumericTokenizer() {
+
+	}
+	/**
+	 * Finds every number in a text, replacing the numbers found by the previous scan
+	 * @param text     The text to scan
+	 * @return         The number of numbers found
+	 */
+	public int tokenize(CharSequence text) {
+		return tokenize(text, 0, text.length());
+	}
+	/**
+	 * Finds every number in part of a text, replacing the numbers found by the previous scan. Offsets of the numbers
+	 * are indexes into the whole text.
+	 * @param text     The text to scan
+	 * @param from     The index of the first character to scan
+	 * @param to       The index after the last character to scan
+	 * @return         The number of numbers found
+	 */
+	public int tokenize(CharSequence text, int from, int to) {
+		count = 0;
+		/**
+		 * The index of the next character to look at
+		 */
+		int i = from;
+		while (i < to) {
+			if (!Character.isDigit(text.charAt(i))) {
+				i++;
+				continue;
+			}
+			/**
+			 * The index of the first character of the number, which is moved back over a sign or bracket
+			 */
+			int start = i;
+			/**
+			 * The flags of the number
+			 */
+			int flag = 0;
+			/**
+			 * True if the number is preceded by an opening bracket, which makes it negative if the bracket is closed
+			 */
+			boolean opened = false;
+			if (i > from) {
+				/**
+				 * The character before the first digit
+				 */
+				char before = text.charAt(i - 1);
+				if ((before == '-' || before == '\u2212') && (i - 1 == from || !Character.isLetterOrDigit(text.charAt(i - 2)))) {
+					flag |= NEGATIVE;
+					start = i - 1;
+				}
+				else if (before == '(') {
+					opened = true;
+				}
+			}
+			/**
+			 * The digits read so far as an integer
+			 */
+			long mantissa = 0;
+			/**
+			 * The number of decimal places of the mantissa
+			 */
+			int scale = 0;
+			while (true) {
+				while (i < to && Character.isDigit(text.charAt(i))) {
+					if (mantissa <= MAX_MANTISSA) {
+						mantissa = mantissa * 10 + Character.digit(text.charAt(i), 10);
+					}
+					else {
+						scale--;
+					}
+					i++;
+				}
+				if (isThousandsSeparator(text, i, to)) {
+					flag |= GROUPED;
+					i++;
+				}
+				else {
+					break;
+				}
+			}
+			if (i + 1 < to && text.charAt(i) == '.' && Character.isDigit(text.charAt(i + 1))) {
+				flag |= DECIMAL;
+				i++;
+				while (i < to && Character.isDigit(text.charAt(i))) {
+					if (mantissa <= MAX_MANTISSA) {
+						mantissa = mantissa * 10 + Character.digit(text.charAt(i), 10);
+						scale++;
+					}
+					i++;
+				}
+			}
+			if (i < to && text.charAt(i) == '%') {
+				flag |= PERCENT;
+				i++;
+			}
+			else if (i + 1 < to && text.charAt(i) == ' ' && text.charAt(i + 1) == '%') {
+				flag |= PERCENT;
+				i += 2;
+			}
+			if (opened && i < to && text.charAt(i) == ')') {
+				flag |= NEGATIVE | BRACKETED;
+				start--;
+				i++;
+			}
+			add(start, i, (flag & NEGATIVE) != 0 ? -mantissa : mantissa, scale, flag);
+		}
+		return count;
+	}
+	/**
+	 * Returns true if the character at an index is a comma that separates thousands, which is one that is followed
+	 * by exactly three digits. The caller has just read a digit before the index.
+	 * @param text     The text being scanned
+	 * @param index    The index of the character
+	 * @param to       The index after the last character being scanned
+	 * @return         True if the character is a thousands separator
+	 */
+	private static boolean isThousandsSeparator(CharSequence text, int index, int to) {
+		if (index + 3 >= to || text.charAt(index) != ',') {
+			return false;
+		}
+		for (int k = 1; k <= 3; k++) {
+			if (!Character.isDigit(text.charAt(index + k))) {
+				return false;
+			}
+		}
+		return index + 4 >= to || !Character.isDigit(text.charAt(index + 4));
+	}
+	/**
+	 * Records a number, growing the buffers if they are full
+	 * @param start        The index of the first character of the number
+	 * @param end          The index after the last character of the number
+	 * @param mantissa     The signed digits of the number
+	 * @param scale        The number of decimal places of the mantissa
+	 * @param flag         The flags of the number
+	 */
+	private void add(int start, int end, long mantissa, int scale, int flag) {
+		if (count == starts.length) {
+			/**
+			 * The new capacity of the buffers
+			 */
+			int capacity = 2 * count;
+			starts = Arrays.copyOf(starts, capacity);
+			ends = Arrays.copyOf(ends, capacity);
+			mantissas = Arrays.copyOf(mantissas, capacity);
+			scales = Arrays.copyOf(scales, capacity);
+			flags = Arrays.copyOf(flags, capacity);
+			units = Arrays.copyOf(units, capacity);
+		}
+		starts[count] = start;
+		ends[count] = end;
+		mantissas[count] = mantissa;
+		scales[count] = scale;
+		flags[count] = flag;
+		units[count] = NO_UNIT;
+		count++;
+	}
+	/**
+	 * Returns the number of numbers found by the last scan
+	 * @return     The number of numbers
+	 */
+	public int size() {
+		return count;
+	}
+	/**
+	 * Returns the index in the text of the first character of a number, including its sign or opening bracket
+	 * @param token     The position of the number among those found by the last scan
+	 * @return          The index of the first character
+	 */
+	public int getStart(int token) {
+		return starts[token];
+	}
+	/**
+	 * Returns the index in the text after the last character of a number, including its percent sign or closing
+	 * bracket
+	 * @param token     The position of the number among those found by the last scan
+	 * @return          The index after the last character
+	 */
+	public int getEnd(int token) {
+		return ends[token];
+	}
+	/**
+	 * Returns the digits of a number as a signed integer, without the decimal point
+	 * @param token     The position of the number among those found by the last scan
+	 * @return          The mantissa of the number
+	 */
+	public long getMantissa(int token) {
+		return mantissas[token];
+	}
+	/**
+	 * Returns the number of decimal places of the mantissa of a number
+	 * @param token     The position of the number among those found by the last scan
+	 * @return          The scale of the number, which is negative if the number was too long to hold every digit
+	 */
+	public int getScale(int token) {
+		return scales[token];
+	}
+	/**
+	 * Returns the value of a number. A percentage is returned as written, so 12% is 12.
+	 * @param token     The position of the number among those found by the last scan
+	 * @return          The value of the number
+	 */
+	public double getValue(int token) {
+		return scales[token] >= 0 ? mantissas[token] / Math.pow(10, scales[token]) : mantissas[token] * Math.pow(10, -scales[token]);
+	}
+	/**
+	 * Returns the flags of a number
+	 * @param token     The position of the number among those found by the last scan
+	 * @return          Any of NEGATIVE, BRACKETED, PERCENT, DECIMAL and GROUPED combined
+	 */
+	public int getFlags(int token) {
+		return flags[token];
+	}
+	/**
+	 * Returns true if a number has a flag
+	 * @param token     The position of the number among those found by the last scan
+	 * @param flag      The flag
+	 * @return          True if the number has the flag
+	 */
+	public boolean hasFlag(int token, int flag) {
+		return (flags[token] & flag) != 0;
+	}
+	/**
+	 * Returns the unit given to a number
+	 * @param token     The position of the number among those found by the last scan
+	 * @return          The identifier of the unit, or NO_UNIT
+	 */
+	public int getUnit(int token) {
+		return units[token];
+	}
+	/**
+	 * Gives a number a unit
+	 * @param token     The position of the number among those found by the last scan
+	 * @param unit      The identifier of the unit, or NO_UNIT
+	 */
+	public void setUnit(int token, int unit) {
+		units[token] = unit;
+	}
+	/**
+	 * Appends a number to a buffer as its digits and decimal point without thousands separators, preceded by a
+	 * minus sign if it is negative and followed by a percent sign if it is a percentage. Every digit written in the
+	 * text is kept, however long the number is.
+	 * @param token     The position of the number among those found by the last scan
+	 * @param text      The text that was scanned
+	 * @param out       The buffer to append to
+	 */
+	public void appendNumber(int token, CharSequence text, StringBuilder out) {
+		if ((flags[token] & NEGATIVE) != 0) {
+			out.append('-');
+		}
+		for (int i = starts[token]; i < ends[token]; i++) {
+			/**
+			 * A character of the number
+			 */
+			char c = text.charAt(i);
+			if (Character.isDigit(c) || c == '.') {
+				out.append(c);
+			}
+		}
+		if ((flags[token] & PERCENT) != 0) {
+			out.append('%');
+		}
+	}
+}
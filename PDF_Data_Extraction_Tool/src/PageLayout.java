@@ -0,0 +1,123 @@
+import java.util.Arrays;
+/**
+ * The words of one page together with their bounding boxes, in the order that PDFBox wrote them. Coordinates are in
+ * points, measured from the left and top edges of the page. The boxes are kept in parallel primitive arrays so that a
+ * page with thousands of words needs only a handful of objects.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class PageLayout {
+	/**
+	 * The zero based index of the page
+	 */
+	private final int pageIndex;
+	/**
+	 * The text of each word
+	 */
+	private String[] words = new String[64];
+	/**
+	 * The left edge of each word
+	 */
+	private float[] left = new float[64];
+	/**
+	 * The right edge of each word
+	 */
+	private float[] right = new float[64];
+	/**
+	 * The top edge of each word
+	 */
+	private float[] top = new float[64];
+	/**
+	 * The bottom edge of each word, which is the baseline of its text
+	 */
+	private float[] bottom = new float[64];
+	/**
+	 * The number of words on the page
+	 */
+	private int size = 0;
+	/**
+	 * Creates an empty layout for a page
+	 * @param pageIndex     The zero based index of the page
+	 */
+	public PageLayout(int pageIndex) {
+		this.pageIndex = pageIndex;
+	}
+	/**
+	 * Adds a word to the end of the layout
+	 * @param word       The text of the word
+	 * @param left       The left edge of the word
+	 * @param top        The top edge of the word
+	 * @param right      The right edge of the word
+	 * @param bottom     The bottom edge of the word
+	 */
+	public void add(String word, float left, float top, float right, float bottom) {
+		if (size == words.length) {
+			words = Arrays.copyOf(words, size * 2);
+			this.left = Arrays.copyOf(this.left, size * 2);
+			this.right = Arrays.copyOf(this.right, size * 2);
+			this.top = Arrays.copyOf(this.top, size * 2);
+			this.bottom = Arrays.copyOf(this.bottom, size * 2);
+		}
+		words[size] = word;
+		this.left[size] = left;
+		this.right[size] = right;
+		this.top[size] = top;
+		this.bottom[size] = bottom;
+		size++;
+	}
+	/**
+	 * Returns the zero based index of the page
+	 * @return     The index of the page
+	 */
+	public int getPageIndex() {
+		return pageIndex;
+	}
+	/**
+	 * Returns the number of words on the page
+	 * @return     The number of words
+	 */
+	public int getWordCount() {
+		return size;
+	}
+	/**
+	 * Returns the text of a word
+	 * @param i     The index of the word
+	 * @return      The text of the word
+	 */
+	public String getWord(int i) {
+		return words[i];
+	}
+	/**
+	 * Returns the left edge of a word
+	 * @param i     The index of the word
+	 * @return      The distance from the left edge of the page in points
+	 */
+	public float getLeft(int i) {
+		return left[i];
+	}
+	/**
+	 * Returns the right edge of a word
+	 * @param i     The index of the word
+	 * @return      The distance from the left edge of the page in points
+	 */
+	public float getRight(int i) {
+		return right[i];
+	}
+	/**
+	 * Returns the top edge of a word
+	 * @param i     The index of the word
+	 * @return      The distance from the top edge of the page in points
+	 */
+	public float getTop(int i) {
+		return top[i];
+	}
+	/**
+	 * Returns the bottom edge of a word
+	 * @param i     The index of the word
+	 * @return      The distance from the top edge of the page in points
+	 */
+	public float getBottom(int i) {
+		return bottom[i];
+	}
+}
@@ -0,0 +1,94 @@
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.text.PDFTextStripperByArea;
+import org.apache.pdfbox.text.TextPosition;
+/**
+ * A text stripper for the region of the page used throughout the program that also records the bounding box of
+ * every word it writes, so that the layout of a page is available from the same pass that extracts its text. The
+ * text is the same as that of a plain PDFTextStripperByArea.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class PageWordStripper extends PDFTextStripperByArea {
+	/**
+	 * The layout of the page currently being extracted
+	 */
+	private PageLayout layout;
+	/**
+	 * Creates a stripper for ParallelTextExtractor.REGION
+	 * @throws IOException     Occurs if PDFBox cannot create the stripper
+	 */
+	public PageWordStripper() throws IOException {
+		addRegion(ParallelTextExtractor.REGION_NAME, ParallelTextExtractor.REGION);
+	}
+	/**
+	 * Extracts the text and the word boxes of a page. The text can be read afterwards with getText.
+	 * @param page             The page to extract
+	 * @param pageIndex        The zero based index of the page
+	 * @return                 The words of the page inside the region
+	 * @throws IOException     Occurs if the content of the page cannot be read
+	 */
+	public PageLayout extractLayout(PDPage page, int pageIndex) throws IOException {
+		layout = new PageLayout(pageIndex);
+		extractRegions(page);
+		return layout;
+	}
+	/**
+	 * Returns the text of the region of the page last extracted
+	 * @return     The extracted text
+	 */
+	public String getText() {
+		return getTextForRegion(ParallelTextExtractor.REGION_NAME);
+	}
+	/**
+	 * Records the bounding box of every word in a run of text before writing it. PDFBox only separates words where it
+	 * finds a gap, so spaces that are part of the text itself are also treated as word boundaries.
+	 * @param text             The text of the run
+	 * @param textPositions    The positions of the characters of the run
+	 * @throws IOException     Occurs if the text cannot be written
+	 */
+	@Override
+	protected void writeString(String text, List<TextPosition> textPositions) throws IOException {
+		if (layout != null) {
+			/**
+			 * The text of the word being built
+			 */
+			StringBuilder word = new StringBuilder();
+			/**
+			 * The edges of the word being built, grown to cover every character
+			 */
+			float left = 0, right = 0, top = 0, bottom = 0;
+			for (TextPosition position : textPositions) {
+				/**
+				 * The text of the character
+				 */
+				String unicode = position.getUnicode();
+				if (unicode == null || unicode.isBlank()) {
+					if (word.length() > 0) {
+						layout.add(word.toString(), left, top, right, bottom);
+						word.setLength(0);
+					}
+					continue;
+				}
+				if (word.length() == 0) {
+					left = position.getXDirAdj();
+					right = left;
+					top = Float.MAX_VALUE;
+					bottom = -Float.MAX_VALUE;
+				}
+				word.append(unicode);
+				left = Math.min(left, position.getXDirAdj());
+				right = Math.max(right, position.getXDirAdj() + position.getWidthDirAdj());
+				top = Math.min(top, position.getYDirAdj() - position.getHeightDir());
+				bottom = Math.max(bottom, position.getYDirAdj());
+			}
+			if (word.length() > 0) {
+				layout.add(word.toString(), left, top, right, bottom);
+			}
+		}
+		super.writeString(text, textPositions);
+	}
+}
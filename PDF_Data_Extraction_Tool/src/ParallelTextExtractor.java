@@ -0,0 +1,343 @@
+import java.awt.geom.Rectangle2D;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+/**
+ * Extraction engine that splits the pages of a PDF file into contiguous page ranges and runs a task, such as reading
+ * the text and words of each page, on each range on its own worker thread. PDFBox documents are not thread safe, so
+ * every worker loads and keeps its own PDDocument for the lifetime of the extractor. Documents are loaded by
+ * DocumentLoader, and no more workers are started than there are copies of the document that fit in the free heap.
+ * Closing the extractor waits for the workers to stop before their documents are closed.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class ParallelTextExtractor implements Closeable {
+	/**
+	 * Work done on a single page by one worker
+	 * @param <T>     The type of the result of each page
+	 */
+	public interface PageTask<T> {
+		/**
+		 * Reads one page
+		 * @param page             The page, which belongs to the document of the worker running the task
+		 * @param pageIndex        The zero based index of the page
+		 * @return                 The result for the page
+		 * @throws IOException     Occurs when the page cannot be read
+		 */
+		T process(PDPage page, int pageIndex) throws IOException;
+	}
+	/**
+	 * Creates the task used by one shard of pages
+	 * @param <T>     The type of the result of each page
+	 */
+	public interface PageTaskFactory<T> {
+		/**
+		 * Creates a task for one shard
+		 * @return                 A task that is only used by one thread
+		 * @throws IOException     Occurs when the task cannot be created
+		 */
+		PageTask<T> create() throws IOException;
+	}
+	/**
+	 * An area of the page that ignores possible headers and footers in the page
+	 */
+	public static final Rectangle2D REGION = new Rectangle2D.Double(0, 25, 595, 792);
+	/**
+	 * A name for the REGION object
+	 */
+	public static final String REGION_NAME = "region";
+	/**
+	 * The smallest number of pages worth handing to a separate worker, as every worker has to load its own copy of
+	 * the document
+	 */
+	private static final int MIN_PAGES_PER_WORKER = 8;
+	/**
+	 * The maximum number of workers used by new extractors, which defaults to the number of available cores
+	 */
+	private static volatile int workerCount = Runtime.getRuntime().availableProcessors();
+	/**
+	 * The PDF file that text is extracted from
+	 */
+	private final File file;
+	/**
+	 * One PDDocument for each worker, loaded on first use by the worker that owns it
+	 */
+	private final PDDocument[] documents;
+	/**
+	 * The number of pages in the PDF file
+	 */
+	private final int numPages;
+	/**
+	 * The threads that run the workers, or null if the extractor only has one worker
+	 */
+	private final ExecutorService executor;
+	/**
+	 * True once the extractor has been closed, after which no document is loaded, guarded by param documents
+	 */
+	private boolean closed = false;
+	/**
+	 * Creates an extractor for a PDF file that uses the configured number of workers
+	 * @param file             The PDF file for which to extract text
+	 * @throws IOException     Occurs when the PDF file is unable to be loaded as a PDDocument
+	 */
+	public ParallelTextExtractor(File file) throws IOException {
+		this(file, workerCount);
+	}
+	/**
+	 * Creates an extractor for a PDF file that uses up to the provided number of workers. Fewer workers are used
+	 * when the document is too small to benefit from them or too large for every worker to load a copy.
+	 * @param file             The PDF file for which to extract text
+	 * @param maxWorkers       The maximum number of workers
+	 * @throws IOException     Occurs when the PDF file is unable to be loaded as a PDDocument
+	 */
+	public ParallelTextExtractor(File file, int maxWorkers) throws IOException {
+		this.file = file;
+		/**
+		 * The document used by the first worker, which is also used to count the pages
+		 */
+		PDDocument firstDoc = DocumentLoader.load(file);
+		numPages = firstDoc.getNumberOfPages();
+		/**
+		 * The number of workers that have enough pages to be worth starting and whose copies of the document fit
+		 * in the free heap
+		 */
+		int numWorkers = Math.max(1, Math.min(Math.min(maxWorkers, DocumentLoader.maxOpenCopies(file)), (numPages + MIN_PAGES_PER_WORKER - 1) / MIN_PAGES_PER_WORKER));
+		documents = new PDDocument[numWorkers];
+		documents[0] = firstDoc;
+		if (numWorkers > 1) {
+			executor = Executors.newFixedThreadPool(numWorkers, runnable -> {
+				/**
+				 * A daemon thread so that an extractor that is not closed never keeps the program running
+				 */
+				Thread thread = new Thread(runnable, "text-extractor");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		else {
+			executor = null;
+		}
+	}
+	/**
+	 * Sets the maximum number of workers used by extractors created after this call
+	 * @param count     The number of workers, which must be at least one
+	 */
+	public static void setWorkerCount(int count) {
+		if (count < 1) {
+			throw new IllegalArgumentException("Worker count must be at least one");
+		}
+		workerCount = count;
+	}
+	/**
+	 * Returns the maximum number of workers used by new extractors
+	 * @return     The number of workers
+	 */
+	public static int getWorkerCount() {
+		return workerCount;
+	}
+	/**
+	 * Returns the number of pages in the PDF file
+	 * @return     The number of pages
+	 */
+	public int getNumberOfPages() {
+		return numPages;
+	}
+	/**
+	 * Returns the number of workers that the pages of the PDF file are shared between
+	 * @return     The number of workers
+	 */
+	public int getNumberOfWorkers() {
+		return documents.length;
+	}
+	/**
+	 * Runs a task on every page of a range, splitting the range into one contiguous shard for each worker. Each
+	 * shard creates its own task from the factory, so a task may keep state such as a text stripper between the
+	 * pages of its shard without being shared between threads.
+	 * @param <T>              The type of the result of each page
+	 * @param startPage        The zero based index of the first page
+	 * @param endPage          The zero based index after the last page
+	 * @param factory          Creates the task used by one shard
+	 * @return                 The result of each page in the range, in page order
+	 * @throws IOException     Occurs when a worker is unable to read a page
+	 */
+	public <T> List<T> processPages(int startPage, int endPage, PageTaskFactory<T> factory) throws IOException {
+		if (startPage < 0 || endPage > numPages || startPage > endPage) {
+			throw new IndexOutOfBoundsException("Invalid page range " + startPage + "-" + endPage + " for " + numPages + " pages");
+		}
+		/**
+		 * The result of each page in the range
+		 */
+		Object[] results = new Object[endPage - startPage];
+		/**
+		 * The number of workers that the range is shared between
+		 */
+		int numShards = Math.min(documents.length, results.length);
+		if (numShards <= 1) {
+			processShard(0, startPage, endPage, factory, results, startPage);
+			return asList(results);
+		}
+		/**
+		 * The result of each worker, kept so that failures can be reported once every worker has finished
+		 */
+		List<Future<Void>> shards = new ArrayList<Future<Void>>(numShards);
+		for (int i = 0; i < numShards; i++) {
+			/**
+			 * The worker that handles this shard
+			 */
+			final int worker = i;
+			/**
+			 * The first page of the shard
+			 */
+			final int shardStart = startPage + (int) ((long) results.length * i / numShards);
+			/**
+			 * The page after the last page of the shard
+			 */
+			final int shardEnd = startPage + (int) ((long) results.length * (i + 1) / numShards);
+			shards.add(executor.submit(() -> {
+				processShard(worker, shardStart, shardEnd, factory, results, startPage);
+				return null;
+			}));
+		}
+		/**
+		 * The first failure of any worker
+		 */
+		IOException failure = null;
+		for (Future<Void> shard : shards) {
+			try {
+				shard.get();
+			}
+			catch (ExecutionException e) {
+				if (failure == null) {
+					failure = e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException("Failed to read page", e.getCause());
+				}
+			}
+			catch (InterruptedException e) {
+				for (Future<Void> other : shards) {
+					other.cancel(true);
+				}
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Page processing was interrupted");
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+		return asList(results);
+	}
+	/**
+	 * Runs a task on a contiguous range of pages using the document belonging to one worker
+	 * @param <T>              The type of the result of each page
+	 * @param worker           The index of the worker
+	 * @param shardStart       The first page of the range
+	 * @param shardEnd         The page after the last page of the range
+	 * @param factory          Creates the task used for the range
+	 * @param results          The array that the result of each page is written to
+	 * @param offset           The page that corresponds to the first element of param results
+	 * @throws IOException     Occurs when the worker's document cannot be loaded or a page cannot be read
+	 */
+	private <T> void processShard(int worker, int shardStart, int shardEnd, PageTaskFactory<T> factory, Object[] results, int offset) throws IOException {
+		/**
+		 * The document that belongs to the worker
+		 */
+		PDDocument pdDoc;
+		synchronized (documents) {
+			if (closed) {
+				throw new IOException("Extractor has been closed");
+			}
+			pdDoc = documents[worker];
+		}
+		if (pdDoc == null) {
+			// The document is loaded without holding the lock so that the workers load their copies at the same time
+			pdDoc = DocumentLoader.load(file);
+			synchronized (documents) {
+				if (closed) {
+					pdDoc.close();
+					throw new IOException("Extractor has been closed");
+				}
+				documents[worker] = pdDoc;
+			}
+		}
+		/**
+		 * The task reused for every page in the range
+		 */
+		PageTask<T> task = factory.create();
+		for (int j = shardStart; j < shardEnd; j++) {
+			results[j - offset] = task.process(pdDoc.getPage(j), j);
+		}
+	}
+	/**
+	 * Views the results written by the workers as a list of their type
+	 * @param <T>         The type of the result of each page
+	 * @param results     The result of each page
+	 * @return            A fixed size list backed by the array
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> List<T> asList(Object[] results) {
+		return (List<T>) Arrays.asList(results);
+	}
+	/**
+	 * Stops the workers, waits for any page they are still reading and closes every document that was loaded. A
+	 * worker that has not loaded its document yet no longer loads it.
+	 * @throws IOException     Occurs when a document cannot be closed
+	 */
+	public void close() throws IOException {
+		synchronized (documents) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+		}
+		if (executor != null) {
+			executor.shutdownNow();
+			/**
+			 * True if the thread was interrupted while waiting, which is passed on once the workers have stopped
+			 */
+			boolean interrupted = false;
+			while (true) {
+				try {
+					if (executor.awaitTermination(1, TimeUnit.MINUTES)) {
+						break;
+					}
+				}
+				catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		/**
+		 * The first failure when closing a document
+		 */
+		IOException failure = null;
+		for (PDDocument pdDoc : documents) {
+			if (pdDoc != null) {
+				try {
+					pdDoc.close();
+				}
+				catch (IOException e) {
+					if (failure == null) {
+						failure = e;
+					}
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+}
@@ -1,3 +1,5 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
@@ -19,7 +21,6 @@ import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.Table;
 import org.eclipse.swt.widgets.TableColumn;
-import org.eclipse.swt.widgets.TableItem;
 /**
  * This class encompasses all the functionality for generating a list of all the tables found in a PDF document as 
  * well as the option to export individual tables to a CSV file. It contains methods for generating a list of 
@@ -30,13 +31,31 @@ import org.eclipse.swt.widgets.TableItem;
  */
 public class PdfTable {
 	/**
-	 * The title of the table
+	 * When the tabula Python file is used to find the tables of a PDF file
 	 */
-	private String title;
+	public enum TabulaUse {
+		/**
+		 * Only when the TableDetector finds no table anywhere in the file
+		 */
+		FALLBACK,
+		/**
+		 * Never, so that only the TableDetector is used
+		 */
+		NEVER,
+		/**
+		 * Always, instead of the TableDetector
+		 */
+		ALWAYS
+	}
 	/**
-	 * A list of strings containing all the data for the rows and columns of the table
+	 * The start of the name of the entries in the ExtractionCache that hold the tables of a PDF file, which is
+	 * followed by how the tables were found
 	 */
-	private ArrayList<String> uiTable;
+	private static final String CACHE_KIND = "tables";
+	/**
+	 * The title of the table
+	 */
+	private String title;
 	/**
 	 * A table widget for displaying the table information in the user interface
 	 */
@@ -46,13 +65,24 @@ public class PdfTable {
 	 */
 	private ArrayList<ArrayList<String>> rowsAndCells = new ArrayList<ArrayList<String>>();
 	/**
-	 * Constructor that sets the title of the PdfTable object and initialises the uiTable property with the table
-	 * data
-	 * @param table     The data for the table, which is a list of rows including the column titles
+	 * Constructor that sets the title of the PdfTable object to an empty string
 	 */
-	public PdfTable(ArrayList<String> table) {
+	private PdfTable() {
 		title = "";
-		uiTable = table;
+	}
+	/**
+	 * Creates a PdfTable from cells that have already been separated, such as those found by a TableDetector
+	 * @param cells     The rows of the table, each split into its cells, where the first row holds the column
+	 *                  titles
+	 * @return          A PdfTable holding the cells
+	 */
+	public static PdfTable fromCells(ArrayList<ArrayList<String>> cells) {
+		/**
+		 * The table to be returned
+		 */
+		PdfTable table = new PdfTable();
+		table.setRowsAndCells(cells);
+		return table;
 	}
 	/**
 	 * Sets the title property with a user provided value
@@ -68,20 +98,6 @@ public class PdfTable {
 	public String getTitle() {
 		return title;
 	}
-	/**
-	 * Sets the value of the uiTable property with a provided list of table data
-	 * @param table     A list of table data
-	 */
-	public void setUiTable(ArrayList<String> table) {
-		uiTable = table;
-	}
-	/**
-	 * Get the value of the uiTable property
-	 * @return         A list of strings of table data
-	 */
-	public ArrayList<String> getUiTable() {
-		return uiTable;
-	}
 	/**
 	 * Sets the value of the displayTable property
 	 * @param table    An SWT table widget
@@ -112,121 +128,163 @@ public class PdfTable {
 		return rowsAndCells;
 	}
 	/**
-	 * Given all the lines from the standard output of a Python file that was used to generate table data, returns
-	 * a list of lists containing the table data for every individual table from the pool of all tables
-	 * @param combinedTables     The table data of all the tables combined
-	 * @return
+	 * Finds the tables in a PDF file by executing the tabula Python file and decoding the tables it writes to its
+	 * standard output, which are in the format read by TableCodec
+	 * @param pdfFile                  The PDF file for which to find tables
+	 * @return                         A list of PdfTable objects for each table
+	 * @throws IOException             Occurs if the Python file cannot be executed or its output is incomplete
+	 * @throws InterruptedException    Occurs if the thread is interrupted while waiting for the Python file
+	 */
+	public static ArrayList<PdfTable> readTabulaTables(File pdfFile) throws IOException, InterruptedException {
+		return readTabulaTables(pdfFile, new JobMonitor());
+	}
+	/**
+	 * Finds the tables in a PDF file with the tabula Python file, killing the Python process if the job is cancelled
+	 * @param pdfFile                  The PDF file for which to find tables
+	 * @param monitor                  Tells the job when it has been cancelled
+	 * @return                         A list of PdfTable objects for each table
+	 * @throws IOException             Occurs if the Python file cannot be executed, its output is incomplete or the
+	 *                                 job is cancelled
+	 * @throws InterruptedException    Occurs if the thread is interrupted while waiting for the Python file
 	 */
-	public static ArrayList<ArrayList<String>> conjureTables(ArrayList<String> combinedTables) {
+	public static ArrayList<PdfTable> readTabulaTables(File pdfFile, JobMonitor monitor) throws IOException, InterruptedException {
 		/**
-		 * The resulting list of table data, split for each individual table in the overall pool of tables provided
+		 * A ProcessBuilder object for executing a Python file that contains table extraction functionality. Error
+		 * output is not merged with standard output as it would corrupt the tables.
 		 */
-		ArrayList<ArrayList<String>> individualTables = new ArrayList<ArrayList<String>>();
+		ProcessBuilder pb = new ProcessBuilder("python", "res/tabula_real.py", pdfFile.getPath());
+		pb.redirectError(ProcessBuilder.Redirect.INHERIT);
 		/**
-		 * The number of rows in one table
+		 * Process object that handles the execution of the Python file
 		 */
-		int numRows = 0;
-		for (int i = 0; i < combinedTables.size(); i++) {
-			if (combinedTables.get(i).contains("DIMENSIONS*** OF** TABLE*")) {
-				/**
-				 * Table date for one table
-				 */
-				ArrayList<String> table = new ArrayList<String>();
-				/**
-				 * The dimensions of one table, which is information purposefully provided in particular lines 
-				 * (the line before the table data begins) of the standard output of the Python file that is 
-				 * used to generate the table data
-				 */
-				String[] dimensions = combinedTables.get(i).split(" ");
-				if (dimensions.length == 5) {
-				    numRows = Integer.parseInt(combinedTables.get(i).split(" ")[3]);
-				}
-			
-				for (int j = i+1; j <= i+numRows+1; j++) {
-					table.add(combinedTables.get(j)+" ");
-			    }
-				
-				if (table.size() > 0) {
-					//System.out.println(table);
-					individualTables.add(table);
-				}
-				i = i + numRows;
+		Process process = pb.start();
+		/**
+		 * Kills the Python process if the job is cancelled
+		 */
+		Runnable killProcess = process::destroyForcibly;
+		monitor.onCancel(killProcess);
+		/**
+		 * Holds a list of PdfTable objects for each table
+		 */
+		ArrayList<PdfTable> uiTables = new ArrayList<PdfTable>();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(process.getInputStream()))) {
+			/**
+			 * The rows and cells of the next table, or null once every table has been read
+			 */
+			ArrayList<ArrayList<String>> cells = TableCodec.readTable(in);
+			while (cells != null) {
+				uiTables.add(fromCells(cells));
+				cells = TableCodec.readTable(in);
 			}
 		}
-		
-		return individualTables;
+		catch (IOException e) {
+			process.destroyForcibly();
+			throw e;
+		}
+		finally {
+			monitor.removeCancelHook(killProcess);
+		}
+		process.waitFor();
+		return uiTables;
+	}
+	/**
+	 * Finds the tables in a PDF file with a TableDetector in auto mode, falling back to the tabula Python file if
+	 * the detector finds no table in the file
+	 * @param pdfFile                  The PDF file for which to find tables
+	 * @param monitor                  Receives the progress of the job and tells it when it has been cancelled
+	 * @return                         A list of PdfTable objects for each table
+	 * @throws IOException             Occurs if the PDF file cannot be read or the Python file fails
+	 * @throws InterruptedException    Occurs if the thread is interrupted while waiting for the Python file
+	 */
+	public static ArrayList<PdfTable> findTables(File pdfFile, JobMonitor monitor) throws IOException, InterruptedException {
+		return findTables(pdfFile, TableDetector.Mode.AUTO, TabulaUse.FALLBACK, monitor);
 	}
 	/**
-	 * Given the row data of a table, this method splits each of the rows into its individual cells based on the 
-	 * fact that every cell ends at the same character index in the row. Sets the value of the rowsAndCells property
-	 * of the PdfTable object at the end of the method.
+	 * Finds the tables in a PDF file with a TableDetector in the provided mode, the tabula Python file or both. The
+	 * tables of a file that has already been processed in the same way are read from the ExtractionCache without
+	 * parsing the file or starting Python.
+	 * @param pdfFile                  The PDF file for which to find tables
+	 * @param mode                     How the TableDetector recognises tables, unused if param tabula is ALWAYS
+	 * @param tabula                   When the tabula Python file is used
+	 * @param monitor                  Receives the progress of the job and tells it when it has been cancelled
+	 * @return                         A list of PdfTable objects for each table
+	 * @throws IOException             Occurs if the PDF file cannot be read or the Python file fails
+	 * @throws InterruptedException    Occurs if the thread is interrupted while waiting for the Python file
 	 */
-	public void generateRowsAndCells() {
-		rowsAndCells.clear();
+	public static ArrayList<PdfTable> findTables(File pdfFile, TableDetector.Mode mode, TabulaUse tabula, JobMonitor monitor) throws IOException, InterruptedException {
 		/**
-		 * The table data of the PdfTable object
+		 * The name of the cache entry, which differs for every way of finding the tables
 		 */
-		ArrayList<String> tableToView = getUiTable();
+		String kind = tabula == TabulaUse.ALWAYS ? CACHE_KIND + "-tabula" : CACHE_KIND + "-" + mode.name().toLowerCase() + (tabula == TabulaUse.FALLBACK ? "-tabula" : "");
 		/**
-		 * A list of indexes in each row whereby a split needs to occur in order to split the row into its
-		 * individual cells
+		 * The number of pages of the PDF file, read from the cache entry before its tables
 		 */
-		ArrayList<Integer> splitIndexes = new ArrayList<Integer>();
+		int[] storedPages = new int[1];
 		/**
-		 * The number of rows in the table data
+		 * The tables stored by an earlier run, if there are any
 		 */
-		int sizeOfTable = tableToView.size();
+		ArrayList<PdfTable> tables = ExtractionCache.read(pdfFile, kind, in -> {
+			storedPages[0] = in.readInt();
+			return readTables(in);
+		});
+		if (tables != null) {
+			monitor.finishedFromCache(storedPages[0]);
+			return tables;
+		}
+		if (tabula == TabulaUse.ALWAYS) {
+			tables = readTabulaTables(pdfFile, monitor);
+		}
+		else {
+			tables = new TableDetector(mode).detectTables(pdfFile, monitor);
+			if (tables.isEmpty() && tabula == TabulaUse.FALLBACK) {
+				tables = readTabulaTables(pdfFile, monitor);
+			}
+		}
 		/**
-		 * The first row in the table data, usually for the column titles
+		 * The tables found, for the cache entry
 		 */
-		String firstRow = tableToView.get(0);
-		for (int l = 0; l < firstRow.length()-1; l++) {
-			if (firstRow.charAt(l) != ' ' && firstRow.charAt(l+1) == ' ') {
-				/**
-				 * Returns true if the current character is potentially the end of the cell, based on the fact that
-				 * there is a non-space character followed by a space character
-				 */
-				boolean endCell = true;
-				for (int m = 1; m < sizeOfTable; m++) {
-					if (tableToView.get(m).charAt(l) != ' ' && tableToView.get(m).charAt(l+1) == ' ') {
-						continue;
-					}
-					else {
-						endCell = false;
-						break;
-					}
-				}
-				if (endCell) {
-					splitIndexes.add(l+1);
-					l++;
-				}
-		    }
-		}
-		
-		for (int n = 0; n < sizeOfTable; n++) {
-			/**
-			 * A list of resulting cells in a row of the table
-			 */
-			ArrayList<String> oneRow = new ArrayList<String>();
+		final ArrayList<PdfTable> found = tables;
+		/**
+		 * The number of pages of the PDF file, as counted while the tables were found
+		 */
+		int numPages = monitor.getTotal();
+		ExtractionCache.write(pdfFile, kind, out -> {
+			out.writeInt(numPages);
+			for (PdfTable table : found) {
+				out.writeBoolean(true);
+				ExtractionCache.writeString(out, table.getTitle() != null ? table.getTitle() : "");
+				TableCodec.writeTable(out, table.getRowsAndCells());
+			}
+			out.writeBoolean(false);
+		});
+		return tables;
+	}
+	/**
+	 * Reads the tables of a PDF file from a cache entry, after the number of pages of the file that comes first, where
+	 * each table is a true flag, its title and its cells in the format of TableCodec, and a false flag follows the
+	 * last table
+	 * @param in               The stream the entry is read from
+	 * @return                 A list of PdfTable objects for each table
+	 * @throws IOException     Occurs if the entry cannot be read
+	 */
+	private static ArrayList<PdfTable> readTables(DataInputStream in) throws IOException {
+		/**
+		 * The tables read
+		 */
+		ArrayList<PdfTable> tables = new ArrayList<PdfTable>();
+		while (in.readBoolean()) {
 			/**
-			 * A row of the table
+			 * The title of the table
 			 */
-			String row = tableToView.get(n);
+			String title = ExtractionCache.readString(in);
 			/**
-			 * The number of indexes where a split needs to occur within the row string
+			 * The table built directly from its cells
 			 */
-			int numPointsToSplit = splitIndexes.size();
-			for (int o = 0; o < numPointsToSplit; o++) {
-				if (o == 0) {
-					oneRow.add(row.substring(0, splitIndexes.get(o)));
-				}
-				else {
-					oneRow.add(row.substring(splitIndexes.get(o-1)+1, splitIndexes.get(o)));
-				}
-			}
-			
-			rowsAndCells.add(oneRow);
+			PdfTable table = fromCells(TableCodec.readTable(in));
+			table.setTitle(title);
+			tables.add(table);
 		}
+		return tables;
 	}
 	/**
 	 * Create a table widget from the table data provided and set the value of the displayTable property of the
@@ -234,14 +292,13 @@ public class PdfTable {
 	 * @param content     The parent composite of the table widget to be created
 	 */
 	public void generateTable(Composite content) {
-		generateRowsAndCells();
 		/**
 		 * The table widget to be created
 		 */
 		Table uiTable = null;
 		
 		if (rowsAndCells.size() > 0) {
-			uiTable = new Table(content, SWT.BORDER | SWT.FULL_SELECTION);
+			uiTable = new Table(content, SWT.BORDER | SWT.FULL_SELECTION | SWT.VIRTUAL);
 			uiTable.setHeaderVisible(true);
 			/**
 			 * GridData object for the table that allows the table to fill any extra horizontal space
@@ -254,42 +311,27 @@ public class PdfTable {
 			int tableItemHeight = uiTable.getItemHeight();
 			gridData.heightHint = 20 * tableItemHeight;
 			uiTable.setLayoutData(gridData);
-			/**
-			 * The number of columns in the table
-			 */
-			int numCols = 0;
 			
-			for (int i = 0; i < rowsAndCells.size(); i++) {
+			for (String title : rowsAndCells.get(0)) {
 				/**
-				 * A row of cells in the table data
+				 * A new column in the SWT table for each cell in the first row of table data
 				 */
-				ArrayList<String> row = rowsAndCells.get(i);
+				TableColumn col = new TableColumn(uiTable, SWT.NULL);
+				col.setText(title);
+			}
+			/**
+			 * The rows and cells shown in the table, where the rows after the column titles are only read when they
+			 * scroll into view
+			 */
+			final ArrayList<ArrayList<String>> cells = rowsAndCells;
+			VirtualTable.attach(uiTable);
+			VirtualTable.setRows(uiTable, cells.size() - 1, i -> {
 				/**
-				 * One row in the SWT table
+				 * A row of cells in the table data
 				 */
-				TableItem tItem = null;
-				
-				for (int j = 0; j < row.size(); j++) {
-					if (i == 0) {
-						numCols = row.size();
-						/**
-						 * A new column in the SWT table for each cell in the first row of table data
-						 */
-						TableColumn col = new TableColumn(uiTable, SWT.NULL);
-						col.setText(row.get(j));
-					}
-					else {
-						if (j == 0) {
-							tItem = new TableItem(uiTable, SWT.NULL);
-						}
-						tItem.setText(j, row.get(j));
-					}
-				}
-			}
-			
-			for (int k = 0; k < numCols; k++) {
-				uiTable.getColumn(k).pack();
-			}
+				ArrayList<String> row = cells.get(i + 1);
+				return row.toArray(new String[row.size()]);
+			});
 		}
 		
 		displayTable = uiTable;
@@ -303,8 +345,10 @@ public class PdfTable {
 	 *                            displayTable property of the PdfTable object
 	 * @param tables              A list of PdfTable objects for which items will be present in the list to be 
 	 *                            created
+	 * @param request             The PDF file and save location that the tables were generated for, which
+	 *                            decide where exported tables are saved
 	 */
-	public static void generateList(Shell shell, Composite content, Composite superContent, ArrayList<PdfTable> tables) {
+	public static void generateList(Shell shell, Composite content, Composite superContent, ArrayList<PdfTable> tables, ExtractionRequest request) {
 		/**
 		 * Counter for iteration through the list of PdfTable objects in the tables parameter 
 		 */
@@ -362,14 +406,6 @@ public class PdfTable {
 				 * Array of the indices in the list that have been selected by the user
 				 */
 		        int[] selections = _titleList.getSelectionIndices();
-		        /**
-		         * int[] of selection indices converted to Integer[] of selection indices
-		         */
-		        Integer[] selectionsForList = Arrays.stream(selections).boxed().toArray(Integer[]::new);
-		        /**
-		         * Integer[] of selection indices converted to list of integers of selection indices
-		         */
-		        List<Integer> selectionsList = Arrays.asList(selectionsForList);
 		        if (selections.length > 0) {
 		        	for (int i = 0; i < tables.size(); i++) {
 		        		/**
@@ -382,9 +418,6 @@ public class PdfTable {
 		        		    }
 		        		    superContent.layout(true, true);
 		        		}
-		        		if (selectionsList.contains(i)) {
-		        			tables.get(i).generateRowsAndCells();
-		        		}
 		        	}
 		        }
 		        if (selections.length == 1) {
@@ -412,8 +445,11 @@ public class PdfTable {
 				int[] selections = _titleList.getSelectionIndices();
 				try {
 					if (selections.length > 0) {
-					    generateTableCsv(tables, selections);
-					    exportResultLabel.setText("CSV successfully generated at: " + FileInputScreen.getSaveLocationPath() + "\\" + FileInputScreen.fileName + "-tables-" + java.time.LocalDate.now() + ".csv");
+					    /**
+					     * The CSV file that the selected tables were saved to
+					     */
+					    File csvOutputFile = generateTableCsv(request, tables, selections);
+					    exportResultLabel.setText("CSV successfully generated at: " + csvOutputFile.getPath());
 					    content.layout(true, true);
 					    superContent.layout(true, true);
 					}
@@ -464,15 +500,17 @@ public class PdfTable {
 	}
 	/**
 	 * Generates a new file containing comma separated values for every table selected by the user to export
+	 * @param request              The PDF file and save location that the tables were generated for
 	 * @param tables               ArrayList of PdfTable objects
 	 * @param selections           The selection indices of PdfTable objects in a list
+	 * @return                     The CSV file that was saved
 	 * @throws IOException         Occurs if the file specified is unable to be found by the PrintWriter object
 	 */
-	public static void generateTableCsv(ArrayList<PdfTable> tables, int[] selections) throws IOException {
+	public static File generateTableCsv(ExtractionRequest request, ArrayList<PdfTable> tables, int[] selections) throws IOException {
 		/**
-		 * A new CSV file in the same directory as the PDF file for which the tables were generated
+		 * A new CSV file in the save location of the request
 		 */
-		File csvOutputFile = new File(FileInputScreen.getSaveLocationPath() + "/" + FileInputScreen.fileName + "-tables-" + java.time.LocalDate.now() + ".csv");
+		File csvOutputFile = request.getTableCsvFile();
 		/**
 		 * A new PrintWriter object for writing data to the newly created CSV file
 		 */
@@ -503,5 +541,6 @@ public class PdfTable {
 		}
 		
 		pw.close();
+		return csvOutputFile;
 	}
 }
\ No newline at end of file
@@ -1,17 +1,18 @@
-import java.awt.geom.Rectangle2D;
 import java.io.File;
-import org.apache.pdfbox.*;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.font.PDFont;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
-import org.apache.pdfbox.text.PDFTextStripperByArea;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Iterator;
+import java.util.concurrent.CancellationException;
+import java.util.function.IntSupplier;
 /**
  * Class that encompasses all of the functionality required to generate an automated report based on keyword inputs
  * provided by user
@@ -21,9 +22,10 @@ import java.util.Iterator;
  */
 public class ReportGenerator {
 	/**
-	 * Array that holds all of the keywords provided by the user in the FileInputScreen class
+	 * The name of the entries in the ExtractionCache that record that a PDF file has been searched before, so that
+	 * its SentenceIndex is built the next time it is searched
 	 */
-	private static String[] keywords;
+	private static final String SEARCHED_KIND = "searched";
 	/**
 	 * Default constructor for the class
 	 */
@@ -34,80 +36,61 @@ public class ReportGenerator {
 	 * Extracts all the text from a PDF file and returns a string containing the extracted text
 	 * @param newFile          A file object representing the PDF file for which to extract text
 	 * @return                 A string representing the extracted text
-	 * @throws IOException     Occurs when the loadPDF method of the Loader class is not able to load the specified
-	 *                         param newFile as a PDDocument 
+	 * @throws IOException     Occurs when the DocumentLoader class is not able to load the specified param newFile
+	 *                         as a PDDocument
 	 */
 	public static String extractTextFromPDF(File newFile) throws IOException {
-		/**
-		 * A PDDocument object that represents the PDF file for which text needs to be extracted
-		 */
-		PDDocument pdDoc = Loader.loadPDF(newFile);
-		/**
-		 * A string representing the extracted text
-		 */
-		String pageText = "";
-		/**
-		 * An area of the page that ignores possible headers and footers in the page
-		 */
-		Rectangle2D region = new Rectangle2D.Double(0, 25, 595, 792);
-		/**
-		 * A name for the Rectangle2D object
-		 */
-		String regionName = "region";
-		/**
-		 * The number of pages in the PDF file
-		 */
-		int numPages = pdDoc.getNumberOfPages();
-		
-		for (int j = 0; j < numPages; j++) {
-			/**
-			 * An object that only extracts text in a particular region of the page
-			 */
-			PDFTextStripperByArea stripper = new PDFTextStripperByArea();
-			/**
-			 * One page of the PDF file, based on the index provided in the loop
-			 */
-			PDPage page = pdDoc.getPage(j);
-			stripper.addRegion(regionName, region);
-			stripper.extractRegions(page);
-			pageText += stripper.getTextForRegion(regionName);
-		}
-		pdDoc.close();
-		
-		return pageText;
+		return DocumentSession.open(newFile).getText();
 	}
 	/**
-	 * Generates a PDF file report of sentences containing a keyword based on a PDF file selected by the user 
-	 * and a set of keywords
-	 * @param newFile          File object representing a PDF file selected by the user
+	 * Generates a PDF file report of sentences containing a keyword based on the PDF file and keywords of a request
+	 * @param request          The PDF file, keywords and save location of the report
+	 * @return                 The report file that was saved
 	 * @throws IOException     Occurs if the extractTextFromPDF method is unable to extract the text from the
 	 *                         specified PDF file
 	 */
+	public static File generateReport(ExtractionRequest request) throws IOException {
+		return generateReport(request, new JobMonitor());
+	}
+	/**
+	 * Generates a PDF file report of sentences containing a keyword, reporting each page searched to a monitor and
+	 * stopping between pages if the job is cancelled
+	 * @param request                    The PDF file, keywords and save location of the report
+	 * @param monitor                    Receives the progress of the job and tells it when it has been cancelled
+	 * @return                           The report file that was saved
+	 * @throws IOException               Occurs if the text cannot be extracted from the PDF file or the report
+	 *                                   cannot be saved
+	 * @throws CancellationException     Occurs if the job is cancelled
+	 */
+	public static File generateReport(ExtractionRequest request, JobMonitor monitor) throws IOException {
+		return generateReport(request, new SearchStatistics(), monitor);
+	}
+	/**
+	 * Generates a PDF file report of sentences containing a keyword, recording how the search was answered and
+	 * reporting each page searched to a monitor
+	 * @param request                    The PDF file, keywords and save location of the report
+	 * @param statistics                 Receives the number of files and pages skipped by their filters
+	 * @param monitor                    Receives the progress of the job and tells it when it has been cancelled
+	 * @return                           The report file that was saved
+	 * @throws IOException               Occurs if the text cannot be extracted from the PDF file or the report
+	 *                                   cannot be saved
+	 * @throws CancellationException     Occurs if the job is cancelled
+	 */
 	@SuppressWarnings("resource")
-	public static void generateReport(File newFile) throws IOException {
-		keywords = FileInputScreen.words;
+	public static File generateReport(ExtractionRequest request, SearchStatistics statistics, JobMonitor monitor) throws IOException {
 		/**
-		 * ArrayList for holding all non-empty keywords provided by user in FileInputScreen
+		 * ArrayList for holding all non-empty keywords of the request
 		 */
-		ArrayList<String> sentenceKeywords = new ArrayList<String>();
-		
-		for (int i = 0; i < keywords.length; i++) {
-			if (keywords[i] != "") {
-				sentenceKeywords.add(keywords[i]);
-			}
-		}
-		/**
-		 * The extracted text from the PDF file selected by the user
-		 */
-		String pageText = extractTextFromPDF(newFile);
+		ArrayList<String> sentenceKeywords = request.getKeywords();
 		/**
 		 * ArrayList of arraylists that holds the list of sentences found for each keyword provided by the user
 		 */
-		ArrayList<ArrayList<String>> sentenceResults = findSentencesForKeywords(pageText, sentenceKeywords);
+		ArrayList<ArrayList<String>> sentenceResults = findSentences(request.getPdfFile(), sentenceKeywords, statistics, monitor);
+		monitor.checkCancelled();
 		/**
 		 * Create a new document of style PDF to store the sentences that have been found for each keyword
 		 */
-		PDDocument createFile = new PDDocument();
+		PDDocument createFile = new PDDocument(DocumentLoader.streamCache());
 		/**
 		 * Set font of new document to Helvetica
 		 */
@@ -205,16 +188,12 @@ public class ReportGenerator {
 			contentStream.close();
 		}
 		/**
-		 * The name of the new PDF file to be created in the user's file system. File to be created in the same
-		 * directory as input PDF file.
+		 * The new PDF file to be created in the save location of the request
 		 */
-		String newFilePath = FileInputScreen.getSaveLocationPath() + "/" + FileInputScreen.fileName.split("\\.")[0];
-		for (int p = 0; p < sentenceKeywords.size(); p++) {
-			newFilePath = newFilePath + "-" + sentenceKeywords.get(p);
-		}
-		newFilePath = newFilePath + java.time.LocalDate.now() + ".pdf";
-		createFile.save(new File(newFilePath));
+		File reportFile = request.getReportFile();
+		createFile.save(reportFile);
 		createFile.close();
+		return reportFile;
 	}
 	/**
 	 * Initialises a new page in a PDDocument with specified font, line dimensions and margin
@@ -242,6 +221,97 @@ public class ReportGenerator {
 		contentStream.newLineAtOffset((nextPage.getMediaBox().getWidth() - lineWidth)/2, nextPage.getMediaBox().getHeight() - topMargin - lineHeight);
 		return contentStream;
 	}
+	/**
+	 * Returns the sentences of a PDF file that contain each keyword. A file that has been searched more than once is
+	 * answered from its SentenceIndex, which is only built on the second search so that files searched once, such
+	 * as those of a batch, do not pay for an index that is never used. Otherwise a file whose filter rules out every
+	 * keyword is skipped without reading its pages, and the sentences lying wholly within a page whose filter rules
+	 * out every keyword are never split or matched.
+	 * @param pdfFile                    The PDF file
+	 * @param keywords                   The keywords to search for
+	 * @param statistics                 Receives the number of files and pages skipped by their filters
+	 * @param monitor                    Receives the progress of the job and tells it when it has been cancelled
+	 * @return                           A list of lists containing a list of sentences for each keyword
+	 * @throws IOException               Occurs if the text cannot be extracted from the PDF file
+	 * @throws CancellationException     Occurs if the job is cancelled
+	 */
+	private static ArrayList<ArrayList<String>> findSentences(File pdfFile, ArrayList<String> keywords, SearchStatistics statistics, JobMonitor monitor) throws IOException {
+		statistics.fileSearched();
+		/**
+		 * The index written to the cache by an earlier search
+		 */
+		SentenceIndex index = SentenceIndex.find(pdfFile);
+		if (index != null) {
+			statistics.fileIndexed();
+			return index.findSentences(keywords);
+		}
+		/**
+		 * The filter of the whole file, if it has been parsed before
+		 */
+		BloomFilter fileFilter = DocumentSession.readFilter(pdfFile);
+		if (fileFilter != null && !fileFilter.mightContainAny(keywords)) {
+			statistics.fileSkipped();
+			return findSentencesForKeywords(new SentenceIterator(""), keywords);
+		}
+		try (DocumentSession.PageReader pages = DocumentSession.read(pdfFile, monitor)) {
+			if (ExtractionCache.read(pdfFile, SEARCHED_KIND, in -> Boolean.TRUE) != null) {
+				statistics.fileIndexed();
+				return SentenceIndex.create(pdfFile, pages).findSentences(keywords);
+			}
+			/**
+			 * The sentences found by scanning the pages that the filters do not rule out
+			 */
+			ArrayList<ArrayList<String>> results = findSentencesForKeywords(pages, keywords, statistics);
+			ExtractionCache.write(pdfFile, SEARCHED_KIND, out -> {});
+			return results;
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+	/**
+	 * Returns the sentences of a PDF file that contain each keyword, skipping the sentences that lie wholly within a
+	 * page whose filter rules out every keyword. The first and last sentences of such a page are still matched as
+	 * they may continue from or into a neighbouring page, so the results are exactly those of a full scan.
+	 * @param pages                      A reader over the pages of the PDF file
+	 * @param userKeywords               The keywords to search for
+	 * @param statistics                 Receives the number of pages checked and skipped
+	 * @return                           A list of lists containing a list of sentences for each keyword
+	 * @throws UncheckedIOException      Occurs when a page cannot be parsed
+	 */
+	public static ArrayList<ArrayList<String>> findSentencesForKeywords(DocumentSession.PageReader pages, ArrayList<String> userKeywords, SearchStatistics statistics) {
+		/**
+		 * The pages that passed their filter
+		 */
+		BitSet passed = new BitSet(pages.getNumberOfPages());
+		/**
+		 * The pages on which a matching sentence starts
+		 */
+		BitSet matchedPages = new BitSet(pages.getNumberOfPages());
+		/**
+		 * The sentences of the pages, skipping those within pages that cannot contain a keyword
+		 */
+		SentenceIterator sentences = new SentenceIterator(pages.texts(), SentenceIterator.REPORT_DELIMITERS, page -> {
+			/**
+			 * The filter of the text of the page
+			 */
+			BloomFilter filter = pages.getPage(page).getFilter();
+			/**
+			 * True if no keyword can occur on the page
+			 */
+			boolean skipped = !filter.mightContainAny(userKeywords);
+			statistics.pageChecked(skipped, filter.getFalsePositiveRate());
+			passed.set(page, !skipped);
+			return skipped;
+		});
+		/**
+		 * A list of matched sentences for each keyword
+		 */
+		ArrayList<ArrayList<String>> results = findSentencesForKeywords(sentences, new KeywordMatcher(userKeywords), sentences::getPageNumber, matchedPages);
+		passed.andNot(matchedPages);
+		statistics.pagesWithoutMatch(passed.cardinality());
+		return results;
+	}
 	/**
 	 * Given a list of provided keywords, returns the sentences in a PDF file that contain the keywords
 	 * @param textInPage          The extracted text in a PDF page
@@ -249,51 +319,69 @@ public class ReportGenerator {
 	 * @return                    A list of lists containing a list of sentences for each keyword
 	 */
 	public static ArrayList<ArrayList<String>> findSentencesForKeywords(String textInPage, ArrayList<String> userKeywords) {
-		/**
-		 * Split extracted text based on characters that often represent a separation of content in a PDF file,
-		 * such as a full stop, bullet points, semicolon or colon
-		 */
-		String[] sentences = textInPage.split("\\.|;|:|\u2022");
-		/**
-		 * Returns true if all the words in a keyword have been matched in a sentence
-		 */
-		boolean allMatched = true;
+		return findSentencesForKeywords(new SentenceIterator(textInPage), userKeywords);
+	}
+	/**
+	 * Given a list of provided keywords, returns the sentences that contain the keywords. The sentences are read
+	 * once, one at a time, so only the matched sentences are kept in memory.
+	 * @param sentences           An iterator over the sentences of a PDF file
+	 * @param userKeywords        The list of keywords provided by the user in FileInputScreen
+	 * @return                    A list of lists containing a list of sentences for each keyword
+	 */
+	public static ArrayList<ArrayList<String>> findSentencesForKeywords(Iterator<String> sentences, ArrayList<String> userKeywords) {
+		return findSentencesForKeywords(sentences, new KeywordMatcher(userKeywords));
+	}
+	/**
+	 * Returns the sentences that contain each keyword of a compiled keyword matcher. Each sentence is scanned once
+	 * for all keywords, so the cost does not grow with the number of keywords.
+	 * @param sentences      An iterator over the sentences of a PDF file
+	 * @param matcher        A matcher compiled from the keywords to search for
+	 * @return               A list of lists containing a list of sentences for each keyword, in the order the
+	 *                       keywords were given to the matcher
+	 */
+	public static ArrayList<ArrayList<String>> findSentencesForKeywords(Iterator<String> sentences, KeywordMatcher matcher) {
+		return findSentencesForKeywords(sentences, matcher, null, null);
+	}
+	/**
+	 * Returns the sentences that contain each keyword of a compiled keyword matcher, recording the page on which
+	 * each matching sentence starts
+	 * @param sentences        An iterator over the sentences of a PDF file
+	 * @param matcher          A matcher compiled from the keywords to search for
+	 * @param pageNumber       Returns the page that the last sentence returned by param sentences started on, or
+	 *                         null if pages are not recorded
+	 * @param matchedPages     Receives the pages on which a matching sentence starts, or null
+	 * @return                 A list of lists containing a list of sentences for each keyword
+	 */
+	private static ArrayList<ArrayList<String>> findSentencesForKeywords(Iterator<String> sentences, KeywordMatcher matcher, IntSupplier pageNumber, BitSet matchedPages) {
 		/**
 		 * A list of matched sentences for each keyword
 		 */
 		ArrayList<ArrayList<String>> results = new ArrayList<ArrayList<String>>();
-		for (int i = 0; i < userKeywords.size(); i++) {
-			/**
-			 * List of matched sentences for a keyword
-			 */
-			ArrayList<String> tmpRes = new ArrayList<String>();
+		for (int i = 0; i < matcher.getKeywordCount(); i++) {
+			results.add(new ArrayList<String>());
+		}
+		/**
+		 * The indices of the keywords matched in the current sentence
+		 */
+		int[] matched = new int[matcher.getKeywordCount()];
+		while (sentences.hasNext()) {
 			/**
-			 * Split keyword into array of words as one keyword may contain multiple words
+			 * A single sentence in the stream of all sentences
 			 */
-			String[] individualWords = userKeywords.get(i).split(" ");
+			String j = sentences.next();
 			/**
-			 * A single sentence in the list of all sentences
+			 * The number of keywords matched in the sentence
 			 */
-			for (String j : sentences) {
-				/**
-				 * A single word in the list of all words in one keyword
-				 */
-				for (String k : individualWords) {
-				    if (j.indexOf(k) == -1) {
-					    allMatched = false;
-					    break;
-				    }
+			int numMatched = matcher.match(j, matched);
+			if (numMatched > 0) {
+				if (matchedPages != null) {
+					matchedPages.set(pageNumber.getAsInt());
 				}
-				if (allMatched) {
-					j = j.replaceAll("\\n", "");
-					j = j.replaceAll("\\r", "");
-					tmpRes.add(j);
-				}
-				else {
-					allMatched = true;
+				j = j.replaceAll("\\n", "").replaceAll("\\r", "");
+				for (int m = 0; m < numMatched; m++) {
+					results.get(matched[m]).add(j);
 				}
 			}
-			results.add(tmpRes);
 		}
 		return results;
 	}
@@ -304,100 +392,145 @@ public class ReportGenerator {
 	 * @return               List of lists of digits/numbers/metrics in a matched sentence for each keyword
 	 */
 	public static ArrayList<ArrayList<String>> findNumbersForKeywords(String textInPage, String[][] keywords) {
+		return findNumbersForKeywords(new SentenceIterator(textInPage), keywords);
+	}
+	/**
+	 * An algorithm for generating a list of numbers/metrics for each keyword provided from a stream of sentences,
+	 * which are read once, one at a time. A keyword that has units only matches a sentence that contains one of
+	 * them. The numbers of a matched sentence are found by a NumericTokenizer and the units of every keyword by one
+	 * UnitDictionary, which gives each number its nearest unit. Each number is written without thousands
+	 * separators, with a minus sign if it is negative or in brackets, and followed by its unit if that is one of the
+	 * units of the keyword.
+	 * @param sentences      An iterator over the sentences of a PDF file
+	 * @param keywords       List of keywords provided by the user in FileInputScreen, where the first element of
+	 *                       each keyword is the keyword itself and any further elements are possible units
+	 * @return               List of lists of digits/numbers/metrics in a matched sentence for each keyword
+	 */
+	public static ArrayList<ArrayList<String>> findNumbersForKeywords(Iterator<String> sentences, String[][] keywords) {
 		/**
-		 * Array of sentences whereby the extracted text is split on characters that often signal a separation of
-		 * content in a file
+		 * List of lists of metrics/numbers for each keyword
 		 */
-		String[] sentences = textInPage.split("\\.|;|:|\u2022");
+		ArrayList<ArrayList<String>> results = new ArrayList<ArrayList<String>>();
 		/**
-		 * Returns true if all the words in a keyword are present in a sentence, given that there may be more than
-		 * one word in one keyword
+		 * The keyword part of each keyword, which may contain more than one word
 		 */
-		boolean allMatched = true;
+		ArrayList<String> keywordWords = new ArrayList<String>();
 		/**
-		 * The possible unit of measurement for an identified metric/number
+		 * The distinct units of every keyword, whose positions are their identifiers in the unit dictionary
 		 */
-		String units;
+		ArrayList<String> unitList = new ArrayList<String>();
 		/**
-		 * List of lists of metrics/numbers for each keyword
+		 * The identifiers of the units of each keyword, in the order they were given
 		 */
-		ArrayList<ArrayList<String>> results = new ArrayList<ArrayList<String>>();
+		int[][] keywordUnits = new int[keywords.length][];
 		for (int i = 0; i < keywords.length; i++) {
+			keywordWords.add(keywords[i][0]);
+			results.add(new ArrayList<String>());
+			keywordUnits[i] = new int[keywords[i].length - 1];
+			for (int m = 1; m < keywords[i].length; m++) {
+				/**
+				 * The identifier of the unit, if another keyword already has it
+				 */
+				int unit = unitList.indexOf(keywords[i][m]);
+				if (unit < 0) {
+					unit = unitList.size();
+					unitList.add(keywords[i][m]);
+				}
+				keywordUnits[i][m - 1] = unit;
+			}
+		}
+		/**
+		 * Finds the units of every keyword in a sentence in one pass
+		 */
+		UnitDictionary unitDictionary = new UnitDictionary(unitList);
+		/**
+		 * A matcher that finds every keyword in a sentence in one pass
+		 */
+		KeywordMatcher matcher = new KeywordMatcher(keywordWords);
+		/**
+		 * The indices of the keywords matched in the current sentence
+		 */
+		int[] matched = new int[keywords.length];
+		/**
+		 * Finds the numbers of each matched sentence, reusing its buffers from one sentence to the next
+		 */
+		NumericTokenizer numbers = new NumericTokenizer();
+		/**
+		 * Buffer in which the numbers of a sentence are written, reused for every sentence
+		 */
+		StringBuilder pageDigits = new StringBuilder();
+		while (sentences.hasNext()) {
 			/**
-			 * List of metrics/numbers for a keyword
+			 * One sentence from the stream of all sentences in the PDF file
 			 */
-			ArrayList<String> tmpRes = new ArrayList<String>();
+			String j = sentences.next();
 			/**
-			 * Array of individual words in one keyword, given that there may be more than one word in a single
-			 * keyword
+			 * The number of keywords matched in the sentence
 			 */
-			String[] individualWords = keywords[i][0].split(" ");
+			int numMatched = matcher.match(j, matched);
+			if (numMatched == 0) {
+				continue;
+			}
+			Arrays.sort(matched, 0, numMatched);
 			/**
-			 * One sentence from the list of all sentences in the PDF file
+			 * The number of numbers in the sentence
 			 */
-			for (String j : sentences) {
-				units = "";
+			int numNumbers = numbers.tokenize(j);
+			unitDictionary.attach(j, numbers);
+			for (int n = 0; n < numMatched; n++) {
 				/**
-				 * One word in the array of all words in a single keyword
+				 * The index of a keyword whose words all occur in the sentence
 				 */
-				for (String k : individualWords) {
-				    if (j.indexOf(k) == -1) {
-					    allMatched = false;
-					    break;
-				    }
+				int i = matched[n];
+				if (numNumbers == 0 || !containsAny(unitDictionary, keywordUnits[i])) {
+					continue;
 				}
-				if (allMatched) {
-					if (keywords[i].length > 1) {
-						allMatched = false;
-					    for (int m = 1; m < keywords[i].length; m++) {
-						    if (j.contains(keywords[i][m])) {
-							    units = keywords[i][m];
-							    allMatched = true;
-							    break;
-						    }
-					    }
-					}
-					if (!allMatched) {
-						allMatched = true;
-						continue;
+				pageDigits.setLength(0);
+				for (int t = 0; t < numNumbers; t++) {
+					if (t > 0) {
+						pageDigits.append(' ');
 					}
+					numbers.appendNumber(t, j, pageDigits);
 					/**
-					 * A string containing all of the numbers/metrics found in a matched sentence
-					 */
-					String pageDigits = "";
-					/**
-					 * Returns true if the previous character was not a digit
+					 * The unit nearest to the number
 					 */
-					boolean previousLetter = true;
-					for (int l = 0; l < j.length(); l++) {
-						if (Character.isDigit(j.charAt(l))) {
-							if (previousLetter) {
-								if (pageDigits.length() != 0) {
-									pageDigits = pageDigits + " ";
-								}
-							}
-							pageDigits = pageDigits + String.valueOf(j.charAt(l));
-							previousLetter = false;
-						}
-						else {
-							if (l != (j.length()-1) && previousLetter == false && Character.isDigit(j.charAt(l+1)) && (j.charAt(l) == ',')) {
-								continue;
-							}
-							previousLetter = true;
-						}
+					int unit = numbers.getUnit(t);
+					if (unit != NumericTokenizer.NO_UNIT && !numbers.hasFlag(t, NumericTokenizer.PERCENT) && indexOf(keywordUnits[i], unit) >= 0) {
+						pageDigits.append(unitList.get(unit));
 					}
-				    if (pageDigits.length() > 0) {
-				    	pageDigits = pageDigits.replace(" ", units+" ");
-				    	pageDigits = pageDigits + units;
-				    	tmpRes.add(pageDigits);
-				    }
-				}
-				else {
-					allMatched = true;
 				}
+				results.get(i).add(pageDigits.toString());
 			}
-			results.add(tmpRes);
 		}
 		return results;
 	}
+	/**
+	 * Returns true if a keyword has no units or one of its units occurs in the sentence last scanned by a unit
+	 * dictionary
+	 * @param unitDictionary     The dictionary that scanned the sentence
+	 * @param units              The identifiers of the units of the keyword
+	 * @return                   True if the keyword can match the sentence
+	 */
+	private static boolean containsAny(UnitDictionary unitDictionary, int[] units) {
+		for (int unit : units) {
+			if (unitDictionary.contains(unit) || unitDictionary.getUnit(unit).isEmpty()) {
+				return true;
+			}
+		}
+		return units.length == 0;
+	}
+	/**
+	 * Returns the position of a value in an array
+	 * @param values     The array
+	 * @param value      The value to find
+	 * @return           The position of param value, or -1 if it is not in param values
+	 */
+	private static int indexOf(int[] values, int value) {
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] == value) {
+				return i;
+			}
+		}
+		return -1;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,231 @@
+import java.awt.geom.Point2D;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import org.apache.pdfbox.contentstream.PDFGraphicsStreamEngine;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImage;
+/**
+ * Collects the horizontal and vertical lines drawn on a page, which are the ruling lines that mark out the cells of
+ * a bordered table. Stroked lines and rectangles are collected, as are filled rectangles thin enough to be drawn as
+ * lines. Coordinates are converted to points from the left and top edges of the page so that they match the word
+ * boxes of a PageLayout.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class RulingCollector extends PDFGraphicsStreamEngine {
+	/**
+	 * The largest difference between the ends of a line, or the thickness of a filled rectangle, for it to still
+	 * count as horizontal or vertical
+	 */
+	private static final float MAX_THICKNESS = 3f;
+	/**
+	 * The shortest line that is kept, which keeps underlines of single characters and other marks out of the result
+	 */
+	private static final float MIN_LENGTH = 4f;
+	/**
+	 * The horizontal lines found, as {y, left, right}
+	 */
+	private final ArrayList<float[]> horizontals = new ArrayList<float[]>();
+	/**
+	 * The vertical lines found, as {x, top, bottom}
+	 */
+	private final ArrayList<float[]> verticals = new ArrayList<float[]>();
+	/**
+	 * The straight segments of the path being constructed, as {x0, y0, x1, y1} in page coordinates
+	 */
+	private final ArrayList<float[]> path = new ArrayList<float[]>();
+	/**
+	 * The left edge of the crop box, subtracted from every x coordinate
+	 */
+	private final float originX;
+	/**
+	 * The top edge of the crop box, from which every y coordinate is measured downwards
+	 */
+	private final float originY;
+	/**
+	 * The current point of the path
+	 */
+	private final Point2D.Float current = new Point2D.Float();
+	/**
+	 * The start of the current subpath, which closePath draws back to
+	 */
+	private final Point2D.Float subpathStart = new Point2D.Float();
+	/**
+	 * Creates a collector for a page. The page is read by calling collect.
+	 * @param page     The page to read
+	 */
+	public RulingCollector(PDPage page) {
+		super(page);
+		/**
+		 * The visible area of the page, which the word boxes of the text stripper are relative to
+		 */
+		PDRectangle cropBox = page.getCropBox();
+		originX = cropBox.getLowerLeftX();
+		originY = cropBox.getUpperRightY();
+	}
+	/**
+	 * Reads the content of the page and collects its ruling lines
+	 * @throws IOException     Occurs if the content of the page cannot be read
+	 */
+	public void collect() throws IOException {
+		processPage(getPage());
+	}
+	/**
+	 * Returns the horizontal lines found on the page
+	 * @return     A list of {y, left, right} arrays
+	 */
+	public ArrayList<float[]> getHorizontals() {
+		return horizontals;
+	}
+	/**
+	 * Returns the vertical lines found on the page
+	 * @return     A list of {x, top, bottom} arrays
+	 */
+	public ArrayList<float[]> getVerticals() {
+		return verticals;
+	}
+	/**
+	 * Adds the four sides of a rectangle to the path
+	 */
+	@Override
+	public void appendRectangle(Point2D p0, Point2D p1, Point2D p2, Point2D p3) {
+		moveTo((float) p0.getX(), (float) p0.getY());
+		lineTo((float) p1.getX(), (float) p1.getY());
+		lineTo((float) p2.getX(), (float) p2.getY());
+		lineTo((float) p3.getX(), (float) p3.getY());
+		closePath();
+	}
+	/**
+	 * Images are not ruling lines
+	 */
+	@Override
+	public void drawImage(PDImage pdImage) {
+
+	}
+	/**
+	 * Clipping does not draw anything, and the path is discarded by the endPath that follows it
+	 */
+	@Override
+	public void clip(int windingRule) {
+
+	}
+	/**
+	 * Starts a new subpath
+	 */
+	@Override
+	public void moveTo(float x, float y) {
+		current.setLocation(x - originX, originY - y);
+		subpathStart.setLocation(current);
+	}
+	/**
+	 * Adds a straight segment to the path
+	 */
+	@Override
+	public void lineTo(float x, float y) {
+		/**
+		 * The end of the segment in page coordinates
+		 */
+		float pageX = x - originX, pageY = originY - y;
+		path.add(new float[] {current.x, current.y, pageX, pageY});
+		current.setLocation(pageX, pageY);
+	}
+	/**
+	 * Curves are never ruling lines, so only the current point is moved
+	 */
+	@Override
+	public void curveTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+		current.setLocation(x3 - originX, originY - y3);
+	}
+	/**
+	 * Returns the current point of the path in the coordinates PDFBox uses
+	 */
+	@Override
+	public Point2D getCurrentPoint() {
+		return new Point2D.Float(current.x + originX, originY - current.y);
+	}
+	/**
+	 * Draws a segment back to the start of the subpath
+	 */
+	@Override
+	public void closePath() {
+		if (current.x != subpathStart.x || current.y != subpathStart.y) {
+			path.add(new float[] {current.x, current.y, subpathStart.x, subpathStart.y});
+		}
+		current.setLocation(subpathStart);
+	}
+	/**
+	 * Discards the path without drawing it
+	 */
+	@Override
+	public void endPath() {
+		path.clear();
+	}
+	/**
+	 * Keeps every horizontal or vertical segment of the stroked path
+	 */
+	@Override
+	public void strokePath() {
+		for (float[] segment : path) {
+			addLine(segment[0], segment[1], segment[2], segment[3]);
+		}
+		path.clear();
+	}
+	/**
+	 * Keeps the filled path if it is a rectangle thin enough to be drawn as a line
+	 */
+	@Override
+	public void fillPath(int windingRule) {
+		/**
+		 * The bounding box of the path
+		 */
+		float left = Float.MAX_VALUE, right = -Float.MAX_VALUE, top = Float.MAX_VALUE, bottom = -Float.MAX_VALUE;
+		for (float[] segment : path) {
+			left = Math.min(left, Math.min(segment[0], segment[2]));
+			right = Math.max(right, Math.max(segment[0], segment[2]));
+			top = Math.min(top, Math.min(segment[1], segment[3]));
+			bottom = Math.max(bottom, Math.max(segment[1], segment[3]));
+		}
+		if (!path.isEmpty()) {
+			if (bottom - top <= MAX_THICKNESS) {
+				addLine(left, (top + bottom) / 2, right, (top + bottom) / 2);
+			}
+			else if (right - left <= MAX_THICKNESS) {
+				addLine((left + right) / 2, top, (left + right) / 2, bottom);
+			}
+		}
+		path.clear();
+	}
+	/**
+	 * Keeps the stroked outline of the path
+	 */
+	@Override
+	public void fillAndStrokePath(int windingRule) {
+		strokePath();
+	}
+	/**
+	 * Shading fills are not ruling lines
+	 */
+	@Override
+	public void shadingFill(COSName shadingName) {
+
+	}
+	/**
+	 * Keeps a segment if it is long enough and horizontal or vertical
+	 * @param x0     The x coordinate of one end
+	 * @param y0     The y coordinate of one end
+	 * @param x1     The x coordinate of the other end
+	 * @param y1     The y coordinate of the other end
+	 */
+	private void addLine(float x0, float y0, float x1, float y1) {
+		if (Math.abs(y1 - y0) <= MAX_THICKNESS && Math.abs(x1 - x0) >= MIN_LENGTH) {
+			horizontals.add(new float[] {(y0 + y1) / 2, Math.min(x0, x1), Math.max(x0, x1)});
+		}
+		else if (Math.abs(x1 - x0) <= MAX_THICKNESS && Math.abs(y1 - y0) >= MIN_LENGTH) {
+			verticals.add(new float[] {(x0 + x1) / 2, Math.min(y0, y1), Math.max(y0, y1)});
+		}
+	}
+}
@@ -0,0 +1,147 @@
+/**
+ * Counters describing how the keyword searches of one or more reports were answered, so that the effect of the
+ * filters of the files and pages can be reported to the user. A page whose filter passes the keywords but on which
+ * no matching sentence starts is counted as a false positive of its filter, which slightly overstates the rate as a
+ * sentence that matches may start on the page before.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class SearchStatistics {
+	/**
+	 * The number of files searched
+	 */
+	private long filesSearched = 0;
+	/**
+	 * The number of files skipped because their filter ruled out every keyword
+	 */
+	private long filesSkipped = 0;
+	/**
+	 * The number of files answered from their sentence index
+	 */
+	private long filesIndexed = 0;
+	/**
+	 * The number of pages whose filter was checked
+	 */
+	private long pagesChecked = 0;
+	/**
+	 * The number of pages skipped because their filter ruled out every keyword
+	 */
+	private long pagesSkipped = 0;
+	/**
+	 * The number of pages that passed their filter but on which no matching sentence starts
+	 */
+	private long pagesWithoutMatch = 0;
+	/**
+	 * The sum of the expected false-positive rates of the filters of the pages checked
+	 */
+	private double falsePositiveRates = 0;
+	/**
+	 * Default constructor
+	 */
+	public SearchStatistics() {
+
+	}
+	/**
+	 * Records that a file has been searched
+	 */
+	public synchronized void fileSearched() {
+		filesSearched++;
+	}
+	/**
+	 * Records that a file was skipped by its filter
+	 */
+	public synchronized void fileSkipped() {
+		filesSkipped++;
+	}
+	/**
+	 * Records that a file was answered from its sentence index, so no filter was needed
+	 */
+	public synchronized void fileIndexed() {
+		filesIndexed++;
+	}
+	/**
+	 * Records that the filter of a page has been checked
+	 * @param skipped               True if the filter ruled out every keyword
+	 * @param falsePositiveRate     The expected false-positive rate of the filter
+	 */
+	public synchronized void pageChecked(boolean skipped, double falsePositiveRate) {
+		pagesChecked++;
+		if (skipped) {
+			pagesSkipped++;
+		}
+		falsePositiveRates += falsePositiveRate;
+	}
+	/**
+	 * Records pages that passed their filter but on which no matching sentence starts
+	 * @param pages     The number of pages
+	 */
+	public synchronized void pagesWithoutMatch(int pages) {
+		pagesWithoutMatch += pages;
+	}
+	/**
+	 * Returns the number of files searched
+	 * @return     The number of files searched
+	 */
+	public synchronized long getFilesSearched() {
+		return filesSearched;
+	}
+	/**
+	 * Returns the number of files skipped by their filter
+	 * @return     The number of files skipped
+	 */
+	public synchronized long getFilesSkipped() {
+		return filesSkipped;
+	}
+	/**
+	 * Returns the number of files answered from their sentence index
+	 * @return     The number of files answered from an index
+	 */
+	public synchronized long getFilesIndexed() {
+		return filesIndexed;
+	}
+	/**
+	 * Returns the number of pages whose filter was checked
+	 * @return     The number of pages checked
+	 */
+	public synchronized long getPagesChecked() {
+		return pagesChecked;
+	}
+	/**
+	 * Returns the number of pages skipped by their filter
+	 * @return     The number of pages skipped
+	 */
+	public synchronized long getPagesSkipped() {
+		return pagesSkipped;
+	}
+	/**
+	 * Returns the share of the pages checked that were skipped by their filter
+	 * @return     The skip ratio between zero and one, or zero if no page was checked
+	 */
+	public synchronized double getPageSkipRatio() {
+		return pagesChecked == 0 ? 0 : (double) pagesSkipped / pagesChecked;
+	}
+	/**
+	 * Returns the share of the pages that passed their filter on which no matching sentence starts
+	 * @return     The observed false-positive rate between zero and one, or zero if no page passed
+	 */
+	public synchronized double getObservedFalsePositiveRate() {
+		return pagesChecked == pagesSkipped ? 0 : (double) pagesWithoutMatch / (pagesChecked - pagesSkipped);
+	}
+	/**
+	 * Returns the average expected false-positive rate of a single sequence of characters in the filters checked
+	 * @return     The expected false-positive rate between zero and one, or zero if no page was checked
+	 */
+	public synchronized double getExpectedFalsePositiveRate() {
+		return pagesChecked == 0 ? 0 : falsePositiveRates / pagesChecked;
+	}
+	/**
+	 * Returns a short description of the counters suitable for showing to the user
+	 * @return     A summary of the counters
+	 */
+	public synchronized String toString() {
+		return String.format("%d of %d files and %d of %d pages skipped by keyword filters, %d files answered from an index, "
+				+ "%.1f%% of searched pages without a match, %.2f%% expected false positives per sequence",
+				filesSkipped, filesSearched, pagesSkipped, pagesChecked, filesIndexed, 100 * getObservedFalsePositiveRate(), 100 * getExpectedFalsePositiveRate());
+	}
+}
@@ -0,0 +1,644 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+/**
+ * An inverted index of the sentences of a PDF file, built once per file so that any number of keyword searches can
+ * be answered without splitting and scanning the whole text again. Keywords are matched as the report has always
+ * matched them: a keyword matches a sentence when each of its words occurs somewhere in the sentence, including
+ * inside a longer word, with the same case. As a word may match part of a longer word, the index maps every sequence
+ * of three characters to the sentences that contain it. A search intersects the lists of the sequences in each
+ * keyword to find the few sentences that could match and checks only those with a KeywordMatcher, so the results
+ * are exactly those of a full scan. The index is kept uncompressed in the ExtractionCache and memory mapped, so a
+ * search on a file that was indexed before only reads the parts of the index it needs.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class SentenceIndex {
+	/**
+	 * The kind of the cache entries holding indexes
+	 */
+	public static final String CACHE_KIND = "sentences";
+	/**
+	 * The number of characters in each indexed sequence
+	 */
+	private static final int GRAM = 3;
+	/**
+	 * The number of bytes of each term in the term table, which are the key of the term, the offset of its list of
+	 * sentences and the number of sentences in the list
+	 */
+	private static final int TERM_BYTES = 16;
+	/**
+	 * The number of sentences in the index
+	 */
+	private final int numSentences;
+	/**
+	 * The number of distinct terms in the index
+	 */
+	private final int numTerms;
+	/**
+	 * The term table, sorted by the key of each term
+	 */
+	private final ByteBuffer terms;
+	/**
+	 * The lists of sentences containing each term. Each list is the gaps between the ascending sentence IDs, written
+	 * as variable length integers.
+	 */
+	private final ByteBuffer postings;
+	/**
+	 * The index of the first character of each sentence in the characters, followed by the number of characters
+	 */
+	private final IntBuffer sentenceStarts;
+	/**
+	 * The characters of every sentence one after the other
+	 */
+	private final CharBuffer chars;
+	/**
+	 * Reads an index in place from its serialised form
+	 * @param data             The serialised index
+	 * @throws IOException     Occurs if the data is not a valid index
+	 */
+	private SentenceIndex(ByteBuffer data) throws IOException {
+		if (data.remaining() < 12) {
+			throw new IOException("Invalid sentence index: too short");
+		}
+		numSentences = data.getInt(0);
+		numTerms = data.getInt(4);
+		/**
+		 * The number of bytes in the lists of sentences
+		 */
+		int postingBytes = data.getInt(8);
+		/**
+		 * The offset of the term table
+		 */
+		long termsStart = 12;
+		/**
+		 * The offset of the lists of sentences
+		 */
+		long postingsStart = termsStart + (long) numTerms * TERM_BYTES;
+		/**
+		 * The offset of the start of each sentence
+		 */
+		long startsStart = postingsStart + postingBytes;
+		/**
+		 * The offset of the characters of the sentences
+		 */
+		long charsStart = startsStart + 4L * (numSentences + 1);
+		if (numSentences < 0 || numTerms < 0 || postingBytes < 0 || charsStart > data.limit()) {
+			throw new IOException("Invalid sentence index: sections do not fit");
+		}
+		terms = slice(data, termsStart, postingsStart);
+		postings = slice(data, postingsStart, startsStart);
+		sentenceStarts = slice(data, startsStart, charsStart).asIntBuffer();
+		/**
+		 * The number of characters in the index
+		 */
+		int numChars = sentenceStarts.get(numSentences);
+		if (numChars < 0 || charsStart + 2L * numChars > data.limit()) {
+			throw new IOException("Invalid sentence index: text does not fit");
+		}
+		chars = slice(data, charsStart, charsStart + 2L * numChars).asCharBuffer();
+	}
+	/**
+	 * Returns a part of a buffer
+	 * @param data      The buffer
+	 * @param start     The offset of the first byte of the part
+	 * @param end       The offset after the last byte of the part
+	 * @return          A buffer over the part that shares the content of param data
+	 */
+	private static ByteBuffer slice(ByteBuffer data, long start, long end) {
+		/**
+		 * A view of the buffer that can be moved without moving param data
+		 */
+		ByteBuffer view = data.duplicate();
+		view.limit((int) end);
+		view.position((int) start);
+		return view.slice();
+	}
+	/**
+	 * Reads an index in place from the serialised form returned by build
+	 * @param data             The serialised index
+	 * @return                 The index, which keeps reading from param data
+	 * @throws IOException     Occurs if the data is not a valid index
+	 */
+	static SentenceIndex read(ByteBuffer data) throws IOException {
+		return new SentenceIndex(data);
+	}
+	/**
+	 * Returns the index of a PDF file, reading it from the cache if the file has been indexed before and otherwise
+	 * building it from the pages of the file and writing it to the cache
+	 * @param pdfFile          The PDF file
+	 * @param monitor          Receives the progress of reading the pages and tells the job when it has been cancelled
+	 * @return                 The index of the file
+	 * @throws IOException     Occurs if the text cannot be extracted from the PDF file
+	 */
+	public static SentenceIndex open(File pdfFile, JobMonitor monitor) throws IOException {
+		/**
+		 * The index written to the cache by an earlier search
+		 */
+		SentenceIndex cached = find(pdfFile);
+		if (cached != null) {
+			return cached;
+		}
+		try (DocumentSession.PageReader pages = DocumentSession.read(pdfFile, monitor)) {
+			return create(pdfFile, pages);
+		}
+	}
+	/**
+	 * Returns the index of a PDF file if it has been indexed before
+	 * @param pdfFile     The PDF file
+	 * @return            The index read from the cache, or null if there is none
+	 */
+	public static SentenceIndex find(File pdfFile) {
+		return ExtractionCache.map(pdfFile, CACHE_KIND, SentenceIndex::new);
+	}
+	/**
+	 * Builds the index of a PDF file from the remaining pages of a reader and writes it to the cache
+	 * @param pdfFile          The PDF file
+	 * @param pages            A reader over the pages of the file
+	 * @return                 The index of the file
+	 * @throws IOException     Occurs if the text cannot be extracted from the PDF file
+	 */
+	public static SentenceIndex create(File pdfFile, DocumentSession.PageReader pages) throws IOException {
+		/**
+		 * The serialised index
+		 */
+		byte[] data;
+		try {
+			data = build(new SentenceIterator(pages.texts(), SentenceIterator.REPORT_DELIMITERS));
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		ExtractionCache.writeMapped(pdfFile, CACHE_KIND, out -> out.write(data));
+		return new SentenceIndex(ByteBuffer.wrap(data));
+	}
+	/**
+	 * Builds the serialised index of a stream of sentences. The index holds the number of sentences, the number of
+	 * terms and the number of bytes of the lists of sentences, followed by the term table, the lists, the start of
+	 * each sentence and the characters of the sentences.
+	 * @param sentences        The sentences, in the order they appear in the PDF file
+	 * @return                 The serialised index
+	 * @throws IOException     Occurs if the index would be too large to hold in one array
+	 */
+	static byte[] build(Iterator<String> sentences) throws IOException {
+		/**
+		 * The list of sentences of each term found so far
+		 */
+		HashMap<Long, Postings> index = new HashMap<Long, Postings>();
+		/**
+		 * The start of each sentence in the text
+		 */
+		IntList starts = new IntList();
+		/**
+		 * The characters of every sentence
+		 */
+		StringBuilder text = new StringBuilder();
+		while (sentences.hasNext()) {
+			/**
+			 * The next sentence
+			 */
+			String sentence = sentences.next();
+			/**
+			 * The ID of the sentence
+			 */
+			int id = starts.size();
+			starts.add(text.length());
+			text.append(sentence);
+			for (int i = 0; i + GRAM <= sentence.length(); i++) {
+				/**
+				 * The key of the sequence starting at the character
+				 */
+				long key = key(sentence, i);
+				/**
+				 * The list of sentences of the sequence
+				 */
+				Postings list = index.get(key);
+				if (list == null) {
+					list = new Postings();
+					index.put(key, list);
+				}
+				list.add(id);
+			}
+		}
+		starts.add(text.length());
+		/**
+		 * The keys of the terms in ascending order
+		 */
+		long[] keys = new long[index.size()];
+		/**
+		 * The number of keys copied so far
+		 */
+		int k = 0;
+		for (Long key : index.keySet()) {
+			keys[k++] = key;
+		}
+		Arrays.sort(keys);
+		/**
+		 * The number of bytes in every list
+		 */
+		long postingBytes = 0;
+		for (Postings list : index.values()) {
+			postingBytes += list.length;
+		}
+		/**
+		 * The exact size of the serialised index, counted as a long so that a very large index is rejected rather
+		 * than overflowing
+		 */
+		long size = 12 + (long) keys.length * TERM_BYTES + postingBytes + 4L * starts.size() + 2L * text.length();
+		if (size > Integer.MAX_VALUE - 8) {
+			throw new IOException("Sentence index of " + size + " bytes is too large for one array");
+		}
+		/**
+		 * The serialised index
+		 */
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) size);
+		/**
+		 * Writes the index to param bytes
+		 */
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(starts.size() - 1);
+		out.writeInt(keys.length);
+		out.writeInt((int) postingBytes);
+		/**
+		 * The offset of the list of the next term
+		 */
+		int offset = 0;
+		for (long key : keys) {
+			/**
+			 * The list of sentences of the term
+			 */
+			Postings list = index.get(key);
+			out.writeLong(key);
+			out.writeInt(offset);
+			out.writeInt(list.count);
+			offset += list.length;
+		}
+		for (long key : keys) {
+			/**
+			 * The list of sentences of the term
+			 */
+			Postings list = index.get(key);
+			out.write(list.data, 0, list.length);
+		}
+		for (int i = 0; i < starts.size(); i++) {
+			out.writeInt(starts.get(i));
+		}
+		out.writeChars(text.toString());
+		out.flush();
+		return bytes.toByteArray();
+	}
+	/**
+	 * Returns the key of the sequence of characters starting at an index, which packs the characters into a long
+	 * @param text      The text containing the sequence
+	 * @param start     The index of the first character of the sequence
+	 * @return          The key of the sequence
+	 */
+	static long key(CharSequence text, int start) {
+		return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+	}
+	/**
+	 * Returns the number of sentences in the index
+	 * @return     The number of sentences
+	 */
+	public int getNumberOfSentences() {
+		return numSentences;
+	}
+	/**
+	 * Returns the number of characters in every sentence of the index
+	 * @return     The number of characters
+	 */
+	public int getNumberOfCharacters() {
+		return chars.limit();
+	}
+	/**
+	 * Returns a sentence
+	 * @param id     The ID of the sentence, which is its position among the sentences of the PDF file
+	 * @return       The sentence
+	 */
+	public String getSentence(int id) {
+		/**
+		 * The index of the first character of the sentence
+		 */
+		int start = sentenceStarts.get(id);
+		/**
+		 * The index after the last character of the sentence
+		 */
+		int end = sentenceStarts.get(id + 1);
+		/**
+		 * The characters of the sentence
+		 */
+		char[] sentence = new char[end - start];
+		chars.duplicate().position(start).get(sentence);
+		return new String(sentence);
+	}
+	/**
+	 * Returns the sentences that contain each keyword, in the same order and with the same line breaks removed as
+	 * ReportGenerator.findSentencesForKeywords does when it scans every sentence
+	 * @param keywords     The keywords, each of which may contain several words separated by spaces
+	 * @return             A list of lists containing a list of sentences for each keyword
+	 */
+	public ArrayList<ArrayList<String>> findSentences(List<String> keywords) {
+		/**
+		 * The IDs of the sentences that may match any keyword, in ascending order
+		 */
+		int[] candidates = null;
+		for (String keyword : keywords) {
+			candidates = union(candidates, candidates(keyword));
+		}
+		if (candidates == null) {
+			candidates = new int[0];
+		}
+		/**
+		 * The candidate sentences, which the matcher checks exactly
+		 */
+		Iterator<String> sentences = Arrays.stream(candidates).mapToObj(this::getSentence).iterator();
+		return ReportGenerator.findSentencesForKeywords(sentences, new KeywordMatcher(keywords));
+	}
+	/**
+	 * Returns the sentences that contain a keyword
+	 * @param keyword     The keyword, which may contain several words separated by spaces
+	 * @return            The IDs of the sentences in ascending order
+	 */
+	public int[] find(String keyword) {
+		/**
+		 * The sentences that may contain the keyword, which the matcher checks exactly
+		 */
+		int[] candidates = union(null, candidates(keyword));
+		/**
+		 * A matcher for the keyword
+		 */
+		KeywordMatcher matcher = new KeywordMatcher(Collections.singletonList(keyword));
+		/**
+		 * Receives the index of the keyword if it is matched
+		 */
+		int[] matched = new int[1];
+		/**
+		 * The number of candidates that contain the keyword
+		 */
+		int count = 0;
+		for (int id : candidates) {
+			if (matcher.match(getSentence(id), matched) > 0) {
+				candidates[count++] = id;
+			}
+		}
+		return Arrays.copyOf(candidates, count);
+	}
+	/**
+	 * Returns the sentences that may contain a keyword, which are those containing every indexed sequence of every
+	 * word of the keyword. A word shorter than a sequence narrows nothing, so a keyword made up only of such words
+	 * may be in any sentence.
+	 * @param keyword     The keyword
+	 * @return            The IDs of the sentences in ascending order
+	 */
+	private int[] candidates(String keyword) {
+		/**
+		 * The offset in the term table of each distinct sequence of the keyword
+		 */
+		LinkedHashSet<Integer> keywordTerms = new LinkedHashSet<Integer>();
+		for (String word : keyword.split(" ")) {
+			for (int i = 0; i + GRAM <= word.length(); i++) {
+				/**
+				 * The offset of the sequence in the term table
+				 */
+				int term = findTerm(key(word, i));
+				if (term < 0) {
+					return new int[0];
+				}
+				keywordTerms.add(term);
+			}
+		}
+		if (keywordTerms.isEmpty()) {
+			/**
+			 * Every sentence
+			 */
+			int[] all = new int[numSentences];
+			for (int i = 0; i < numSentences; i++) {
+				all[i] = i;
+			}
+			return all;
+		}
+		/**
+		 * The sequences ordered from the shortest list to the longest, so the candidates shrink as fast as possible
+		 */
+		Integer[] ordered = keywordTerms.toArray(new Integer[keywordTerms.size()]);
+		Arrays.sort(ordered, (a, b) -> Integer.compare(terms.getInt(a + 12), terms.getInt(b + 12)));
+		/**
+		 * The sentences that contain every sequence read so far
+		 */
+		int[] result = decode(ordered[0]);
+		for (int i = 1; i < ordered.length && result.length > 0; i++) {
+			result = intersect(result, ordered[i]);
+		}
+		return result;
+	}
+	/**
+	 * Finds a term in the term table by binary search
+	 * @param key     The key of the term
+	 * @return        The offset of the term in the term table, or -1 if no sentence contains the term
+	 */
+	private int findTerm(long key) {
+		/**
+		 * The lowest term that may hold the key
+		 */
+		int low = 0;
+		/**
+		 * The highest term that may hold the key
+		 */
+		int high = numTerms - 1;
+		while (low <= high) {
+			/**
+			 * The term in the middle of the range
+			 */
+			int middle = (low + high) >>> 1;
+			/**
+			 * The key of the middle term
+			 */
+			long middleKey = terms.getLong(middle * TERM_BYTES);
+			if (middleKey < key) {
+				low = middle + 1;
+			}
+			else if (middleKey > key) {
+				high = middle - 1;
+			}
+			else {
+				return middle * TERM_BYTES;
+			}
+		}
+		return -1;
+	}
+	/**
+	 * Reads the list of sentences of a term
+	 * @param term     The offset of the term in the term table
+	 * @return         The IDs of the sentences in ascending order
+	 */
+	private int[] decode(int term) {
+		/**
+		 * The IDs of the sentences
+		 */
+		int[] ids = new int[terms.getInt(term + 12)];
+		/**
+		 * The position of the next byte of the list
+		 */
+		int position = terms.getInt(term + 8);
+		/**
+		 * The ID of the previous sentence in the list
+		 */
+		int previous = -1;
+		for (int i = 0; i < ids.length; i++) {
+			/**
+			 * The gap to the next ID, read seven bits at a time
+			 */
+			int gap = 0;
+			/**
+			 * The position in the gap of the next seven bits
+			 */
+			int shift = 0;
+			/**
+			 * The byte of the gap being read
+			 */
+			byte b;
+			do {
+				b = postings.get(position++);
+				gap |= (b & 0x7F) << shift;
+				shift += 7;
+			} while (b < 0);
+			previous += gap;
+			ids[i] = previous;
+		}
+		return ids;
+	}
+	/**
+	 * Returns the sentences of a list that are also in the list of a term
+	 * @param ids      The IDs of the sentences in ascending order
+	 * @param term     The offset of the term in the term table
+	 * @return         The IDs of the sentences in both lists in ascending order
+	 */
+	private int[] intersect(int[] ids, int term) {
+		/**
+		 * The sentences of the term
+		 */
+		int[] other = decode(term);
+		/**
+		 * The sentences in both lists
+		 */
+		int[] result = new int[Math.min(ids.length, other.length)];
+		/**
+		 * The number of sentences found in both lists
+		 */
+		int count = 0;
+		for (int i = 0, j = 0; i < ids.length && j < other.length;) {
+			if (ids[i] < other[j]) {
+				i++;
+			}
+			else if (ids[i] > other[j]) {
+				j++;
+			}
+			else {
+				result[count++] = ids[i];
+				i++;
+				j++;
+			}
+		}
+		return Arrays.copyOf(result, count);
+	}
+	/**
+	 * Returns the sentences in either of two lists
+	 * @param a     The IDs of the sentences in ascending order, or null for no list
+	 * @param b     The IDs of the sentences in ascending order
+	 * @return      The IDs of the sentences in either list in ascending order, without IDs that are out of range
+	 */
+	private int[] union(int[] a, int[] b) {
+		if (a == null) {
+			a = new int[0];
+		}
+		/**
+		 * The sentences in either list
+		 */
+		int[] result = new int[a.length + b.length];
+		/**
+		 * The number of sentences found in either list
+		 */
+		int count = 0;
+		/**
+		 * The position of the next ID of each list
+		 */
+		int i = 0;
+		int j = 0;
+		while (i < a.length || j < b.length) {
+			/**
+			 * The smaller ID at the head of the lists
+			 */
+			int next = j == b.length || (i < a.length && a[i] <= b[j]) ? a[i] : b[j];
+			if (i < a.length && a[i] == next) {
+				i++;
+			}
+			if (j < b.length && b[j] == next) {
+				j++;
+			}
+			if (next >= 0 && next < numSentences) {
+				result[count++] = next;
+			}
+		}
+		return Arrays.copyOf(result, count);
+	}
+	/**
+	 * The list of sentences of one term while an index is being built
+	 */
+	private static class Postings {
+		/**
+		 * The gaps between the IDs of the sentences, written as variable length integers
+		 */
+		private byte[] data = new byte[4];
+		/**
+		 * The number of bytes used in param data
+		 */
+		private int length = 0;
+		/**
+		 * The number of sentences in the list
+		 */
+		private int count = 0;
+		/**
+		 * The ID of the last sentence in the list
+		 */
+		private int last = -1;
+		/**
+		 * Adds a sentence to the list unless it was the last one added
+		 * @param id     The ID of the sentence
+		 */
+		private void add(int id) {
+			if (id == last) {
+				return;
+			}
+			/**
+			 * The gap from the last sentence, written seven bits at a time
+			 */
+			int gap = id - last;
+			last = id;
+			count++;
+			while (true) {
+				if (length + 1 > data.length) {
+					data = Arrays.copyOf(data, data.length * 2);
+				}
+				if ((gap & ~0x7F) == 0) {
+					data[length++] = (byte) gap;
+					return;
+				}
+				data[length++] = (byte) ((gap & 0x7F) | 0x80);
+				gap >>>= 7;
+			}
+		}
+	}
+}
@@ -0,0 +1,188 @@
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntPredicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+/**
+ * Iterator that splits a stream of page text into sentences. Only the text of the current page and the unfinished
+ * sentence carried over from the previous page are held in memory, so a sentence that crosses a page boundary is
+ * joined back together exactly as if the whole document had been split at once. Pages that a search has ruled out
+ * can be skipped: only their first and last sentences, which may continue from or into a neighbouring page, are
+ * returned, and the text between them is never split.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class SentenceIterator implements Iterator<String> {
+	/**
+	 * Characters that often represent a separation of content in a PDF file, such as a full stop, bullet points,
+	 * semicolon or colon. Used by the report and number search features.
+	 */
+	public static final Pattern REPORT_DELIMITERS = Pattern.compile("\\.|;|:|\u2022");
+	/**
+	 * The sentence separators used by the Python file that generates metrics, which are a full stop followed by a
+	 * space, a semicolon or a bullet point
+	 */
+	public static final Pattern NER_DELIMITERS = Pattern.compile("\\. |;|\u2022");
+	/**
+	 * The source of page text
+	 */
+	private final Iterator<String> pages;
+	/**
+	 * The pattern that separates one sentence from the next
+	 */
+	private final Pattern delimiters;
+	/**
+	 * Returns true for the zero based index of a page whose sentences that start and end on it are not needed, or
+	 * null if every sentence is needed
+	 */
+	private final IntPredicate skipped;
+	/**
+	 * Sentences found in the current page that have not been returned yet
+	 */
+	private final ArrayDeque<String> pending = new ArrayDeque<String>();
+	/**
+	 * The page that each pending sentence started on
+	 */
+	private final ArrayDeque<Integer> pendingPages = new ArrayDeque<Integer>();
+	/**
+	 * The text after the last delimiter seen so far, which belongs to a sentence that has not ended yet
+	 */
+	private String carry = "";
+	/**
+	 * The page that the carried text started on
+	 */
+	private int carryPage = 0;
+	/**
+	 * The zero based index of the next page to be read
+	 */
+	private int nextPage = 0;
+	/**
+	 * The page that the last returned sentence started on
+	 */
+	private int pageNumber = -1;
+	/**
+	 * Creates an iterator over the sentences of an already extracted text, split on REPORT_DELIMITERS
+	 * @param text     The extracted text
+	 */
+	public SentenceIterator(String text) {
+		this(Collections.singletonList(text).iterator(), REPORT_DELIMITERS);
+	}
+	/**
+	 * Creates an iterator over the sentences of a stream of page text
+	 * @param pages          An iterator that yields the text of each page in order
+	 * @param delimiters     The pattern that separates one sentence from the next
+	 */
+	public SentenceIterator(Iterator<String> pages, Pattern delimiters) {
+		this(pages, delimiters, null);
+	}
+	/**
+	 * Creates an iterator over the sentences of a stream of page text that skips the sentences lying wholly within
+	 * some pages. No two delimiters may overlap, which is true of REPORT_DELIMITERS and NER_DELIMITERS, so that the
+	 * last delimiter of a skipped page can be found by scanning back from its end.
+	 * @param pages          An iterator that yields the text of each page in order
+	 * @param delimiters     The pattern that separates one sentence from the next
+	 * @param skipped        Returns true for the zero based index of a page whose sentences that start and end on
+	 *                       it are not needed, and is called once for each page just after its text is read
+	 */
+	public SentenceIterator(Iterator<String> pages, Pattern delimiters, IntPredicate skipped) {
+		this.pages = pages;
+		this.delimiters = delimiters;
+		this.skipped = skipped;
+	}
+	/**
+	 * Returns the zero based index of the page that the last returned sentence started on
+	 * @return     The index of the page, or -1 if no sentence has been returned yet
+	 */
+	public int getPageNumber() {
+		return pageNumber;
+	}
+	/**
+	 * Returns true if there is another sentence, reading further pages until a sentence is found or the pages
+	 * run out
+	 * @return     True if there is another sentence
+	 */
+	public boolean hasNext() {
+		while (pending.isEmpty() && carry != null) {
+			if (pages.hasNext()) {
+				splitPage(pages.next());
+			}
+			else {
+				if (carry.length() > 0) {
+					pending.add(carry);
+					pendingPages.add(carryPage);
+				}
+				carry = null;
+			}
+		}
+		return !pending.isEmpty();
+	}
+	/**
+	 * Returns the next sentence
+	 * @return     The next sentence
+	 */
+	public String next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		pageNumber = pendingPages.poll();
+		return pending.poll();
+	}
+	/**
+	 * Splits the carried text followed by the text of a page into sentences. Any text after the last delimiter is
+	 * carried to the next page, which also keeps a delimiter of more than one character that is cut by the page
+	 * boundary from being missed.
+	 * @param pageText     The text of the next page
+	 */
+	private void splitPage(String pageText) {
+		/**
+		 * The index of the page being split
+		 */
+		int page = nextPage++;
+		/**
+		 * The carried text followed by the text of the page
+		 */
+		String buffer = carry.length() == 0 ? pageText : carry + pageText;
+		/**
+		 * The length of the carried text at the start of the buffer
+		 */
+		int carryLength = carry.length();
+		if (carryLength == 0) {
+			carryPage = page;
+		}
+		/**
+		 * Finds each delimiter in the buffer
+		 */
+		Matcher matcher = delimiters.matcher(buffer);
+		/**
+		 * The index in the buffer where the current sentence starts
+		 */
+		int start = 0;
+		if (skipped != null && skipped.test(page)) {
+			if (matcher.find()) {
+				pending.add(buffer.substring(0, matcher.start()));
+				pendingPages.add(carryLength > 0 ? carryPage : page);
+				start = matcher.end();
+				for (int i = buffer.length() - 1; i >= start; i--) {
+					if (matcher.region(i, buffer.length()).lookingAt()) {
+						start = matcher.end();
+						break;
+					}
+				}
+			}
+		}
+		else {
+			while (matcher.find()) {
+				pending.add(buffer.substring(start, matcher.start()));
+				pendingPages.add(start < carryLength ? carryPage : page);
+				start = matcher.end();
+			}
+		}
+		if (start >= carryLength) {
+			carryPage = page;
+		}
+		carry = buffer.substring(start);
+	}
+}
@@ -0,0 +1,140 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+/**
+ * Reads and writes tables in a compact binary format, which is how the tabula Python file sends the tables it finds.
+ * Each table starts with the byte 'T' followed by its number of rows and columns as four byte big-endian integers,
+ * then every cell in row order as a four byte big-endian length followed by that many bytes of UTF-8 text. The
+ * first row holds the column titles. The byte 'E' follows the last table. A table can be read as soon as its bytes
+ * have arrived, in time proportional to its size.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class TableCodec {
+	/**
+	 * Marks the start of a table
+	 */
+	public static final int TABLE = 'T';
+	/**
+	 * Marks the end of the output
+	 */
+	public static final int END = 'E';
+	/**
+	 * The largest number of cells accepted in one table, which stops a corrupt header from allocating huge lists
+	 */
+	private static final long MAX_CELLS = 50_000_000L;
+	/**
+	 * Private constructor as the class only has static methods
+	 */
+	private TableCodec() {
+
+	}
+	/**
+	 * Reads the next table
+	 * @param in               The source of the encoded tables
+	 * @return                 The rows of the table, each split into its cells, or null if the end marker was read
+	 * @throws IOException     Occurs if the input ends before the end marker or is not in the expected format
+	 */
+	public static ArrayList<ArrayList<String>> readTable(DataInput in) throws IOException {
+		/**
+		 * The marker that starts the next record
+		 */
+		int marker;
+		try {
+			marker = in.readUnsignedByte();
+		}
+		catch (EOFException e) {
+			throw new IOException("Table output ended unexpectedly", e);
+		}
+		if (marker == END) {
+			return null;
+		}
+		if (marker != TABLE) {
+			throw new IOException("Invalid table output: unexpected marker " + marker);
+		}
+		try {
+			/**
+			 * The number of rows, including the column titles
+			 */
+			int numRows = in.readInt();
+			/**
+			 * The number of columns
+			 */
+			int numCols = in.readInt();
+			if (numRows < 0 || numCols < 0 || (long) numRows * numCols > MAX_CELLS) {
+				throw new IOException("Invalid table output: " + numRows + " rows and " + numCols + " columns");
+			}
+			/**
+			 * The rows of the table
+			 */
+			ArrayList<ArrayList<String>> rows = new ArrayList<ArrayList<String>>(numRows);
+			for (int i = 0; i < numRows; i++) {
+				/**
+				 * The cells of one row
+				 */
+				ArrayList<String> row = new ArrayList<String>(numCols);
+				for (int j = 0; j < numCols; j++) {
+					/**
+					 * The length of the cell in bytes
+					 */
+					int length = in.readInt();
+					if (length < 0) {
+						throw new IOException("Invalid table output: cell length " + length);
+					}
+					/**
+					 * The UTF-8 bytes of the cell
+					 */
+					byte[] data = new byte[length];
+					in.readFully(data);
+					row.add(new String(data, StandardCharsets.UTF_8));
+				}
+				rows.add(row);
+			}
+			return rows;
+		}
+		catch (EOFException e) {
+			throw new IOException("Table output ended unexpectedly", e);
+		}
+	}
+	/**
+	 * Writes a table. Every row is padded with empty cells to the width of the widest row.
+	 * @param out              The destination of the encoded tables
+	 * @param rows             The rows of the table, each split into its cells, where the first row holds the column
+	 *                         titles
+	 * @throws IOException     Occurs if the table cannot be written
+	 */
+	public static void writeTable(DataOutput out, ArrayList<ArrayList<String>> rows) throws IOException {
+		/**
+		 * The number of columns, taken from the widest row
+		 */
+		int numCols = 0;
+		for (ArrayList<String> row : rows) {
+			numCols = Math.max(numCols, row.size());
+		}
+		out.writeByte(TABLE);
+		out.writeInt(rows.size());
+		out.writeInt(numCols);
+		for (ArrayList<String> row : rows) {
+			for (int j = 0; j < numCols; j++) {
+				/**
+				 * The UTF-8 bytes of the cell
+				 */
+				byte[] data = j < row.size() ? row.get(j).getBytes(StandardCharsets.UTF_8) : new byte[0];
+				out.writeInt(data.length);
+				out.write(data);
+			}
+		}
+	}
+	/**
+	 * Writes the marker that follows the last table
+	 * @param out              The destination of the encoded tables
+	 * @throws IOException     Occurs if the marker cannot be written
+	 */
+	public static void writeEnd(DataOutput out) throws IOException {
+		out.writeByte(END);
+	}
+}
@@ -0,0 +1,583 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+/**
+ * Finds tables in a PDF file from the positions of its words and the lines drawn on its pages. In stream mode,
+ * consecutive lines of text that are split into two or more separate blocks are treated as the rows of a table and
+ * the blocks are grouped into columns by their horizontal overlap. In lattice mode, the ruling lines of a bordered
+ * table form a grid and every word is placed in the grid cell that contains it. Pages are taken from the shared
+ * DocumentSession of the file, so a file that has already been read by another feature is not parsed again.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class TableDetector {
+	/**
+	 * How tables are recognised on a page
+	 */
+	public enum Mode {
+		/**
+		 * Tables are found from the alignment of the words alone
+		 */
+		STREAM,
+		/**
+		 * Tables are found from ruling lines alone
+		 */
+		LATTICE,
+		/**
+		 * Ruled tables are found first, then stream mode is used on the words outside them
+		 */
+		AUTO
+	}
+	/**
+	 * The fewest rows, including the header row, that a table can have
+	 */
+	private static final int MIN_ROWS = 2;
+	/**
+	 * The fewest columns that a table can have
+	 */
+	private static final int MIN_COLUMNS = 2;
+	/**
+	 * The largest gap between two words of the same block, as a multiple of the height of the line. Wider gaps
+	 * separate two cells.
+	 */
+	private static final float CELL_GAP = 1.0f;
+	/**
+	 * The largest gap between two rows of the same table, as a multiple of the height of the line. PDFBox measures
+	 * the height of a line as little more than half the font size, so this allows rows spaced about twice as far
+	 * apart as ordinary lines of text.
+	 */
+	private static final float ROW_GAP = 3f;
+	/**
+	 * The largest distance between two ruling lines for them to be treated as the same grid line
+	 */
+	private static final float GRID_TOLERANCE = 2f;
+	/**
+	 * How tables are recognised
+	 */
+	private final Mode mode;
+	/**
+	 * Creates a detector that uses the provided mode
+	 * @param mode     How tables are recognised
+	 */
+	public TableDetector(Mode mode) {
+		this.mode = mode;
+	}
+	/**
+	 * Finds every table in a PDF file, in page order
+	 * @param file             The PDF file to search
+	 * @return                 A PdfTable for every table found, whose first row holds the column titles
+	 * @throws IOException     Occurs when the PDF file cannot be loaded or a page cannot be read
+	 */
+	public ArrayList<PdfTable> detectTables(File file) throws IOException {
+		return detectTables(file, new JobMonitor());
+	}
+	/**
+	 * Finds every table in a PDF file, in page order, reporting each page read to a monitor. The pages are taken
+	 * from the shared session of the file, which is parsed first if it is not cached. Parsing stops between pages
+	 * once the job is cancelled.
+	 * @param file             The PDF file to search
+	 * @param monitor          Receives the progress of the job and tells it when it has been cancelled
+	 * @return                 A PdfTable for every table found, whose first row holds the column titles
+	 * @throws IOException     Occurs when the PDF file cannot be loaded or a page cannot be read
+	 */
+	public ArrayList<PdfTable> detectTables(File file, JobMonitor monitor) throws IOException {
+		return detectTables(DocumentSession.open(file, monitor));
+	}
+	/**
+	 * Finds every table in a parsed PDF file, in page order. The pages were parsed by the workers of a
+	 * ParallelTextExtractor, and finding the tables in the words and lines they hold takes a small part of that
+	 * time, so the pages are searched on the calling thread.
+	 * @param session     The parsed content of the PDF file
+	 * @return            A PdfTable for every table found, whose first row holds the column titles
+	 */
+	public ArrayList<PdfTable> detectTables(DocumentSession session) {
+		/**
+		 * Every table found, in page order
+		 */
+		ArrayList<PdfTable> tables = new ArrayList<PdfTable>();
+		for (int i = 0; i < session.getNumberOfPages(); i++) {
+			/**
+			 * The content of the page
+			 */
+			DocumentSession.Page page = session.getPage(i);
+			/**
+			 * The tables found on the page
+			 */
+			List<ArrayList<ArrayList<String>>> found;
+			if (mode == Mode.STREAM) {
+				found = detectTables(page.getLayout(), new ArrayList<float[]>(), new ArrayList<float[]>());
+			}
+			else {
+				found = detectTables(page.getLayout(), page.getHorizontals(), page.getVerticals());
+			}
+			for (ArrayList<ArrayList<String>> cells : found) {
+				/**
+				 * The table built directly from its cells
+				 */
+				PdfTable table = PdfTable.fromCells(cells);
+				table.setTitle("Page " + (i + 1));
+				tables.add(table);
+			}
+		}
+		return tables;
+	}
+	/**
+	 * Finds the tables on one page
+	 * @param layout          The words of the page
+	 * @param horizontals     The horizontal ruling lines of the page, as {y, left, right}
+	 * @param verticals       The vertical ruling lines of the page, as {x, top, bottom}
+	 * @return                The cells of every table on the page, from top to bottom, as a list of rows
+	 */
+	public List<ArrayList<ArrayList<String>>> detectTables(PageLayout layout, List<float[]> horizontals, List<float[]> verticals) {
+		/**
+		 * The tables found on the page
+		 */
+		ArrayList<ArrayList<ArrayList<String>>> tables = new ArrayList<ArrayList<ArrayList<String>>>();
+		/**
+		 * Marks the words already placed in a ruled table
+		 */
+		boolean[] used = new boolean[layout.getWordCount()];
+		if (mode != Mode.STREAM) {
+			detectLattice(layout, horizontals, verticals, used, tables);
+		}
+		if (mode != Mode.LATTICE) {
+			detectStream(layout, used, tables);
+		}
+		return tables;
+	}
+	/**
+	 * Finds ruled tables by grouping ruling lines that touch into grids and placing each word in the grid cell that
+	 * contains its centre
+	 * @param layout          The words of the page
+	 * @param horizontals     The horizontal ruling lines of the page
+	 * @param verticals       The vertical ruling lines of the page
+	 * @param used            Marks the words placed in a table, which is updated by this method
+	 * @param tables          The list that the tables found are added to
+	 */
+	private static void detectLattice(PageLayout layout, List<float[]> horizontals, List<float[]> verticals, boolean[] used, ArrayList<ArrayList<ArrayList<String>>> tables) {
+		/**
+		 * The number of horizontal lines, whose indexes come before the vertical lines in the union-find array
+		 */
+		int numHorizontals = horizontals.size();
+		/**
+		 * The parent of each ruling line in a union-find forest, where lines in the same tree form one grid
+		 */
+		int[] parent = new int[numHorizontals + verticals.size()];
+		for (int i = 0; i < parent.length; i++) {
+			parent[i] = i;
+		}
+		for (int h = 0; h < numHorizontals; h++) {
+			/**
+			 * A horizontal line as {y, left, right}
+			 */
+			float[] horizontal = horizontals.get(h);
+			for (int v = 0; v < verticals.size(); v++) {
+				/**
+				 * A vertical line as {x, top, bottom}
+				 */
+				float[] vertical = verticals.get(v);
+				if (vertical[0] >= horizontal[1] - GRID_TOLERANCE && vertical[0] <= horizontal[2] + GRID_TOLERANCE
+						&& horizontal[0] >= vertical[1] - GRID_TOLERANCE && horizontal[0] <= vertical[2] + GRID_TOLERANCE) {
+					parent[find(parent, h)] = find(parent, numHorizontals + v);
+				}
+			}
+		}
+		for (int root = 0; root < parent.length; root++) {
+			if (find(parent, root) != root) {
+				continue;
+			}
+			/**
+			 * The distinct y coordinates of the horizontal lines of the grid
+			 */
+			float[] rowEdges = new float[numHorizontals];
+			/**
+			 * The number of horizontal lines in the grid
+			 */
+			int numRowEdges = 0;
+			/**
+			 * The distinct x coordinates of the vertical lines of the grid
+			 */
+			float[] columnEdges = new float[verticals.size()];
+			/**
+			 * The number of vertical lines in the grid
+			 */
+			int numColumnEdges = 0;
+			for (int i = 0; i < parent.length; i++) {
+				if (find(parent, i) == root) {
+					if (i < numHorizontals) {
+						rowEdges[numRowEdges++] = horizontals.get(i)[0];
+					}
+					else {
+						columnEdges[numColumnEdges++] = verticals.get(i - numHorizontals)[0];
+					}
+				}
+			}
+			rowEdges = mergeEdges(rowEdges, numRowEdges);
+			columnEdges = mergeEdges(columnEdges, numColumnEdges);
+			if (rowEdges.length - 1 < MIN_ROWS || columnEdges.length - 1 < MIN_COLUMNS) {
+				continue;
+			}
+			/**
+			 * The text of each cell of the grid
+			 */
+			StringBuilder[][] cells = new StringBuilder[rowEdges.length - 1][columnEdges.length - 1];
+			/**
+			 * True once a word has been placed in the grid
+			 */
+			boolean found = false;
+			for (int w = 0; w < layout.getWordCount(); w++) {
+				if (used[w]) {
+					continue;
+				}
+				/**
+				 * The row and column of the cell containing the centre of the word
+				 */
+				int row = findInterval(rowEdges, (layout.getTop(w) + layout.getBottom(w)) / 2);
+				int column = findInterval(columnEdges, (layout.getLeft(w) + layout.getRight(w)) / 2);
+				if (row >= 0 && column >= 0) {
+					appendWord(cells, row, column, layout.getWord(w));
+					used[w] = true;
+					found = true;
+				}
+			}
+			if (found) {
+				tables.add(toRows(cells));
+			}
+		}
+	}
+	/**
+	 * Finds unruled tables from runs of consecutive lines that are each split into two or more blocks of words
+	 * @param layout     The words of the page
+	 * @param used       Marks the words already placed in a ruled table, which are skipped
+	 * @param tables     The list that the tables found are added to
+	 */
+	private static void detectStream(PageLayout layout, boolean[] used, ArrayList<ArrayList<ArrayList<String>>> tables) {
+		/**
+		 * The lines of text on the page from top to bottom, each split into blocks
+		 */
+		ArrayList<ArrayList<Block>> lines = groupLines(layout, used);
+		/**
+		 * The index of the first line of the current run of table rows
+		 */
+		int runStart = 0;
+		for (int i = 0; i <= lines.size(); i++) {
+			/**
+			 * True if the line continues the current run of rows
+			 */
+			boolean continues = i < lines.size() && lines.get(i).size() >= MIN_COLUMNS;
+			if (continues && i > runStart) {
+				/**
+				 * The previous line of the run
+				 */
+				Block previous = lines.get(i - 1).get(0);
+				/**
+				 * The first block of this line
+				 */
+				Block current = lines.get(i).get(0);
+				continues = current.top - previous.bottom <= ROW_GAP * (current.bottom - current.top);
+			}
+			if (!continues) {
+				if (i - runStart >= MIN_ROWS) {
+					/**
+					 * The cells of the run, if it forms a table
+					 */
+					ArrayList<ArrayList<String>> table = buildStreamTable(lines.subList(runStart, i));
+					if (table != null) {
+						tables.add(table);
+					}
+				}
+				runStart = i < lines.size() && lines.get(i).size() >= MIN_COLUMNS ? i : i + 1;
+			}
+		}
+	}
+	/**
+	 * Groups the words of a page into lines by the position of their centres and splits each line into blocks
+	 * wherever the gap between two words is wider than CELL_GAP
+	 * @param layout     The words of the page
+	 * @param used       Marks words that are skipped
+	 * @return           The lines of the page from top to bottom
+	 */
+	private static ArrayList<ArrayList<Block>> groupLines(PageLayout layout, boolean[] used) {
+		/**
+		 * The indexes of the words to group, sorted by their vertical centre
+		 */
+		Integer[] order = new Integer[layout.getWordCount()];
+		/**
+		 * The number of words to group
+		 */
+		int count = 0;
+		for (int w = 0; w < order.length; w++) {
+			if (!used[w]) {
+				order[count++] = w;
+			}
+		}
+		order = Arrays.copyOf(order, count);
+		Arrays.sort(order, Comparator.comparingDouble(w -> layout.getTop(w) + layout.getBottom(w)));
+		/**
+		 * The lines found
+		 */
+		ArrayList<ArrayList<Block>> lines = new ArrayList<ArrayList<Block>>();
+		/**
+		 * The position in the sorted word indexes where the current line starts
+		 */
+		int lineStart = 0;
+		for (int i = 1; i <= count; i++) {
+			if (i < count) {
+				/**
+				 * The first word of the current line
+				 */
+				int first = order[lineStart];
+				/**
+				 * The word being considered
+				 */
+				int word = order[i];
+				/**
+				 * Half the height of the first word of the line
+				 */
+				float halfHeight = (layout.getBottom(first) - layout.getTop(first)) / 2;
+				if (Math.abs((layout.getTop(word) + layout.getBottom(word)) - (layout.getTop(first) + layout.getBottom(first))) / 2 <= halfHeight) {
+					continue;
+				}
+			}
+			/**
+			 * The words of the line from left to right
+			 */
+			Integer[] line = Arrays.copyOfRange(order, lineStart, i);
+			Arrays.sort(line, Comparator.comparingDouble(w -> layout.getLeft(w)));
+			/**
+			 * The blocks of the line
+			 */
+			ArrayList<Block> blocks = new ArrayList<Block>();
+			/**
+			 * The block being built
+			 */
+			Block block = null;
+			for (int word : line) {
+				/**
+				 * The height of the word, which sets the largest gap inside a block
+				 */
+				float height = layout.getBottom(word) - layout.getTop(word);
+				if (block == null || layout.getLeft(word) - block.right > CELL_GAP * height) {
+					block = new Block(layout.getLeft(word), layout.getTop(word), layout.getBottom(word));
+					blocks.add(block);
+				}
+				else {
+					block.text.append(' ');
+				}
+				block.text.append(layout.getWord(word));
+				block.right = Math.max(block.right, layout.getRight(word));
+				block.top = Math.min(block.top, layout.getTop(word));
+				block.bottom = Math.max(block.bottom, layout.getBottom(word));
+			}
+			lines.add(blocks);
+			lineStart = i;
+		}
+		return lines;
+	}
+	/**
+	 * Builds the cells of an unruled table from its rows. The columns are the horizontal ranges covered by
+	 * overlapping blocks, and every block is placed in the column that contains its centre. The points covered by
+	 * the blocks are marked in a bitmap, measured in whole points from the left edge of the page, so the columns are
+	 * the runs of set bits and are found without sorting the blocks, and the column of a block is looked up by the
+	 * point its centre falls on.
+	 * @param rows     The rows of the table, each split into blocks
+	 * @return         The cells of the table as a list of rows, or null if the rows do not form a table
+	 */
+	private static ArrayList<ArrayList<String>> buildStreamTable(List<ArrayList<Block>> rows) {
+		/**
+		 * The points covered by any block of the table
+		 */
+		BitSet covered = new BitSet();
+		/**
+		 * True if any block contains a digit, as a run of text that holds no numbers is far more likely to be
+		 * laid out in columns than to be a table
+		 */
+		boolean numeric = false;
+		for (ArrayList<Block> row : rows) {
+			for (Block block : row) {
+				covered.set(point(block.left), point(block.right) + 1);
+				for (int c = 0; c < block.text.length() && !numeric; c++) {
+					numeric = Character.isDigit(block.text.charAt(c));
+				}
+			}
+		}
+		if (!numeric) {
+			return null;
+		}
+		/**
+		 * The column of each covered point
+		 */
+		int[] columnAt = new int[covered.length()];
+		/**
+		 * The number of columns
+		 */
+		int numColumns = 0;
+		for (int start = covered.nextSetBit(0); start >= 0; start = covered.nextSetBit(start)) {
+			/**
+			 * The point after the end of the column
+			 */
+			int end = covered.nextClearBit(start);
+			Arrays.fill(columnAt, start, end, numColumns++);
+			start = end;
+		}
+		if (numColumns < MIN_COLUMNS) {
+			return null;
+		}
+		/**
+		 * The text of each cell
+		 */
+		StringBuilder[][] cells = new StringBuilder[rows.size()][numColumns];
+		for (int r = 0; r < rows.size(); r++) {
+			for (Block block : rows.get(r)) {
+				appendWord(cells, r, columnAt[point((block.left + block.right) / 2)], block.text);
+			}
+		}
+		return toRows(cells);
+	}
+	/**
+	 * Returns the whole point that a horizontal position falls on, counting from the left edge of the page
+	 * @param position     The position
+	 * @return             The index of the point in a bitmap of the width of the page
+	 */
+	private static int point(float position) {
+		return Math.max(0, (int) position);
+	}
+	/**
+	 * Sorts grid line positions and merges those closer than GRID_TOLERANCE
+	 * @param edges     The positions of the lines
+	 * @param count     The number of positions used in param edges
+	 * @return          The distinct positions in increasing order
+	 */
+	private static float[] mergeEdges(float[] edges, int count) {
+		Arrays.sort(edges, 0, count);
+		/**
+		 * The number of distinct positions
+		 */
+		int distinct = 0;
+		for (int i = 0; i < count; i++) {
+			if (distinct == 0 || edges[i] - edges[distinct - 1] > GRID_TOLERANCE) {
+				edges[distinct++] = edges[i];
+			}
+		}
+		return Arrays.copyOf(edges, distinct);
+	}
+	/**
+	 * Finds the interval between two consecutive edges that contains a position
+	 * @param edges        The edges in increasing order
+	 * @param position     The position to find
+	 * @return             The index of the interval, or -1 if the position is outside every interval
+	 */
+	private static int findInterval(float[] edges, float position) {
+		/**
+		 * The index of the first edge greater than the position
+		 */
+		int index = Arrays.binarySearch(edges, position);
+		if (index < 0) {
+			index = -index - 1;
+		}
+		else {
+			index++;
+		}
+		return index > 0 && index < edges.length ? index - 1 : -1;
+	}
+	/**
+	 * Finds the root of a ruling line in a union-find forest, shortening the path on the way
+	 * @param parent     The parent of each line
+	 * @param i          The line to find
+	 * @return           The root of the tree containing the line
+	 */
+	private static int find(int[] parent, int i) {
+		while (parent[i] != i) {
+			parent[i] = parent[parent[i]];
+			i = parent[i];
+		}
+		return i;
+	}
+	/**
+	 * Adds text to a cell, separating it from any text already in the cell with a space
+	 * @param cells      The text of each cell
+	 * @param row        The row of the cell
+	 * @param column     The column of the cell
+	 * @param text       The text to add
+	 */
+	private static void appendWord(StringBuilder[][] cells, int row, int column, CharSequence text) {
+		if (cells[row][column] == null) {
+			cells[row][column] = new StringBuilder();
+		}
+		else {
+			cells[row][column].append(' ');
+		}
+		cells[row][column].append(text);
+	}
+	/**
+	 * Converts a grid of cell text into a list of rows, leaving out rows that are entirely empty
+	 * @param cells     The text of each cell, where a missing cell is null
+	 * @return          The cells as a list of rows, with empty strings for missing cells
+	 */
+	private static ArrayList<ArrayList<String>> toRows(StringBuilder[][] cells) {
+		/**
+		 * The rows of the table
+		 */
+		ArrayList<ArrayList<String>> rows = new ArrayList<ArrayList<String>>(cells.length);
+		for (StringBuilder[] cellRow : cells) {
+			/**
+			 * The cells of one row
+			 */
+			ArrayList<String> row = new ArrayList<String>(cellRow.length);
+			/**
+			 * True if any cell of the row holds text
+			 */
+			boolean empty = true;
+			for (StringBuilder cell : cellRow) {
+				row.add(cell == null ? "" : cell.toString());
+				empty &= cell == null;
+			}
+			if (!empty) {
+				rows.add(row);
+			}
+		}
+		return rows;
+	}
+	/**
+	 * A run of words on one line that are close enough together to belong to the same cell
+	 */
+	private static class Block {
+		/**
+		 * The text of the words, separated by spaces
+		 */
+		final StringBuilder text = new StringBuilder();
+		/**
+		 * The left edge of the block
+		 */
+		final float left;
+		/**
+		 * The right edge of the block
+		 */
+		float right;
+		/**
+		 * The top edge of the block
+		 */
+		float top;
+		/**
+		 * The bottom edge of the block
+		 */
+		float bottom;
+		/**
+		 * Creates an empty block starting at the edges of its first word
+		 * @param left       The left edge of the first word
+		 * @param top        The top edge of the first word
+		 * @param bottom     The bottom edge of the first word
+		 */
+		Block(float left, float top, float bottom) {
+			this.left = left;
+			this.right = left;
+			this.top = top;
+			this.bottom = bottom;
+		}
+	}
+}
@@ -0,0 +1,265 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+/**
+ * A dictionary of units of measurement compiled into one AhoCorasickAutomaton, so that every unit occurring in a
+ * sentence is found in a single pass however many units there are. Each unit that stands as a token of its own is
+ * attached to the nearest number found by a NumericTokenizer, which makes resolving the units of a sentence linear in
+ * its length. Units are matched with their case, so MW and mW are different units. A dictionary keeps scratch state
+ * between calls and must only be used by one thread at a time.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class UnitDictionary {
+	/**
+	 * The units found in quarterly and annual reports of mining and energy companies, used when no other dictionary
+	 * is given
+	 */
+	public static final List<String> DEFAULT_UNITS = Collections.unmodifiableList(Arrays.asList(
+			"t", "kt", "Mt", "Gt", "tonnes", "tonne", "tons", "ton", "dmt", "wmt", "dry metric tonnes", "wet metric tonnes",
+			"kg", "g", "mg", "lb", "lbs", "klb", "Mlb", "oz", "ozs", "koz", "Moz", "ounces", "ct", "carats",
+			"g/t", "kg/t", "oz/t", "ppm", "ppb", "%", "per cent", "percent", "bps", "basis points",
+			"tpa", "ktpa", "Mtpa", "tpd", "tph", "t/h", "t/d", "ozpa", "kozpa",
+			"L", "kL", "ML", "GL", "m3", "m\u00b3", "bbl", "kbbl", "MMbbl", "bbl/d", "bpd", "boe", "kboe", "MMboe", "boe/d", "boepd",
+			"scf", "mcf", "MMcf", "bcf", "Bcf", "tcf", "Tcf", "MMscf/d", "TJ", "PJ", "GJ", "MJ", "MMBtu", "mmBtu",
+			"W", "kW", "MW", "GW", "kWh", "MWh", "GWh", "TWh", "MWp", "kV", "kVA", "MVA",
+			"mm", "cm", "m", "km", "ft", "mi", "m2", "km2", "ha", "acres", "sq km",
+			"s", "min", "mins", "h", "hr", "hrs", "hours", "days", "weeks", "months", "years", "yrs", "shifts",
+			"$", "A$", "US$", "C$", "NZ$", "S$", "HK$", "\u20ac", "\u00a3", "\u00a5",
+			"$M", "A$M", "US$M", "C$M", "$m", "A$m", "US$m", "C$m", "$B", "$bn", "A$bn", "US$bn", "$k", "A$k", "US$k", "$000", "A$000", "US$000",
+			"M", "bn", "billion", "million", "thousand", "k",
+			"AUD", "USD", "CAD", "NZD", "EUR", "GBP", "CNY", "JPY", "ZAR", "cents", "c", "cps",
+			"/t", "/oz", "/lb", "/bbl", "/boe", "/MWh", "/dmt", "/wmt", "/GJ",
+			"employees", "people", "holes", "drill holes", "metres", "meters", "rigs", "LTIFR", "TRIFR"));
+	/**
+	 * The number of occurrences the scratch buffers hold before they first have to grow
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+	/**
+	 * The distinct units, in the order of their identifiers
+	 */
+	private final List<String> units;
+	/**
+	 * The automaton that finds every unit
+	 */
+	private final AhoCorasickAutomaton automaton;
+	/**
+	 * The serial number of the sentence in which each unit was last found anywhere
+	 */
+	private final int[] foundStamp;
+	/**
+	 * The serial number of the last sentence scanned, used to reset foundStamp without clearing it
+	 */
+	private int serial = 0;
+	/**
+	 * The unit of each occurrence that stands as a token of its own in the last sentence scanned
+	 */
+	private int[] occurrenceUnits = new int[INITIAL_CAPACITY];
+	/**
+	 * The index in the sentence where each occurrence starts
+	 */
+	private int[] occurrenceStarts = new int[INITIAL_CAPACITY];
+	/**
+	 * The index in the sentence after the last character of each occurrence
+	 */
+	private int[] occurrenceEnds = new int[INITIAL_CAPACITY];
+	/**
+	 * The number of occurrences that stand as a token of their own in the last sentence scanned
+	 */
+	private int occurrences = 0;
+	/**
+	 * The distance in characters between each number of the last sentence given units and its unit
+	 */
+	private int[] unitDistances = new int[INITIAL_CAPACITY];
+	/**
+	 * Compiles a dictionary of units. A unit that appears more than once keeps the identifier of its first
+	 * appearance.
+	 * @param units     The units, whose positions in the list are their identifiers
+	 */
+	public UnitDictionary(List<String> units) {
+		this.units = units;
+		automaton = new AhoCorasickAutomaton(units, false);
+		foundStamp = new int[units.size()];
+	}
+	/**
+	 * Compiles the dictionary of DEFAULT_UNITS
+	 * @return     The compiled dictionary
+	 */
+	public static UnitDictionary createDefault() {
+		return new UnitDictionary(DEFAULT_UNITS);
+	}
+	/**
+	 * Returns the number of units in the dictionary
+	 * @return     The number of units
+	 */
+	public int size() {
+		return units.size();
+	}
+	/**
+	 * Returns a unit
+	 * @param unit     The identifier of the unit
+	 * @return         The unit as written in the dictionary
+	 */
+	public String getUnit(int unit) {
+		return units.get(unit);
+	}
+	/**
+	 * Finds every unit in a sentence, replacing the units found in the previous sentence
+	 * @param sentence     The sentence to scan
+	 * @return             The number of occurrences that stand as a token of their own
+	 */
+	public int scan(CharSequence sentence) {
+		serial++;
+		occurrences = 0;
+		automaton.scan(sentence, (unit, start, end) -> {
+			foundStamp[unit] = serial;
+			if (isBounded(sentence, start, end)) {
+				addOccurrence(unit, start, end);
+			}
+		});
+		return occurrences;
+	}
+	/**
+	 * Returns true if a unit occurred anywhere in the last sentence scanned, including inside a longer word, which is
+	 * the same test as String.contains
+	 * @param unit     The identifier of the unit
+	 * @return         True if the unit occurred in the sentence
+	 */
+	public boolean contains(int unit) {
+		return foundStamp[unit] == serial;
+	}
+	/**
+	 * Finds every unit in a sentence and gives each number found by a tokenizer in the same sentence the unit nearest
+	 * to it. A unit inside a number, such as a percent sign, belongs to that number, and any other unit belongs to the
+	 * number before or after it that is fewer characters away, preferring the number before. When several units are
+	 * nearest to the same number the closest one is kept, and of those the longest.
+	 * @param sentence     The sentence that was tokenized
+	 * @param numbers      A tokenizer holding the numbers of param sentence, whose units are set
+	 * @return             The number of numbers given a unit
+	 */
+	public int attach(CharSequence sentence, NumericTokenizer numbers) {
+		scan(sentence);
+		/**
+		 * The number of numbers in the sentence
+		 */
+		int count = numbers.size();
+		if (unitDistances.length < count) {
+			unitDistances = new int[Math.max(count, 2 * unitDistances.length)];
+		}
+		for (int t = 0; t < count; t++) {
+			numbers.setUnit(t, NumericTokenizer.NO_UNIT);
+		}
+		/**
+		 * The number of numbers given a unit
+		 */
+		int attached = 0;
+		for (int o = 0; o < occurrences && count > 0; o++) {
+			/**
+			 * The start and end of the occurrence
+			 */
+			int start = occurrenceStarts[o];
+			int end = occurrenceEnds[o];
+			/**
+			 * The first number that starts at or after the end of the occurrence
+			 */
+			int after = firstStartingAt(numbers, end);
+			/**
+			 * The number before that one
+			 */
+			int before = after - 1;
+			/**
+			 * The number the occurrence belongs to, and how far away it is
+			 */
+			int token;
+			int distance;
+			if (before >= 0 && numbers.getEnd(before) > start) {
+				if (numbers.getStart(before) > start || numbers.getEnd(before) < end) {
+					// The unit overlaps the edge of a number, so it is part of some other word
+					continue;
+				}
+				token = before;
+				distance = 0;
+			}
+			else if (before >= 0 && (after == count || start - numbers.getEnd(before) <= numbers.getStart(after) - end)) {
+				token = before;
+				distance = start - numbers.getEnd(before);
+			}
+			else {
+				token = after;
+				distance = numbers.getStart(after) - end;
+			}
+			/**
+			 * The unit the number already has
+			 */
+			int current = numbers.getUnit(token);
+			if (current == NumericTokenizer.NO_UNIT) {
+				attached++;
+			}
+			else if (distance > unitDistances[token] || (distance == unitDistances[token] && units.get(occurrenceUnits[o]).length() <= units.get(current).length())) {
+				continue;
+			}
+			numbers.setUnit(token, occurrenceUnits[o]);
+			unitDistances[token] = distance;
+		}
+		return attached;
+	}
+	/**
+	 * Returns the first number that starts at or after an index, using the numbers being sorted by position
+	 * @param numbers     The numbers of the sentence
+	 * @param index       The index in the sentence
+	 * @return            The position of the number, or the number of numbers if every number starts before param
+	 *                    index
+	 */
+	private static int firstStartingAt(NumericTokenizer numbers, int index) {
+		/**
+		 * The range still to be searched
+		 */
+		int low = 0;
+		int high = numbers.size();
+		while (low < high) {
+			/**
+			 * The middle of the range
+			 */
+			int middle = (low + high) >>> 1;
+			if (numbers.getStart(middle) < index) {
+				low = middle + 1;
+			}
+			else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+	/**
+	 * Returns true if an occurrence of a unit stands as a token of its own, which is when it does not start or end in
+	 * the middle of a word. A number may touch a unit, as in 5kg or A$5.
+	 * @param sentence     The sentence
+	 * @param start        The index where the occurrence starts
+	 * @param end          The index after the last character of the occurrence
+	 * @return             True if the occurrence is a unit rather than part of a word
+	 */
+	private static boolean isBounded(CharSequence sentence, int start, int end) {
+		if (start > 0 && Character.isLetter(sentence.charAt(start)) && Character.isLetter(sentence.charAt(start - 1))) {
+			return false;
+		}
+		return end == sentence.length() || !Character.isLetter(sentence.charAt(end - 1)) || !Character.isLetter(sentence.charAt(end));
+	}
+	/**
+	 * Records an occurrence of a unit, growing the buffers if they are full
+	 * @param unit      The identifier of the unit
+	 * @param start     The index where the occurrence starts
+	 * @param end       The index after the last character of the occurrence
+	 */
+	private void addOccurrence(int unit, int start, int end) {
+		if (occurrences == occurrenceUnits.length) {
+			occurrenceUnits = Arrays.copyOf(occurrenceUnits, 2 * occurrences);
+			occurrenceStarts = Arrays.copyOf(occurrenceStarts, 2 * occurrences);
+			occurrenceEnds = Arrays.copyOf(occurrenceEnds, 2 * occurrences);
+		}
+		occurrenceUnits[occurrences] = unit;
+		occurrenceStarts[occurrences] = start;
+		occurrenceEnds[occurrences] = end;
+		occurrences++;
+	}
+}
@@ -0,0 +1,109 @@
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.TableColumn;
+import org.eclipse.swt.widgets.TableItem;
+/**
+ * Fills SWT tables created with the SWT.VIRTUAL style from a row provider. The table only asks for the text of a
+ * row when the row first scrolls into view, so showing a table takes the same time and memory whether it has a
+ * hundred rows or a hundred thousand. Column widths are estimated from a sample of the rows instead of measuring
+ * every row.
+ * @author     svats0001
+ * @version    1.0
+ * @since      18/10/26
+ */
+public class VirtualTable {
+	/**
+	 * Supplies the text of the rows of a virtual table
+	 */
+	public interface RowProvider {
+		/**
+		 * Returns the text of a row
+		 * @param index     The zero based index of the row
+		 * @return          The text of each cell of the row, from left to right
+		 */
+		String[] getRow(int index);
+	}
+	/**
+	 * The key under which the row provider of a table is stored with Table.setData
+	 */
+	private static final String PROVIDER_KEY = "VirtualTable.provider";
+	/**
+	 * The largest number of rows measured when estimating the widths of the columns
+	 */
+	private static final int SAMPLE_ROWS = 200;
+	/**
+	 * Space added to the measured width of each column for the cell margins
+	 */
+	private static final int COLUMN_PADDING = 16;
+	/**
+	 * Private constructor as the class only has static methods
+	 */
+	private VirtualTable() {
+
+	}
+	/**
+	 * Makes a table ask its row provider for the text of each row as it is shown. Must be called once, after the
+	 * table has been created with the SWT.VIRTUAL style.
+	 * @param table     The table to fill
+	 */
+	public static void attach(Table table) {
+		table.addListener(SWT.SetData, event -> {
+			/**
+			 * The row provider currently set for the table
+			 */
+			RowProvider provider = (RowProvider) table.getData(PROVIDER_KEY);
+			if (provider != null) {
+				((TableItem) event.item).setText(provider.getRow(event.index));
+			}
+		});
+	}
+	/**
+	 * Replaces the rows of a table and sizes its columns from a sample of the new rows. No row is read until it is
+	 * shown, apart from those in the sample.
+	 * @param table        A table that has been attached
+	 * @param count        The number of rows
+	 * @param provider     Supplies the text of each row
+	 */
+	public static void setRows(Table table, int count, RowProvider provider) {
+		table.setData(PROVIDER_KEY, provider);
+		table.clearAll();
+		table.setItemCount(count);
+		/**
+		 * The columns of the table
+		 */
+		TableColumn[] columns = table.getColumns();
+		/**
+		 * The widest text found in each column, starting with the column titles
+		 */
+		int[] widths = new int[columns.length];
+		/**
+		 * Measures the text of the sampled cells in the font of the table
+		 */
+		GC gc = new GC(table);
+		try {
+			for (int j = 0; j < columns.length; j++) {
+				widths[j] = gc.textExtent(columns[j].getText()).x;
+			}
+			/**
+			 * The number of rows to measure
+			 */
+			int samples = Math.min(count, SAMPLE_ROWS);
+			for (int s = 0; s < samples; s++) {
+				/**
+				 * Sampled rows are spread evenly through the table so that wide rows near the end are also seen
+				 */
+				String[] row = provider.getRow((int) ((long) s * count / samples));
+				for (int j = 0; j < row.length && j < columns.length; j++) {
+					widths[j] = Math.max(widths[j], gc.textExtent(row[j]).x);
+				}
+			}
+		}
+		finally {
+			gc.dispose();
+		}
+		for (int j = 0; j < columns.length; j++) {
+			columns[j].setWidth(widths[j] + COLUMN_PADDING);
+		}
+	}
+}